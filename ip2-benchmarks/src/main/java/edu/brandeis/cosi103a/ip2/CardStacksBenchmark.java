@@ -0,0 +1,38 @@
+package edu.brandeis.cosi103a.ip2;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks supply queries made during every BUY-phase decision.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardStacksBenchmark {
+
+    @Param({"3", "6", "8"})
+    public int money;
+
+    private CardStacks cardStacks;
+
+    @Setup
+    public void setUp() {
+        cardStacks = new CardStacks(2);
+    }
+
+    @Benchmark
+    public List<CardDefinition> getAvailableCards() {
+        return cardStacks.getAvailableCards();
+    }
+
+    @Benchmark
+    public long getAvailableMask() {
+        return cardStacks.getAvailableMask(money);
+    }
+}
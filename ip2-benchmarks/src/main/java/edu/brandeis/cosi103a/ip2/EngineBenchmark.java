@@ -0,0 +1,62 @@
+package edu.brandeis.cosi103a.ip2;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks complete games between SimplePlayers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EngineBenchmark {
+
+    @Param({"1", "2", "3", "4"})
+    public int numPlayers;
+
+    private List<Player> players;
+    private List<Player> memoizedPlayers;  // The same players, each with a cache kept across games
+
+    @Setup
+    public void setUp() {
+        players = new ArrayList<>();
+        memoizedPlayers = new ArrayList<>();
+        for (int i = 0; i < numPlayers; i++) {
+            players.add(new SimplePlayer("Player " + (i + 1)));
+            DecisionCache cache = new DecisionCache(100_000, DecisionCache.SupplyKey.AVAILABILITY);
+            memoizedPlayers.add(new MemoizingPlayer(players.get(i), cache));
+        }
+    }
+
+    @Benchmark
+    public GameResult fullGame() throws PlayerViolationException {
+        return new EngineImpl(players).play();
+    }
+
+    @Benchmark
+    public GameResult fullGameMemoized() throws PlayerViolationException {
+        return new EngineImpl(memoizedPlayers).play();
+    }
+
+    @Benchmark
+    public byte[] fullGameRecorded() throws PlayerViolationException {
+        EngineImpl engine = new EngineImpl(players);
+        ReplayRecorder recorder = ReplayRecorder.attach(engine);
+        engine.play();
+        return recorder.toByteArray();
+    }
+
+    @Benchmark
+    public LatencyMetrics fullGameTimed() throws PlayerViolationException {
+        EngineImpl engine = new EngineImpl(players);
+        LatencyMetrics metrics = LatencyMetrics.attach(engine);
+        engine.play();
+        return metrics;
+    }
+}
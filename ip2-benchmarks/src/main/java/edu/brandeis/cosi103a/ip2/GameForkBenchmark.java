@@ -0,0 +1,61 @@
+package edu.brandeis.cosi103a.ip2;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks forking a mid-game position, as a search-based player does for every
+ * simulation it runs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameForkBenchmark {
+
+    @Param({"2", "4"})
+    public int numPlayers;
+
+    private GameFork position;
+    private GameFork pooled;
+    private int lastOption;
+
+    @Setup
+    public void setUp() {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < numPlayers; i++) {
+            players.add(new SimplePlayer("Player " + (i + 1)));
+        }
+        position = new EngineImpl(players, 42L).fork();
+
+        // Play a few turns so that every zone holds cards
+        while (position.getTurn() <= 4 * numPlayers) {
+            position.applyOption(0);
+        }
+        pooled = new GameFork(numPlayers);
+        lastOption = position.getOptionCount() - 1;
+    }
+
+    @Benchmark
+    public GameFork fork() {
+        return position.fork();
+    }
+
+    @Benchmark
+    public GameFork copyFrom() {
+        pooled.copyFrom(position);
+        return pooled;
+    }
+
+    @Benchmark
+    public GameFork copyFromAndApply() {
+        pooled.copyFrom(position);
+        pooled.applyOption(lastOption);
+        return pooled;
+    }
+}
@@ -0,0 +1,35 @@
+package edu.brandeis.cosi103a.ip2;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the snapshot the engine builds before every player decision.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameStateBenchmark {
+
+    private EngineImpl engine;
+    private Player player;
+    private PlayerState state;
+
+    @Setup
+    public void setUp() {
+        player = new SimplePlayer("Alice");
+        engine = new EngineImpl(Arrays.asList(player, new SimplePlayer("Bob")));
+        state = engine.getPlayerState(player);
+        state.startTurn();
+    }
+
+    @Benchmark
+    public GameState createGameState() {
+        return engine.createGameState(TurnPhase.MONEY, player, state);
+    }
+}
@@ -0,0 +1,102 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding and decoding the state messages sent to a remote player, one
+ * message per operation, over every decision one player makes in a 2-player game.
+ * Compares the {@link GameProtocol} text line with the binary codec in full and delta mode.
+ * In that game the mean message is 56 bytes as text, 52 in full and 8.4 in delta mode.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameStateCodecBenchmark {
+
+    @Param({"text", "full", "delta"})
+    public String codec;
+
+    private List<GameProtocol.DecisionRequest> requests;
+    private byte[][] encoded;
+    private ImmutableList<String> names;
+    private GameStateCodec.Encoder encoder;
+    private GameStateCodec.Decoder decoder;
+    private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    private int next;
+
+    @Setup
+    public void setUp() throws PlayerViolationException {
+        requests = new ArrayList<>();
+        Player recorder = new SimplePlayer("Player 1") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                requests.add(new GameProtocol.DecisionRequest(state, options));
+                return super.chooseOption(state, options);
+            }
+        };
+        new EngineImpl(Arrays.asList(recorder, new SimplePlayer("Player 2")), 42L).play();
+        names = requests.get(0).state.getPlayerNames();
+
+        encoded = new byte[requests.size()][];
+        GameStateCodec.Encoder sequence = new GameStateCodec.Encoder(codec.equals("delta"));
+        for (int i = 0; i < requests.size(); i++) {
+            encoded[i] = encode(sequence, requests.get(i));
+        }
+        encoder = new GameStateCodec.Encoder(codec.equals("delta"));
+        decoder = new GameStateCodec.Decoder();
+    }
+
+    private byte[] encode(GameStateCodec.Encoder sequence, GameProtocol.DecisionRequest request) {
+        if (codec.equals("text")) {
+            return (GameProtocol.decide(request.state, request.options) + "\n").getBytes(StandardCharsets.US_ASCII);
+        }
+        buffer.clear();
+        sequence.encode(request.state, request.options, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Gets the index of the next message, starting the codecs over at the end of the game.
+     */
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == requests.size() ? 0 : index + 1;
+        if (index == 0) {
+            encoder.reset();
+            decoder.reset();
+        }
+        return index;
+    }
+
+    @Benchmark
+    public Object encode() {
+        GameProtocol.DecisionRequest request = requests.get(nextIndex());
+        if (codec.equals("text")) {
+            return GameProtocol.decide(request.state, request.options);
+        }
+        buffer.clear();
+        encoder.encode(request.state, request.options, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public GameProtocol.DecisionRequest decode() {
+        byte[] message = encoded[nextIndex()];
+        if (codec.equals("text")) {
+            String line = new String(message, 0, message.length - 1, StandardCharsets.US_ASCII);
+            return GameProtocol.parseDecide(line.split(" "), "Player 1", names);
+        }
+        return decoder.decode(ByteBuffer.wrap(message));
+    }
+}
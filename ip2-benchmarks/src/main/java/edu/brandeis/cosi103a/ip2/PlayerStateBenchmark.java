@@ -0,0 +1,66 @@
+package edu.brandeis.cosi103a.ip2;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks drawing and cleanup on a mid-game sized deck.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerStateBenchmark {
+
+    // Number of cards gained on top of the starting deck
+    @Param({"0", "30"})
+    public int extraCards;
+
+    @Param({"list", "counting"})
+    public String representation;
+
+    private PlayerState state;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Player player = new SimplePlayer("Alice");
+        state = representation.equals("counting") ? new CountingPlayerState(player) : new ListPlayerState(player);
+        CardDefinition[] gains = {Cards.ETHEREUM, Cards.METHOD, Cards.DOGECOIN, Cards.MODULE, Cards.BITCOIN};
+        for (int i = 0; i < extraCards; i++) {
+            state.gainCard(gains[i % gains.length]);
+        }
+    }
+
+    @Benchmark
+    public int calculateScore() {
+        return state.calculateScore();
+    }
+
+    /**
+     * Discards the hand and draws a fresh one, including any reshuffle it triggers.
+     */
+    @Benchmark
+    public void cleanup() {
+        state.cleanup();
+    }
+
+    /**
+     * Draws five more cards on top of a fresh hand. The cleanup that resets the
+     * hand runs in an invocation-level fixture and is not measured.
+     */
+    @Benchmark
+    public void drawCards(DrawFixture fixture) {
+        state.drawCards(5);
+    }
+
+    @State(Scope.Thread)
+    public static class DrawFixture {
+        @Setup(Level.Invocation)
+        public void resetHand(PlayerStateBenchmark benchmark) {
+            benchmark.state.cleanup();
+        }
+    }
+}
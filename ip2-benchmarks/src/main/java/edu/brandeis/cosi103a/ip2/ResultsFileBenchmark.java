@@ -0,0 +1,77 @@
+package edu.brandeis.cosi103a.ip2;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks appending results to a results file and scanning one back.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultsFileBenchmark {
+    private static final int SCANNED_RECORDS = 1_000_000;
+
+    private List<GameResult> games;
+    private Path appendFile;
+    private ResultsFileWriter writer;
+    private Path scanFile;
+    private ResultsFileReader reader;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> roster = List.of("Player 1", "Player 2", "Player 3", "Player 4");
+        games = new BatchSimulator(() -> {
+            List<Player> players = new ArrayList<>();
+            for (String name : roster) {
+                players.add(new SimplePlayer(name));
+            }
+            return players;
+        }, 1).run(64, 42L).getGameResults();
+
+        appendFile = Files.createTempFile("results", ".bin");
+        writer = ResultsFileWriter.create(appendFile, roster);
+
+        scanFile = Files.createTempFile("results", ".bin");
+        try (ResultsFileWriter scanWriter = ResultsFileWriter.create(scanFile, roster)) {
+            for (int i = 0; i < SCANNED_RECORDS; i++) {
+                scanWriter.append(games.get(i % games.size()));
+            }
+        }
+        reader = ResultsFileReader.open(scanFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        writer.close();
+        reader.close();
+        Files.delete(appendFile);
+        Files.delete(scanFile);
+    }
+
+    @Benchmark
+    public long append() {
+        return writer.append(games.get(next++ & 63));
+    }
+
+    /**
+     * Sums the winner's score and Framework count over every record.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long scan() {
+        long[] sum = new long[1];
+        reader.forEach(record -> sum[0] += record.getScore(0) + record.getCardCount(0, Cards.FRAMEWORK.getId()));
+        return sum[0];
+    }
+}
@@ -0,0 +1,166 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Plays games with {@link AsyncPlayer}s on a shared pool of carrier threads.
+ *
+ * Each game is an {@link EngineImpl} driven as a state machine: a carrier runs the game
+ * up to the next decision, asks the player, and moves on to other games if the answer
+ * is not ready. When the player's future completes, the game is resumed on a carrier.
+ * Thousands of games waiting on slow players can therefore share a handful of threads.
+ * A game never runs on two carriers at once, and games with the same seed and players
+ * play exactly as they would under {@link EngineImpl#play()}.
+ *
+ * {@link TimeLimits} are not applied; bound slow players with their futures instead,
+ * e.g. {@link CompletableFuture#orTimeout}.
+ */
+public final class AsyncEngine {
+    private final Executor carriers;
+
+    /**
+     * @param carriers runs the games; a small fixed pool is enough, since games never block on it
+     */
+    public AsyncEngine(Executor carriers) {
+        if (carriers == null) {
+            throw new IllegalArgumentException("Carrier executor must not be null");
+        }
+        this.carriers = carriers;
+    }
+
+    /**
+     * Starts a game with a random seed.
+     *
+     * @see #play(List, long)
+     */
+    public CompletableFuture<GameResult> play(List<AsyncPlayer> players) {
+        return play(players, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Starts a game on the carriers.
+     *
+     * @param players the players (must be between 1 and 4 players)
+     * @param seed the seed for the game, as for {@link EngineImpl#EngineImpl(List, long)}
+     * @return a future completed with the results, or with a {@link PlayerViolationException}
+     *         if a player breaks the rules or its decision fails
+     * @throws IllegalArgumentException if the number of players is not between 1 and 4
+     */
+    public CompletableFuture<GameResult> play(List<AsyncPlayer> players, long seed) {
+        Game game = new Game(players, seed);
+        carriers.execute(game::run);
+        return game.result;
+    }
+
+    /**
+     * One game in flight.
+     */
+    private final class Game {
+        private final AsyncPlayer[] players;
+        private final EngineImpl engine;
+        private final CompletableFuture<GameResult> result = new CompletableFuture<>();
+        private final EngineEvents.GameEvent gameEvent = EngineEvents.beginGame();
+
+        // The decision being waited on
+        private ImmutableList<Decision> options;
+        private EngineEvents.DecisionEvent event;
+        private long start;
+
+        Game(List<AsyncPlayer> players, long seed) {
+            this.players = players.toArray(new AsyncPlayer[0]);
+            this.engine = new EngineImpl(
+                players.stream().map(AsyncPlayer::getName).collect(ImmutableList.toImmutableList()), seed);
+        }
+
+        /**
+         * Plays until the game ends or a player's decision is not ready yet.
+         */
+        void run() {
+            try {
+                while (true) {
+                    if (!engine.awaitDecision()) {
+                        if (!engine.beginNextTurn()) {
+                            GameResult results = engine.calculateResults();
+                            EngineEvents.endGame(gameEvent, engine.getSeed(), results);
+                            result.complete(results);
+                            return;
+                        }
+                        continue;
+                    }
+
+                    options = engine.getPendingOptions();
+                    event = EngineEvents.beginDecision();
+                    start = engine.startTimer();
+                    CompletableFuture<Decision> decision = ask(players[engine.getCurrentSeat()]);
+                    if (!decision.isDone()) {
+                        // Resume once the player answers; this carrier moves on to other games
+                        decision.whenCompleteAsync((chosen, failure) -> {
+                            if (resolve(chosen, failure)) {
+                                run();
+                            }
+                        }, carriers);
+                        return;
+                    }
+                    Decision chosen;
+                    try {
+                        chosen = decision.join();
+                    } catch (CompletionException e) {
+                        resolve(null, e.getCause());
+                        return;
+                    } catch (CancellationException e) {
+                        resolve(null, e);
+                        return;
+                    }
+                    if (!resolve(chosen, null)) {
+                        return;
+                    }
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private CompletableFuture<Decision> ask(AsyncPlayer player) {
+            try {
+                CompletableFuture<Decision> decision = player.makeDecision(engine.createPendingState(), options);
+                if (decision == null) {
+                    return CompletableFuture.failedFuture(new NullPointerException("No decision future"));
+                }
+                return decision;
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        /**
+         * Applies a player's answer.
+         *
+         * @return false if the game has ended with a violation
+         */
+        private boolean resolve(Decision chosen, Throwable failure) {
+            try {
+                if (failure != null) {
+                    Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure;
+                    throw new PlayerViolationException(
+                        "Player " + players[engine.getCurrentSeat()].getName() + " threw exception while making decision",
+                        cause);
+                }
+                int index = IndexedPlayer.indexOf(options, chosen);
+                engine.recordDecision(event, start, options.size(), index);
+                engine.resolveDecision(index);
+                return true;
+            } catch (PlayerViolationException | RuntimeException e) {
+                result.completeExceptionally(e);
+                return false;
+            }
+        }
+    }
+}
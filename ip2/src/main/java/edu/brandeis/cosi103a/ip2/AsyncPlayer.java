@@ -0,0 +1,71 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A player that decides asynchronously, for games driven by an {@link AsyncEngine}.
+ * A game waiting on an AsyncPlayer holds no thread, so a remote or human player only
+ * costs the game's state while it thinks.
+ *
+ * Blocking {@link Player}s are bridged in with {@link #direct(Player)}, for players
+ * that decide quickly, or {@link #blocking(Player, Executor)}, for players that may block.
+ */
+public interface AsyncPlayer {
+    /**
+     * Gets the name of the player.
+     */
+    String getName();
+
+    /**
+     * Starts choosing one of the options. The state and options stay valid until the
+     * returned future completes; completing it with an exception forfeits the game.
+     *
+     * @param state the current game state
+     * @param options the available decisions to choose from
+     * @return a future completed with one of the options
+     */
+    CompletableFuture<Decision> makeDecision(GameState state, ImmutableList<Decision> options);
+
+    /**
+     * Adapts a player that decides without blocking. It is called on the game's carrier
+     * thread and its decision is applied at once, with no thread hand-off.
+     */
+    static AsyncPlayer direct(Player player) {
+        return new AsyncPlayer() {
+            @Override
+            public String getName() {
+                return player.getName();
+            }
+
+            @Override
+            public CompletableFuture<Decision> makeDecision(GameState state, ImmutableList<Decision> options) {
+                try {
+                    return CompletableFuture.completedFuture(player.makeDecision(state, options));
+                } catch (RuntimeException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Adapts a player that may block, e.g. on a network or console, by calling it on the
+     * given executor. Only that executor's threads wait on the player.
+     */
+    static AsyncPlayer blocking(Player player, Executor executor) {
+        return new AsyncPlayer() {
+            @Override
+            public String getName() {
+                return player.getName();
+            }
+
+            @Override
+            public CompletableFuture<Decision> makeDecision(GameState state, ImmutableList<Decision> options) {
+                return CompletableFuture.supplyAsync(() -> player.makeDecision(state, options), executor);
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Represents the outcome of a batch of simulated games.
+ * Games aborted by a player violation are counted but have no result.
+ * Batches whose results were streamed to a sink keep only the counts.
+ */
+public class BatchResult {
+    private final ImmutableList<GameResult> gameResults;
+    private final int completedGames;
+    private final int failedGames;
+    private final long elapsedNanos;
+    private final long baseSeed;
+
+    public BatchResult(GameResult[] results, int failedGames, long elapsedNanos, long baseSeed) {
+        ImmutableList.Builder<GameResult> builder = ImmutableList.builderWithExpectedSize(results.length);
+        for (GameResult result : results) {
+            if (result != null) {
+                builder.add(result);
+            }
+        }
+        this.gameResults = builder.build();
+        this.completedGames = gameResults.size();
+        this.failedGames = failedGames;
+        this.elapsedNanos = elapsedNanos;
+        this.baseSeed = baseSeed;
+    }
+
+    /**
+     * Creates the outcome of a batch whose results were not kept.
+     */
+    public BatchResult(int completedGames, int failedGames, long elapsedNanos, long baseSeed) {
+        this.gameResults = ImmutableList.of();
+        this.completedGames = completedGames;
+        this.failedGames = failedGames;
+        this.elapsedNanos = elapsedNanos;
+        this.baseSeed = baseSeed;
+    }
+
+    /**
+     * Gets the results of the completed games, or an empty list if they were streamed to a sink.
+     */
+    public ImmutableList<GameResult> getGameResults() {
+        return gameResults;
+    }
+
+    public int getCompletedGames() {
+        return completedGames;
+    }
+
+    public int getFailedGames() {
+        return failedGames;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the base seed the batch's game seeds were derived from.
+     */
+    public long getBaseSeed() {
+        return baseSeed;
+    }
+
+    /**
+     * Gets the throughput of the batch, counting both completed and failed games.
+     */
+    public double getGamesPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0.0;
+        }
+        return (completedGames + failedGames) * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games (%d failed) in %.3f s: %.1f games/sec",
+                completedGames + failedGames, failedGames, elapsedNanos / 1e9, getGamesPerSecond());
+    }
+}
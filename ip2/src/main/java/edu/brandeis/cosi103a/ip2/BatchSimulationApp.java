@@ -0,0 +1,46 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.util.Arrays;
+
+/**
+ * Command-line entry point for running a batch of SimplePlayer games.
+ *
+ * Usage: BatchSimulationApp [games] [threads] [players] [seed]
+ */
+public class BatchSimulationApp {
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int numPlayers = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        System.out.println("=== Automation: The Game - Batch Simulation ===\n");
+        System.out.printf("Games: %d, threads: %d, players: %d, seed: %d%n%n", games, threads, numPlayers, seed);
+
+        BatchSimulator simulator = new BatchSimulator(() -> {
+            Player[] roster = new Player[numPlayers];
+            for (int i = 0; i < numPlayers; i++) {
+                roster[i] = new SimplePlayer("Player " + (i + 1));
+            }
+            return Arrays.asList(roster);
+        }, threads);
+
+        // Aggregate results as they finish instead of keeping every game
+        StatsAggregator stats = new StatsAggregator();
+        BatchResult result = simulator.run(games, seed, stats);
+        TournamentStats summary = stats.snapshot();
+        Histogram lengths = summary.getGameLengths();
+
+        System.out.println(result);
+        System.out.println();
+        if (lengths.getTotal() > 0) {
+            System.out.printf("Game length: mean %.1f turns, median %d, 95th percentile %d%n",
+                lengths.getMean(), lengths.getPercentile(0.5), lengths.getPercentile(0.95));
+        }
+        System.out.println("Players (ties count as wins):");
+        for (TournamentStats.PlayerStats player : summary.getPlayers().values()) {
+            System.out.printf("  %s, mean Frameworks %.2f%n", player, player.getMeanOwnedCount(Cards.FRAMEWORK.getId()));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs many independent games in parallel and collects their results.
+ *
+ * Every game gets a fresh roster from the roster factory and its own EngineImpl,
+ * so games share no mutable state and throughput scales with the worker count.
+ */
+public class BatchSimulator {
+    // Aim for a few ranges per worker so idle workers can steal the tail
+    private static final int RANGES_PER_WORKER = 8;
+
+    private final Supplier<List<Player>> rosterFactory;
+    private final int parallelism;
+
+    /**
+     * Creates a simulator that uses one worker per available processor.
+     *
+     * @param rosterFactory creates the players for a single game; called once per game
+     */
+    public BatchSimulator(Supplier<List<Player>> rosterFactory) {
+        this(rosterFactory, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a simulator with the given number of worker threads.
+     *
+     * @param rosterFactory creates the players for a single game; called once per game
+     * @param parallelism the number of worker threads in the ForkJoin pool
+     * @throws IllegalArgumentException if parallelism is not positive
+     */
+    public BatchSimulator(Supplier<List<Player>> rosterFactory, int parallelism) {
+        if (rosterFactory == null) {
+            throw new IllegalArgumentException("Roster factory must not be null");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.rosterFactory = rosterFactory;
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Plays the given number of games with a random base seed and waits for all of them to finish.
+     *
+     * @param games the number of games to play
+     * @return the collected results and timing of the batch
+     * @throws IllegalArgumentException if games is negative
+     */
+    public BatchResult run(int games) {
+        return run(games, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Plays the given number of games and waits for all of them to finish.
+     * Game i is seeded with {@link #gameSeed(long, int)}, so the same base seed and
+     * rosters reproduce the same results in the same order for any worker count.
+     *
+     * @param games the number of games to play
+     * @param baseSeed the seed every game seed is derived from
+     * @return the collected results and timing of the batch
+     * @throws IllegalArgumentException if games is negative
+     */
+    public BatchResult run(int games, long baseSeed) {
+        if (games < 0) {
+            throw new IllegalArgumentException("Number of games must not be negative");
+        }
+
+        GameResult[] results = new GameResult[games];
+        AtomicInteger failures = new AtomicInteger();
+        long elapsedNanos = play(games, baseSeed, (result, index) -> results[index] = result, failures);
+        return new BatchResult(results, failures.get(), elapsedNanos, baseSeed);
+    }
+
+    /**
+     * Plays the given number of games, handing each result to the sink as soon as it is
+     * finished, and waits for all of them to finish. Results are not kept, so the batch
+     * can be larger than would fit in memory.
+     *
+     * The sink is called from the worker threads, concurrently and in no particular order,
+     * so it must be thread-safe. If it throws, the batch fails with that exception.
+     *
+     * @param games the number of games to play
+     * @param baseSeed the seed every game seed is derived from, as in {@link #run(int, long)}
+     * @param sink receives the result of every completed game
+     * @return the counts and timing of the batch, without results
+     * @throws IllegalArgumentException if games is negative or the sink is null
+     */
+    public BatchResult run(int games, long baseSeed, Consumer<GameResult> sink) {
+        if (games < 0) {
+            throw new IllegalArgumentException("Number of games must not be negative");
+        }
+        if (sink == null) {
+            throw new IllegalArgumentException("Sink must not be null");
+        }
+
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        long elapsedNanos = play(games, baseSeed, (result, index) -> {
+            sink.accept(result);
+            completed.incrementAndGet();
+        }, failures);
+        return new BatchResult(completed.get(), failures.get(), elapsedNanos, baseSeed);
+    }
+
+    /**
+     * Plays a batch on a fresh pool and returns how long it took.
+     */
+    private long play(int games, long baseSeed, ObjIntConsumer<GameResult> sink, AtomicInteger failures) {
+        int threshold = Math.max(1, games / (parallelism * RANGES_PER_WORKER));
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long start = System.nanoTime();
+        try {
+            pool.invoke(new GameRangeTask(sink, failures, baseSeed, 0, games, threshold));
+        } finally {
+            pool.shutdown();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Gets the seed of the game at the given index of a batch.
+     * Adjacent indices are spread apart with the SplitMix64 finalizer so their
+     * generators are uncorrelated.
+     *
+     * @param baseSeed the base seed of the batch
+     * @param index the index of the game within the batch
+     * @return the seed passed to that game's EngineImpl
+     */
+    public static long gameSeed(long baseSeed, int index) {
+        return SplitMix.mix64(baseSeed + (index + 1) * SplitMix.GOLDEN_GAMMA);
+    }
+
+    /**
+     * Plays a single game with a fresh roster.
+     */
+    private GameResult playGame(long seed) throws PlayerViolationException {
+        Engine engine = new EngineImpl(rosterFactory.get(), seed);
+        return engine.play();
+    }
+
+    /**
+     * Plays a contiguous range of games, splitting it while it is larger than the threshold.
+     */
+    private class GameRangeTask extends RecursiveAction {
+        private final ObjIntConsumer<GameResult> sink;
+        private final AtomicInteger failures;
+        private final long baseSeed;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        GameRangeTask(ObjIntConsumer<GameResult> sink, AtomicInteger failures, long baseSeed,
+                      int from, int to, int threshold) {
+            this.sink = sink;
+            this.failures = failures;
+            this.baseSeed = baseSeed;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    GameResult result;
+                    try {
+                        result = playGame(gameSeed(baseSeed, i));
+                    } catch (PlayerViolationException e) {
+                        failures.incrementAndGet();
+                        continue;
+                    }
+                    sink.accept(result, i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new GameRangeTask(sink, failures, baseSeed, from, mid, threshold),
+                      new GameRangeTask(sink, failures, baseSeed, mid, to, threshold));
+        }
+    }
+}
@@ -4,12 +4,37 @@ package edu.brandeis.cosi103a.ip2;
  * Decision to buy a card from the supply.
  */
 public class BuyCardDecision extends Decision {
+    // Canonical instance for every registered card, indexed by card id
+    private static final BuyCardDecision[] CANONICAL = new BuyCardDecision[CardRegistry.size()];
+
+    static {
+        for (int id = 0; id < CANONICAL.length; id++) {
+            CANONICAL[id] = new BuyCardDecision(CardRegistry.get(id));
+        }
+    }
+
     private final CardDefinition card;
 
     public BuyCardDecision(CardDefinition card) {
         this.card = card;
     }
 
+    /**
+     * Gets the shared decision to buy the given card. Registered cards always map to
+     * the same instance; other cards get a new decision.
+     */
+    public static BuyCardDecision of(CardDefinition card) {
+        int id = CardRegistry.idOf(card);
+        return id == CardDefinition.UNREGISTERED ? new BuyCardDecision(card) : CANONICAL[id];
+    }
+
+    /**
+     * Gets the shared decision to buy the card with the given id.
+     */
+    public static BuyCardDecision of(int cardId) {
+        return CANONICAL[cardId];
+    }
+
     public CardDefinition getCard() {
         return card;
     }
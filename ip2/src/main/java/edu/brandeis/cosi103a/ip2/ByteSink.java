@@ -0,0 +1,75 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer for the replay log format, with zigzag varint encoding:
+ * values between -64 and 63 take one byte, and larger ones one more byte per 7 bits.
+ */
+final class ByteSink {
+    static final int MAX_VARINT_BYTES = 5;
+
+    private byte[] bytes;
+    private int size;
+
+    ByteSink(int capacity) {
+        this.bytes = new byte[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void writeByte(int value) {
+        ensureRoom(1);
+        bytes[size++] = (byte) value;
+    }
+
+    void writeBytes(byte[] values) {
+        ensureRoom(values.length);
+        System.arraycopy(values, 0, bytes, size, values.length);
+        size += values.length;
+    }
+
+    void writeBytes(ByteSink other) {
+        ensureRoom(other.size);
+        System.arraycopy(other.bytes, 0, bytes, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Writes an int as four big-endian bytes.
+     */
+    void writeInt(int value) {
+        ensureRoom(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            bytes[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    void writeVarint(int value) {
+        ensureRoom(MAX_VARINT_BYTES);
+        int raw = (value << 1) ^ (value >> 31);
+        while ((raw & ~0x7F) != 0) {
+            bytes[size++] = (byte) ((raw & 0x7F) | 0x80);
+            raw >>>= 7;
+        }
+        bytes[size++] = (byte) raw;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    private void ensureRoom(int count) {
+        if (size + count > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(size + count, bytes.length * 2));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.io.IOException;
+
+/**
+ * Reads values written by {@link ByteSink} from a byte array.
+ */
+final class ByteSource {
+    private final byte[] bytes;
+    private int position;
+
+    ByteSource(byte[] bytes, int position) {
+        this.bytes = bytes;
+        this.position = position;
+    }
+
+    int getPosition() {
+        return position;
+    }
+
+    void setPosition(int position) {
+        this.position = position;
+    }
+
+    int readByte() throws IOException {
+        if (position >= bytes.length) {
+            throw new IOException("Unexpected end of replay log");
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    int readInt() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    int readVarint() throws IOException {
+        int raw = 0;
+        for (int shift = 0; shift < 7 * ByteSink.MAX_VARINT_BYTES; shift += 7) {
+            int b = readByte();
+            raw |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (raw >>> 1) ^ -(raw & 1);
+            }
+        }
+        throw new IOException("Malformed varint at offset " + position);
+    }
+}
@@ -5,6 +5,10 @@ package edu.brandeis.cosi103a.ip2;
  * This is an immutable class that defines what a card is and what it does.
  */
 public class CardDefinition {
+    /** Id of cards that are not part of the {@link CardRegistry}. */
+    public static final int UNREGISTERED = -1;
+
+    private final int id;          // Dense index assigned by the CardRegistry
     private final String name;
     private final int cost;
     private final int points;      // Automation Points for scoring
@@ -23,6 +27,19 @@ public class CardDefinition {
 
     public CardDefinition(String name, int cost, int points, int moneyValue, CardType type,
                          int extraActions, int extraBuys, int extraMoney, int extraCards) {
+        this(UNREGISTERED, name, cost, points, moneyValue, type, extraActions, extraBuys, extraMoney, extraCards);
+    }
+
+    /**
+     * Creates a card with a registry id. Only {@link Cards} assigns ids.
+     */
+    CardDefinition(int id, String name, int cost, int points, int moneyValue, CardType type) {
+        this(id, name, cost, points, moneyValue, type, 0, 0, 0, 0);
+    }
+
+    CardDefinition(int id, String name, int cost, int points, int moneyValue, CardType type,
+                   int extraActions, int extraBuys, int extraMoney, int extraCards) {
+        this.id = id;
         this.name = name;
         this.cost = cost;
         this.points = points;
@@ -34,6 +51,13 @@ public class CardDefinition {
         this.extraCards = extraCards;
     }
 
+    /**
+     * Gets this card's dense registry id, or {@link #UNREGISTERED}.
+     */
+    public int getId() {
+        return id;
+    }
+
     public String getName() {
         return name;
     }
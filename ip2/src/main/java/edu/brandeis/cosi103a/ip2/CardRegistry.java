@@ -0,0 +1,80 @@
+package edu.brandeis.cosi103a.ip2;
+
+/**
+ * Registry of every card in {@link Cards}, indexed by dense integer id.
+ * Ids run from 0 to {@link #size()} - 1, so per-card data can be kept in plain arrays.
+ *
+ * Sets of cards are kept as {@code long} bitmasks (see {@link DecisionOptions#bit}), so
+ * at most {@link #MAX_CARDS} cards can be registered.
+ */
+public final class CardRegistry {
+    /**
+     * The most cards the registry can hold, one per bit of a card mask.
+     */
+    public static final int MAX_CARDS = Long.SIZE;
+
+    private static final CardDefinition[] CARDS = {
+        Cards.BITCOIN,
+        Cards.ETHEREUM,
+        Cards.DOGECOIN,
+        Cards.METHOD,
+        Cards.MODULE,
+        Cards.FRAMEWORK,
+        Cards.BUG,
+        Cards.REFACTOR,
+        Cards.CODE_REVIEW,
+        Cards.EVERGREEN_TEST
+    };
+
+    static {
+        if (CARDS.length > MAX_CARDS) {
+            throw new IllegalStateException("Registered " + CARDS.length + " cards, but card masks hold at most "
+                    + MAX_CARDS);
+        }
+        for (int i = 0; i < CARDS.length; i++) {
+            if (CARDS[i].getId() != i) {
+                throw new IllegalStateException("Card " + CARDS[i] + " has id " + CARDS[i].getId()
+                        + " but is registered at " + i);
+            }
+        }
+    }
+
+    private CardRegistry() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Gets the number of registered cards.
+     */
+    public static int size() {
+        return CARDS.length;
+    }
+
+    /**
+     * Gets the card with the given id.
+     *
+     * @throws ArrayIndexOutOfBoundsException if the id is not registered
+     */
+    public static CardDefinition get(int id) {
+        return CARDS[id];
+    }
+
+    /**
+     * Gets the registry id of a card. Cards built outside {@link Cards} resolve to the
+     * registered card with the same name.
+     *
+     * @return the card's id, or {@link CardDefinition#UNREGISTERED} if no such card is registered
+     */
+    public static int idOf(CardDefinition card) {
+        int id = card.getId();
+        if (id != CardDefinition.UNREGISTERED) {
+            return id;
+        }
+        for (CardDefinition registered : CARDS) {
+            if (registered.equals(card)) {
+                return registered.getId();
+            }
+        }
+        return CardDefinition.UNREGISTERED;
+    }
+}
@@ -1,58 +1,113 @@
 package edu.brandeis.cosi103a.ip2;
 
+import com.google.common.collect.ImmutableMap;
+
 import java.util.*;
 
 /**
  * Manages the supply of cards available for purchase in the game.
- * Cards are organized in stacks by their card definition.
+ * Stack sizes are kept in an array indexed by {@link CardRegistry} id, so lookups
+ * and decrements are plain array operations.
+ *
+ * Every change bumps a version number. The immutable supply snapshot handed to players
+ * is rebuilt only when the version has moved since it was last built.
+ *
+ * Affordable-card queries use a cost index: the registry sorted by cost, with a prefix
+ * mask of the cheapest k cards for every k. Intersecting the prefix for a budget with
+ * the mask of non-empty stacks answers the query without visiting each stack.
  */
 public class CardStacks {
-    private final Map<CardDefinition, Integer> stacks;
+    private static final int FRAMEWORK_ID = Cards.FRAMEWORK.getId();
+
+    // Card costs in ascending order, and PREFIX_MASKS[k] = mask of the k cheapest cards
+    private static final int[] SORTED_COSTS;
+    private static final long[] PREFIX_MASKS;
+
+    static {
+        Integer[] byCost = new Integer[CardRegistry.size()];
+        for (int id = 0; id < byCost.length; id++) {
+            byCost[id] = id;
+        }
+        Arrays.sort(byCost, Comparator.comparingInt(id -> CardRegistry.get(id).getCost()));
+        SORTED_COSTS = new int[byCost.length];
+        PREFIX_MASKS = new long[byCost.length + 1];
+        for (int k = 0; k < byCost.length; k++) {
+            SORTED_COSTS[k] = CardRegistry.get(byCost[k]).getCost();
+            PREFIX_MASKS[k + 1] = PREFIX_MASKS[k] | DecisionOptions.bit(byCost[k]);
+        }
+    }
+
+    private final int[] counts;
+    private long nonEmptyMask;
     private final int numPlayers;
+    private int version;
+    private SupplySnapshot snapshot;
+    private int snapshotVersion = -1;
 
     public CardStacks(int numPlayers) {
         if (numPlayers < 1 || numPlayers > 4) {
             throw new IllegalArgumentException("Number of players must be between 1 and 4");
         }
         this.numPlayers = numPlayers;
-        this.stacks = new HashMap<>();
+        this.counts = new int[CardRegistry.size()];
         initializeStacks();
     }
 
     private void initializeStacks() {
         // Money cards
-        stacks.put(Cards.BITCOIN, 60);
-        stacks.put(Cards.ETHEREUM, 40);
-        stacks.put(Cards.DOGECOIN, 30);
-        
+        counts[Cards.BITCOIN.getId()] = 60;
+        counts[Cards.ETHEREUM.getId()] = 40;
+        counts[Cards.DOGECOIN.getId()] = 30;
+
         // Automation cards
-        stacks.put(Cards.METHOD, 14);
-        stacks.put(Cards.MODULE, 8);
-        stacks.put(Cards.FRAMEWORK, 8);
-        
+        counts[Cards.METHOD.getId()] = 14;
+        counts[Cards.MODULE.getId()] = 8;
+        counts[Cards.FRAMEWORK.getId()] = 8;
+
         // Bug cards (10 per player)
-        stacks.put(Cards.BUG, 10 * numPlayers);
-        
+        counts[Cards.BUG.getId()] = 10 * numPlayers;
+
         // Action cards (10 each)
-        stacks.put(Cards.REFACTOR, 10);
-        stacks.put(Cards.CODE_REVIEW, 10);
-        stacks.put(Cards.EVERGREEN_TEST, 10);
+        counts[Cards.REFACTOR.getId()] = 10;
+        counts[Cards.CODE_REVIEW.getId()] = 10;
+        counts[Cards.EVERGREEN_TEST.getId()] = 10;
+
+        updateNonEmptyMask();
     }
 
     /**
      * Gets the count of cards remaining in a stack.
      */
     public int getCount(CardDefinition card) {
-        return stacks.getOrDefault(card, 0);
+        int id = CardRegistry.idOf(card);
+        return id == CardDefinition.UNREGISTERED ? 0 : counts[id];
+    }
+
+    /**
+     * Gets the count of cards remaining in the stack with the given card id.
+     */
+    public int getCount(int cardId) {
+        return counts[cardId];
     }
 
     /**
      * Takes a card from the stack. Returns true if successful, false if stack is empty.
      */
     public boolean takeCard(CardDefinition card) {
-        int count = stacks.getOrDefault(card, 0);
-        if (count > 0) {
-            stacks.put(card, count - 1);
+        int id = CardRegistry.idOf(card);
+        return id != CardDefinition.UNREGISTERED && takeCard(id);
+    }
+
+    /**
+     * Takes a card from the stack with the given card id. Returns true if successful,
+     * false if stack is empty.
+     */
+    public boolean takeCard(int cardId) {
+        if (counts[cardId] > 0) {
+            if (--counts[cardId] == 0) {
+                nonEmptyMask &= ~DecisionOptions.bit(cardId);
+            }
+            version++;
             return true;
         }
         return false;
@@ -60,35 +115,128 @@ public class CardStacks {
 
     /**
      * Adds a card back to the stack (e.g., for testing or special effects).
+     *
+     * @throws IllegalArgumentException if the card is not in the {@link CardRegistry}
      */
     public void returnCard(CardDefinition card) {
-        stacks.put(card, stacks.getOrDefault(card, 0) + 1);
+        int id = CardRegistry.idOf(card);
+        if (id == CardDefinition.UNREGISTERED) {
+            throw new IllegalArgumentException("Unknown card: " + card);
+        }
+        counts[id]++;
+        nonEmptyMask |= DecisionOptions.bit(id);
+        version++;
     }
 
     /**
-     * Gets all card types that have at least one card available.
+     * Replaces every stack count, e.g. to resume a game from a checkpoint.
+     *
+     * @param counts the new counts, indexed by {@link CardRegistry} id
      */
-    public List<CardDefinition> getAvailableCards() {
-        List<CardDefinition> available = new ArrayList<>();
-        for (Map.Entry<CardDefinition, Integer> entry : stacks.entrySet()) {
-            if (entry.getValue() > 0) {
-                available.add(entry.getKey());
+    void setCounts(int[] counts) {
+        if (counts.length != this.counts.length) {
+            throw new IllegalArgumentException("Expected " + this.counts.length + " counts, got " + counts.length);
+        }
+        System.arraycopy(counts, 0, this.counts, 0, counts.length);
+        updateNonEmptyMask();
+        version++;
+    }
+
+    private void updateNonEmptyMask() {
+        nonEmptyMask = 0;
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                nonEmptyMask |= DecisionOptions.bit(id);
             }
         }
+    }
+
+    /**
+     * Gets all card types that have at least one card available, in registry order.
+     */
+    public List<CardDefinition> getAvailableCards() {
+        List<CardDefinition> available = new ArrayList<>(Long.bitCount(nonEmptyMask));
+        for (long remaining = nonEmptyMask; remaining != 0; remaining &= remaining - 1) {
+            available.add(CardRegistry.get(Long.numberOfTrailingZeros(remaining)));
+        }
         return available;
     }
 
+    /**
+     * Gets the bitmask (see {@link DecisionOptions#bit}) of the cards that are in stock.
+     */
+    public long getAvailableMask() {
+        return nonEmptyMask;
+    }
+
+    /**
+     * Gets the bitmask (see {@link DecisionOptions#bit}) of the cards that are in stock
+     * and cost at most the given amount.
+     */
+    public long getAvailableMask(int maxCost) {
+        return nonEmptyMask & affordableMask(maxCost);
+    }
+
+    /**
+     * Gets the mask of all registered cards costing at most the given amount, by binary
+     * search for the end of the matching prefix of the cost index.
+     */
+    static long affordableMask(int maxCost) {
+        int low = 0;
+        int high = SORTED_COSTS.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (SORTED_COSTS[mid] <= maxCost) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return PREFIX_MASKS[low];
+    }
+
     /**
      * Checks if the game should end (all Framework cards purchased).
      */
     public boolean isGameOver() {
-        return getCount(Cards.FRAMEWORK) == 0;
+        return counts[FRAMEWORK_ID] == 0;
     }
 
     /**
-     * Gets all stacks for display/debugging purposes.
+     * Gets the version of the supply, which changes whenever a stack count changes.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets an immutable view of all stacks, in registry order. The same instance is
+     * returned until a stack count changes.
+     */
+    public ImmutableMap<CardDefinition, Integer> getSupplyView() {
+        return getSnapshot().asMap();
+    }
+
+    /**
+     * Gets an immutable copy of the stack counts. The same instance is returned
+     * until a stack count changes.
+     */
+    SupplySnapshot getSnapshot() {
+        if (snapshotVersion != version) {
+            snapshot = new SupplySnapshot(counts.clone());
+            snapshotVersion = version;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gets all stacks for display/debugging purposes, in registry order.
      */
     public Map<CardDefinition, Integer> getAllStacks() {
-        return new HashMap<>(stacks);
+        Map<CardDefinition, Integer> stacks = new LinkedHashMap<>();
+        for (int id = 0; id < counts.length; id++) {
+            stacks.put(CardRegistry.get(id), counts[id]);
+        }
+        return stacks;
     }
 }
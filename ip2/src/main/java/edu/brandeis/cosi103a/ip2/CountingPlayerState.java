@@ -0,0 +1,341 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.*;
+
+/**
+ * A PlayerState that keeps each zone as a vector of card counts indexed by
+ * {@link CardRegistry} id, plus running totals of points and owned cards.
+ *
+ * The deck has no concrete order: each draw picks a uniformly random card from
+ * the remaining counts, which gives the same distribution as shuffling and
+ * drawing from the top. Scoring and hand queries never allocate.
+ * Only cards in the {@link CardRegistry} can be held.
+ */
+public class CountingPlayerState implements PlayerState {
+    private final Player player;
+    private final int[] deck;
+    private final int[] hand;
+    private final int[] discard;
+    private final int[] played;
+    private final int[] owned;
+    private SplittableRandom random;
+    private ImmutableList<CardDefinition> handView;  // Null when the hand has changed since last built
+
+    // Zone sizes and running totals
+    private int deckSize;
+    private int handSize;
+    private int discardSize;
+    private int playedSize;
+    private int cardCount;
+    private int points;
+
+    // Turn resources
+    private int actions;
+    private int buys;
+    private int money;
+
+    public CountingPlayerState(Player player) {
+        this(player, new SplittableRandom());
+    }
+
+    /**
+     * Creates a player state whose draws use the given generator.
+     * The generator must not be shared with any other player state.
+     */
+    public CountingPlayerState(Player player, SplittableRandom random) {
+        this.player = player;
+        this.random = random;
+        int size = CardRegistry.size();
+        this.deck = new int[size];
+        this.hand = new int[size];
+        this.discard = new int[size];
+        this.played = new int[size];
+        this.owned = new int[size];
+
+        // Initialize starting deck: 7 Bitcoin, 3 Method
+        addOwned(Cards.BITCOIN.getId(), 7);
+        addOwned(Cards.METHOD.getId(), 3);
+        deck[Cards.BITCOIN.getId()] = 7;
+        deck[Cards.METHOD.getId()] = 3;
+        deckSize = 10;
+
+        drawCards(5);
+    }
+
+    @Override
+    public Player getPlayer() {
+        return player;
+    }
+
+    @Override
+    public List<CardDefinition> getHand() {
+        return toList(hand, handSize);
+    }
+
+    @Override
+    public List<CardDefinition> getDeck() {
+        return toList(deck, deckSize);
+    }
+
+    @Override
+    public List<CardDefinition> getDiscard() {
+        return toList(discard, discardSize);
+    }
+
+    @Override
+    public List<CardDefinition> getPlayed() {
+        return toList(played, playedSize);
+    }
+
+    @Override
+    public ImmutableList<CardDefinition> getHandView() {
+        if (handView == null) {
+            handView = ImmutableList.copyOf(toList(hand, handSize));
+        }
+        return handView;
+    }
+
+    @Override
+    public int getHandSize() {
+        return handSize;
+    }
+
+    @Override
+    public long getHandMask() {
+        long mask = 0;
+        for (int id = 0; id < hand.length; id++) {
+            if (hand[id] > 0) {
+                mask |= DecisionOptions.bit(id);
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public int countInHand(CardDefinition card) {
+        int id = CardRegistry.idOf(card);
+        return id == CardDefinition.UNREGISTERED ? 0 : hand[id];
+    }
+
+    /**
+     * Counts the copies of the card with the given id in hand.
+     */
+    public int countInHand(int cardId) {
+        return hand[cardId];
+    }
+
+    /**
+     * Counts the copies of the card with the given id this player owns.
+     */
+    public int countOwned(int cardId) {
+        return owned[cardId];
+    }
+
+    @Override
+    public int getCardCount() {
+        return cardCount;
+    }
+
+    @Override
+    public int getActions() {
+        return actions;
+    }
+
+    @Override
+    public int getBuys() {
+        return buys;
+    }
+
+    @Override
+    public int getMoney() {
+        return money;
+    }
+
+    @Override
+    public void setActions(int actions) {
+        this.actions = actions;
+    }
+
+    @Override
+    public void setBuys(int buys) {
+        this.buys = buys;
+    }
+
+    @Override
+    public void setMoney(int money) {
+        this.money = money;
+    }
+
+    @Override
+    public void startTurn() {
+        actions = 1;
+        buys = 1;
+        money = 0;
+    }
+
+    @Override
+    public boolean playCard(CardDefinition card) {
+        int id = CardRegistry.idOf(card);
+        if (id == CardDefinition.UNREGISTERED || hand[id] == 0) {
+            return false;
+        }
+        hand[id]--;
+        handSize--;
+        handView = null;
+        played[id]++;
+        playedSize++;
+        return true;
+    }
+
+    /**
+     * Gains a card (adds to discard pile).
+     *
+     * @throws IllegalArgumentException if the card is not in the {@link CardRegistry}
+     */
+    @Override
+    public void gainCard(CardDefinition card) {
+        int id = CardRegistry.idOf(card);
+        if (id == CardDefinition.UNREGISTERED) {
+            throw new IllegalArgumentException("Unknown card: " + card);
+        }
+        discard[id]++;
+        discardSize++;
+        addOwned(id, 1);
+    }
+
+    /**
+     * Draws cards from deck to hand, moving the discard pile into the deck when it runs out.
+     */
+    @Override
+    public void drawCards(int count) {
+        for (int i = 0; i < count; i++) {
+            if (deckSize == 0) {
+                if (discardSize > 0) {
+                    EngineEvents.reshuffled(player.getName(), discardSize);
+                }
+                recycleDiscard();
+            }
+            if (deckSize == 0) {
+                return;
+            }
+            int id = pickFromDeck();
+            deck[id]--;
+            deckSize--;
+            hand[id]++;
+            handSize++;
+            handView = null;
+        }
+    }
+
+    /**
+     * Moves the discard pile into the deck. The deck is unordered, so nothing is
+     * shuffled here; randomness comes from each draw.
+     */
+    @Override
+    public void recycleDiscard() {
+        for (int id = 0; id < deck.length; id++) {
+            deck[id] += discard[id];
+            discard[id] = 0;
+        }
+        deckSize += discardSize;
+        discardSize = 0;
+    }
+
+    @Override
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Replaces the contents of the deck, hand and discard pile. Only the counts of
+     * each card are kept, since zones here have no order.
+     *
+     * @throws IllegalArgumentException if a card is not in the {@link CardRegistry}
+     */
+    @Override
+    public void restoreZones(List<CardDefinition> deck, List<CardDefinition> hand, List<CardDefinition> discard) {
+        Arrays.fill(this.deck, 0);
+        Arrays.fill(this.hand, 0);
+        Arrays.fill(this.discard, 0);
+        Arrays.fill(this.played, 0);
+        Arrays.fill(this.owned, 0);
+        cardCount = 0;
+        points = 0;
+        deckSize = addAll(this.deck, deck);
+        handSize = addAll(this.hand, hand);
+        discardSize = addAll(this.discard, discard);
+        playedSize = 0;
+        handView = null;
+    }
+
+    private int addAll(int[] zone, List<CardDefinition> cards) {
+        for (CardDefinition card : cards) {
+            int id = CardRegistry.idOf(card);
+            if (id == CardDefinition.UNREGISTERED) {
+                throw new IllegalArgumentException("Unknown card: " + card);
+            }
+            zone[id]++;
+            addOwned(id, 1);
+        }
+        return cards.size();
+    }
+
+    @Override
+    public void cleanup() {
+        for (int id = 0; id < discard.length; id++) {
+            discard[id] += hand[id] + played[id];
+            hand[id] = 0;
+            played[id] = 0;
+        }
+        discardSize += handSize + playedSize;
+        handSize = 0;
+        handView = null;
+        playedSize = 0;
+        drawCards(5);
+    }
+
+    @Override
+    public int calculateScore() {
+        return points;
+    }
+
+    @Override
+    public List<CardDefinition> getAllCards() {
+        return toList(owned, cardCount);
+    }
+
+    /**
+     * Picks a uniformly random card id from the deck, weighted by count.
+     */
+    private int pickFromDeck() {
+        int r = random.nextInt(deckSize);
+        int id = 0;
+        while (r >= deck[id]) {
+            r -= deck[id];
+            id++;
+        }
+        return id;
+    }
+
+    private void addOwned(int cardId, int count) {
+        owned[cardId] += count;
+        cardCount += count;
+        points += CardRegistry.get(cardId).getPoints() * count;
+    }
+
+    /**
+     * Expands a count vector into a list of cards in registry order.
+     */
+    private static List<CardDefinition> toList(int[] counts, int size) {
+        List<CardDefinition> cards = new ArrayList<>(size);
+        for (int id = 0; id < counts.length; id++) {
+            CardDefinition card = CardRegistry.get(id);
+            for (int i = 0; i < counts[id]; i++) {
+                cards.add(card);
+            }
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,220 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the choices of deterministic players, for {@link MemoizingPlayer}.
+ *
+ * Choices are keyed by a 64-bit hash of everything a rule-based player decides on: the
+ * phase, actions, buys and money, the count of each card in the hand and the supply
+ * count of each card. Turn order, other players and the order of the hand are left out.
+ * Distinct states hash alike with odds of about one in 2^64 per pair, which we accept.
+ *
+ * Exact supply counts make nearly every state of a game new, so few choices are ever
+ * reused. Players that only look at which cards are offered, like {@link SimplePlayer},
+ * should use {@link SupplyKey#AVAILABILITY}, which keys on whether each stack is empty.
+ *
+ * The cache is split into segments, each a least-recently-used map under its own lock,
+ * so the workers of a batch can share it. Share a cache only among players that would
+ * make the same choice in the same state.
+ */
+public final class DecisionCache {
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    /**
+     * How much of the supply a key covers.
+     */
+    public enum SupplyKey {
+        /** The count of every stack. */
+        COUNTS,
+        /** Only whether each stack is empty. */
+        AVAILABILITY
+    }
+
+    private final Segment[] segments;
+    private final int capacity;
+    private final SupplyKey supplyKey;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache keyed on the count of every supply stack.
+     *
+     * @param capacity the most choices to keep
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public DecisionCache(int capacity) {
+        this(capacity, SupplyKey.COUNTS);
+    }
+
+    /**
+     * @param capacity the most choices to keep
+     * @param supplyKey how much of the supply the players' choices depend on
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public DecisionCache(int capacity, SupplyKey supplyKey) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        // Small caches get one segment, so that they evict strictly in order of use
+        int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, capacity / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(capacity / count);
+        }
+        this.capacity = capacity;
+        this.supplyKey = Objects.requireNonNull(supplyKey, "supplyKey");
+    }
+
+    /**
+     * Gets the cached choice for a state, counting a hit or a miss.
+     *
+     * @param optionCount the number of options; a cached index beyond them is a miss
+     * @return the index of the chosen option, or -1 if none is cached
+     */
+    int get(long key, int optionCount) {
+        Segment segment = segmentFor(key);
+        Integer index;
+        synchronized (segment) {
+            index = segment.get(key);
+        }
+        if (index == null || index < 0 || index >= optionCount) {
+            misses.increment();
+            return -1;
+        }
+        hits.increment();
+        return index;
+    }
+
+    /**
+     * Caches a choice for a state, replacing any earlier one.
+     */
+    void put(long key, int index) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, index);
+        }
+    }
+
+    private Segment segmentFor(long key) {
+        return segments[(int) (key >>> 32) & (segments.length - 1)];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public SupplyKey getSupplyKey() {
+        return supplyKey;
+    }
+
+    /**
+     * Gets the number of choices currently cached.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the fraction of lookups that found a choice, or 0 if there were none.
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DecisionCache[%d of %d entries, %d hits, %d misses, %.1f%% hit rate]",
+            size(), capacity, getHits(), getMisses(), 100 * getHitRate());
+    }
+
+    /**
+     * Hashes the state a player decides on, from a game state.
+     */
+    long key(GameState state) {
+        int[] hand = new int[CardRegistry.size()];
+        List<CardDefinition> cards = state.getCurrentPlayerHand();
+        for (int i = 0; i < cards.size(); i++) {
+            int id = CardRegistry.idOf(cards.get(i));
+            if (id != CardDefinition.UNREGISTERED) {
+                hand[id]++;
+            }
+        }
+        long hash = start(state.getCurrentPhase(), state.getCurrentPlayerActions(), state.getCurrentPlayerBuys(),
+            state.getCurrentPlayerMoney());
+        for (int id = 0; id < hand.length; id++) {
+            hash = mixCard(hash, hand[id], state.getAvailableCount(CardRegistry.get(id)));
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes the state a player decides on, from the engine's own state. Matches
+     * {@link #key(GameState)} for the game state the player would be shown.
+     */
+    long key(TurnPhase phase, PlayerState state, CardStacks supply) {
+        long hand = state.getHandMask();
+        long hash = start(phase, state.getActions(), state.getBuys(), state.getMoney());
+        for (int id = 0; id < CardRegistry.size(); id++) {
+            int inHand = (hand & DecisionOptions.bit(id)) == 0 ? 0 : state.countInHand(CardRegistry.get(id));
+            hash = mixCard(hash, inHand, supply.getCount(id));
+        }
+        return hash;
+    }
+
+    private static long start(TurnPhase phase, int actions, int buys, int money) {
+        long hash = mix(phase.ordinal(), actions);
+        hash = mix(hash, buys);
+        return mix(hash, money);
+    }
+
+    private long mixCard(long hash, int inHand, int supply) {
+        return mix(hash, inHand | (supplyKey == SupplyKey.COUNTS ? supply : Math.min(supply, 1)) << 16);
+    }
+
+    /**
+     * Folds a value into a hash with the SplitMix64 finalizer. A plain multiply-add would
+     * let a difference in one field cancel a difference in the next.
+     */
+    private static long mix(long hash, int value) {
+        return SplitMix.mix64(hash * SplitMix.GOLDEN_GAMMA + value);
+    }
+
+    /**
+     * One least-recently-used share of the cache.
+     */
+    private static final class Segment extends LinkedHashMap<Long, Integer> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+            return size() > capacity;
+        }
+    }
+}
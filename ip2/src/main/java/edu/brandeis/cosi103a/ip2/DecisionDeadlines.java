@@ -0,0 +1,180 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Runs decisions against {@link TimeLimits} for one game, and keeps each seat's
+ * overrun statistics.
+ *
+ * Decisions run on a shared pool of daemon threads, so a hung player only ties up a
+ * thread of its own; the game's thread waits no longer than the deadline. When it gives
+ * up on a call, the call is interrupted and its game state is detached from the engine,
+ * so the game can go on without the abandoned call seeing it change. Calls that ignore
+ * the interrupt keep their thread, and are counted until they return (see
+ * {@link OverrunStats#getStuckDecisions()}).
+ */
+final class DecisionDeadlines {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService DECIDERS = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "decision-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final TimeLimits limits;
+    private final long perDecisionNanos;
+    private final long perGameNanos;  // Long.MAX_VALUE if unlimited
+    private final int[] decisions;
+    private final int[] overruns;
+    private final long[] timeUsed;
+    private final long[] longest;
+    private final AtomicIntegerArray stuck;
+    private boolean lastOverran;
+
+    DecisionDeadlines(TimeLimits limits, int numPlayers) {
+        this.limits = limits;
+        this.perDecisionNanos = limits.getPerDecision().toNanos();
+        this.perGameNanos = limits.getPerGame() == null ? Long.MAX_VALUE : limits.getPerGame().toNanos();
+        this.decisions = new int[numPlayers];
+        this.overruns = new int[numPlayers];
+        this.timeUsed = new long[numPlayers];
+        this.longest = new long[numPlayers];
+        this.stuck = new AtomicIntegerArray(numPlayers);
+    }
+
+    /**
+     * Asks the player in a seat to choose an option before its deadline.
+     *
+     * @return the player's choice, or the index of {@link EndPhaseDecision} if it overran
+     *         under the {@link TimeLimits.Policy#END_PHASE} policy
+     * @throws PlayerViolationException if the player overran under the
+     *         {@link TimeLimits.Policy#FORFEIT} policy, or the game's thread was interrupted
+     * @throws Exception whatever the player threw
+     */
+    int choose(int seat, IndexedPlayer player, GameState state, ImmutableList<Decision> options) throws Exception {
+        decisions[seat]++;
+        lastOverran = false;
+        long deadline = Math.min(perDecisionNanos, perGameNanos - timeUsed[seat]);
+        if (deadline <= 0) {
+            return overrun(seat, player, options, "has used its time budget for the game");
+        }
+
+        long start = System.nanoTime();
+        Call call = new Call(seat, player, state, options);
+        Future<Integer> choice = DECIDERS.submit(call);
+        try {
+            int index = choice.get(deadline, TimeUnit.NANOSECONDS);
+            charge(seat, System.nanoTime() - start);
+            return index;
+        } catch (TimeoutException e) {
+            abandon(call, choice);
+            charge(seat, deadline);
+            return overrun(seat, player, options, "did not decide within " + TimeUnit.NANOSECONDS.toMillis(deadline) + " ms");
+        } catch (ExecutionException e) {
+            charge(seat, System.nanoTime() - start);
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (Exception) cause;
+        } catch (InterruptedException e) {
+            abandon(call, choice);
+            Thread.currentThread().interrupt();
+            throw new PlayerViolationException("Interrupted while waiting for player " + player.getName(), e);
+        }
+    }
+
+    /**
+     * Gives up on a call, counting it as stuck if it had started and not yet returned.
+     */
+    private void abandon(Call call, Future<Integer> choice) {
+        call.state.detach();
+        // Counted first, so the call cannot uncount itself before it was counted
+        stuck.incrementAndGet(call.seat);
+        int previous;
+        do {
+            previous = call.progress.get();
+        } while (previous != Call.DONE && !call.progress.compareAndSet(previous, Call.ABANDONED));
+        if (previous != Call.RUNNING) {
+            stuck.decrementAndGet(call.seat);
+        }
+        choice.cancel(true);
+    }
+
+    private void charge(int seat, long nanos) {
+        timeUsed[seat] += nanos;
+        longest[seat] = Math.max(longest[seat], nanos);
+    }
+
+    private int overrun(int seat, IndexedPlayer player, ImmutableList<Decision> options, String reason)
+            throws PlayerViolationException {
+        overruns[seat]++;
+        lastOverran = true;
+        if (limits.getPolicy() == TimeLimits.Policy.FORFEIT) {
+            throw new PlayerViolationException("Player " + player.getName() + " " + reason);
+        }
+        // Every option list ends with the option to end the phase
+        return options.size() - 1;
+    }
+
+    /**
+     * Tells whether the last choice was made for the player because it overran, rather
+     * than by the player.
+     */
+    boolean lastOverran() {
+        return lastOverran;
+    }
+
+    OverrunStats getStats(int seat, String playerName) {
+        return new OverrunStats(playerName, decisions[seat], overruns[seat], timeUsed[seat], longest[seat],
+            stuck.get(seat));
+    }
+
+    /**
+     * One decision, run on a decider thread.
+     */
+    private final class Call implements Callable<Integer> {
+        static final int QUEUED = 0;
+        static final int RUNNING = 1;
+        static final int DONE = 2;
+        static final int ABANDONED = 3;
+
+        final int seat;
+        final IndexedPlayer player;
+        final GameState state;
+        final ImmutableList<Decision> options;
+        final AtomicInteger progress = new AtomicInteger(QUEUED);
+
+        Call(int seat, IndexedPlayer player, GameState state, ImmutableList<Decision> options) {
+            this.seat = seat;
+            this.player = player;
+            this.state = state;
+            this.options = options;
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            if (!progress.compareAndSet(QUEUED, RUNNING)) {
+                // Abandoned before it started
+                return options.size() - 1;
+            }
+            try {
+                return player.chooseOption(state, options);
+            } finally {
+                if (!progress.compareAndSet(RUNNING, DONE)) {
+                    stuck.decrementAndGet(seat);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package edu.brandeis.cosi103a.ip2;
+
+/**
+ * Observes the turns and decisions of a game, in the order the engine plays them.
+ * Registered with {@link EngineImpl#setDecisionListener(DecisionListener)}.
+ */
+@FunctionalInterface
+public interface DecisionListener {
+    /**
+     * Called when a player has chosen an option, before the engine validates the choice.
+     *
+     * @param seat the index of the deciding player in the engine's player list
+     * @param phase the phase the decision was made in
+     * @param optionIndex the index the player chose; may be out of range, in which case
+     *        the engine will end the game with a {@link PlayerViolationException}
+     */
+    void decisionMade(int seat, TurnPhase phase, int optionIndex);
+
+    /**
+     * Called before a turn begins, while the game is between turns.
+     *
+     * @param turn the number of the turn, counting from 1 across all players
+     * @param seat the index of the player taking the turn
+     */
+    default void turnStarted(int turn, int seat) {
+    }
+}
@@ -0,0 +1,85 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Shared, immutable option lists for the decisions the engine offers.
+ *
+ * A list is identified by a bitmask of {@link CardRegistry} ids. It holds the canonical
+ * decision for each card in the mask, in registry order, followed by
+ * {@link EndPhaseDecision}. Identical cards therefore collapse into a single option, and
+ * every game asking for the same set of cards gets the same list instance.
+ */
+public final class DecisionOptions {
+    // Masks below this bound are cached in a plain array; larger card sets fall back to a map
+    private static final int DENSE_MASK_LIMIT = 1 << Math.min(CardRegistry.size(), 16);
+
+    private static final Cache PLAY = new Cache(PlayCardDecision::of);
+    private static final Cache BUY = new Cache(BuyCardDecision::of);
+
+    private DecisionOptions() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Gets the options to play each card in the mask, or end the phase.
+     */
+    public static ImmutableList<Decision> play(long cardMask) {
+        return PLAY.get(cardMask);
+    }
+
+    /**
+     * Gets the options to buy each card in the mask, or end the phase.
+     */
+    public static ImmutableList<Decision> buy(long cardMask) {
+        return BUY.get(cardMask);
+    }
+
+    /**
+     * Gets the bit that represents a card in an option mask. Ids are below
+     * {@link CardRegistry#MAX_CARDS}, which the registry checks when it loads.
+     */
+    public static long bit(int cardId) {
+        return 1L << cardId;
+    }
+
+    /**
+     * Option lists of one decision kind, built on first use. Lists are immutable, so
+     * concurrent engines may race to build the same entry; either result is correct.
+     */
+    private static final class Cache {
+        private final IntFunction<Decision> decisionForCard;
+        private final ImmutableList<Decision>[] dense;
+        private final ConcurrentHashMap<Long, ImmutableList<Decision>> sparse = new ConcurrentHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        Cache(IntFunction<Decision> decisionForCard) {
+            this.decisionForCard = decisionForCard;
+            this.dense = (ImmutableList<Decision>[]) new ImmutableList<?>[DENSE_MASK_LIMIT];
+        }
+
+        ImmutableList<Decision> get(long mask) {
+            if (mask >= 0 && mask < DENSE_MASK_LIMIT) {
+                ImmutableList<Decision> options = dense[(int) mask];
+                if (options == null) {
+                    options = build(mask);
+                    dense[(int) mask] = options;
+                }
+                return options;
+            }
+            return sparse.computeIfAbsent(mask, this::build);
+        }
+
+        private ImmutableList<Decision> build(long mask) {
+            ImmutableList.Builder<Decision> builder = ImmutableList.builderWithExpectedSize(Long.bitCount(mask) + 1);
+            for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                builder.add(decisionForCard.apply(Long.numberOfTrailingZeros(remaining)));
+            }
+            builder.add(EndPhaseDecision.getInstance());
+            return builder.build();
+        }
+    }
+}
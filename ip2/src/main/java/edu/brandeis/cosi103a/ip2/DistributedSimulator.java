@@ -0,0 +1,492 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Runs a batch of games across several worker JVMs, for players too memory-hungry to
+ * share one heap.
+ *
+ * The coordinator forks {@link SimulationWorker} processes and talks to each over its
+ * standard input and output. The roster is given as player specs (see
+ * {@link SimulationWorker#playerFactory}) so every worker can build its own players.
+ * Game i is seeded with {@link BatchSimulator#gameSeed(long, int)}, so a batch gives the
+ * same results as a {@link BatchSimulator} with the same base seed and roster.
+ *
+ * Each worker has a few jobs in flight so it never waits for the next one. If a worker
+ * dies, its unanswered jobs go back in the queue for the others and a replacement is
+ * started, up to one restart per worker. A job that has been lost with three workers is
+ * counted as failed. Workers are started by a {@link WorkerLauncher}, which by default
+ * forks a JVM on this machine; a launcher running {@code ssh host java ...} would spread
+ * a batch over several machines.
+ */
+public final class DistributedSimulator {
+    static final int MAX_IN_FLIGHT = 16;
+    static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Starts a worker process.
+     */
+    public interface WorkerLauncher {
+        Process launch() throws IOException;
+
+        /**
+         * Gets a launcher that forks a JVM on this machine with the same class path.
+         *
+         * @param jvmOptions options for the worker JVMs, such as {@code -Xmx2g}
+         * @param workerArgs arguments to {@link SimulationWorker#main}
+         */
+        static WorkerLauncher forkJvm(List<String> jvmOptions, String... workerArgs) {
+            return () -> {
+                List<String> command = new ArrayList<>();
+                command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+                command.addAll(jvmOptions);
+                command.add("-cp");
+                command.add(System.getProperty("java.class.path"));
+                command.add(SimulationWorker.class.getName());
+                command.addAll(List.of(workerArgs));
+                return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            };
+        }
+    }
+
+    private final ImmutableList<String> roster;
+    private final ImmutableList<String> names;
+    private final int workers;
+    private final WorkerLauncher launcher;
+    private int restartedWorkers;
+    private int reassignedJobs;
+
+    /**
+     * Creates a simulator that forks workers on this machine.
+     *
+     * @param roster the player specs, in seat order
+     * @param workers the number of worker JVMs
+     * @param jvmOptions options for the worker JVMs, such as {@code -Xmx2g}
+     * @throws IllegalArgumentException if a spec is malformed, two players share a name,
+     *     or workers is not positive
+     */
+    public DistributedSimulator(List<String> roster, int workers, List<String> jvmOptions) {
+        this(roster, workers, WorkerLauncher.forkJvm(jvmOptions));
+    }
+
+    /**
+     * Creates a simulator whose workers are started by the given launcher.
+     *
+     * @throws IllegalArgumentException if a spec is malformed, two players share a name,
+     *     or workers is not positive
+     */
+    public DistributedSimulator(List<String> roster, int workers, WorkerLauncher launcher) {
+        if (roster.isEmpty() || roster.size() > 4) {
+            throw new IllegalArgumentException("Roster must have 1-4 players");
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be at least 1");
+        }
+        Set<String> unique = new HashSet<>();
+        for (String spec : roster) {
+            SimulationWorker.playerFactory(spec);
+            if (!unique.add(SimulationWorker.nameOf(spec))) {
+                throw new IllegalArgumentException("Duplicate player name in roster: " + spec);
+            }
+        }
+        this.roster = ImmutableList.copyOf(roster);
+        this.names = roster.stream().map(SimulationWorker::nameOf).collect(ImmutableList.toImmutableList());
+        this.workers = workers;
+        this.launcher = launcher;
+    }
+
+    /**
+     * Plays the given number of games and waits for all of them to finish.
+     *
+     * @return the collected results, in game order, and timing of the batch
+     * @throws IOException if no worker could be started, or every worker died
+     * @throws IllegalArgumentException if games is negative
+     */
+    public BatchResult run(int games, long baseSeed) throws IOException, InterruptedException {
+        if (games < 0) {
+            throw new IllegalArgumentException("Number of games must not be negative");
+        }
+        GameResult[] results = new GameResult[games];
+        AtomicInteger failures = new AtomicInteger();
+        long elapsedNanos = play(games, baseSeed, (result, index) -> results[index] = result, failures);
+        return new BatchResult(results, failures.get(), elapsedNanos, baseSeed);
+    }
+
+    /**
+     * Plays the given number of games, handing each result to the sink as soon as it
+     * arrives, and waits for all of them to finish. The sink is called concurrently from
+     * the threads reading the workers, so it must be thread-safe. If it throws, the batch
+     * fails with that exception.
+     *
+     * @return the counts and timing of the batch, without results
+     * @throws IOException if no worker could be started, or every worker died
+     * @throws IllegalArgumentException if games is negative or the sink is null
+     */
+    public BatchResult run(int games, long baseSeed, Consumer<GameResult> sink) throws IOException, InterruptedException {
+        if (games < 0) {
+            throw new IllegalArgumentException("Number of games must not be negative");
+        }
+        if (sink == null) {
+            throw new IllegalArgumentException("Sink must not be null");
+        }
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        long elapsedNanos = play(games, baseSeed, (result, index) -> {
+            sink.accept(result);
+            completed.incrementAndGet();
+        }, failures);
+        return new BatchResult(completed.get(), failures.get(), elapsedNanos, baseSeed);
+    }
+
+    /**
+     * Gets the number of workers started to replace dead ones, over every batch.
+     */
+    public synchronized int getRestartedWorkers() {
+        return restartedWorkers;
+    }
+
+    /**
+     * Gets the number of jobs put back in the queue because their worker died, over every batch.
+     */
+    public synchronized int getReassignedJobs() {
+        return reassignedJobs;
+    }
+
+    private long play(int games, long baseSeed, ObjIntConsumer<GameResult> sink, AtomicInteger failures)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Batch batch = new Batch(games, baseSeed, sink, failures);
+        try {
+            batch.start();
+            batch.await();
+        } finally {
+            batch.shutDown();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * The jobs and workers of one batch. All shared state is guarded by the batch's lock.
+     */
+    private final class Batch {
+        private final int games;
+        private final long baseSeed;
+        private final ObjIntConsumer<GameResult> sink;
+        private final AtomicInteger failures;
+        private final Queue<Integer> requeued = new ArrayDeque<>();
+        private final Map<Integer, Integer> attempts = new HashMap<>();
+        private final List<Worker> live = new ArrayList<>();
+        private int nextGame;
+        private int remaining;
+        private int restartsLeft = workers;
+        private Exception error;
+        private boolean finished;
+
+        Batch(int games, long baseSeed, ObjIntConsumer<GameResult> sink, AtomicInteger failures) {
+            this.games = games;
+            this.baseSeed = baseSeed;
+            this.sink = sink;
+            this.failures = failures;
+            this.remaining = games;
+        }
+
+        void start() throws IOException {
+            if (games == 0) {
+                return;
+            }
+            IOException lastFailure = null;
+            for (int i = 0; i < workers; i++) {
+                try {
+                    launch();
+                } catch (IOException e) {
+                    lastFailure = e;
+                }
+            }
+            synchronized (this) {
+                if (live.isEmpty()) {
+                    // The workers may have launched and died already, e.g. on a bad JVM option
+                    throwError();
+                    throw lastFailure != null ? lastFailure : new IOException("No worker could be started");
+                }
+            }
+        }
+
+        private void launch() throws IOException {
+            Process process = launcher.launch();
+            Worker worker = new Worker(this, process);
+            // Other threads may send jobs as soon as the worker is live, so the roster goes first
+            try {
+                worker.sendRoster();
+            } catch (IOException e) {
+                process.destroyForcibly();
+                throw e;
+            }
+            synchronized (this) {
+                live.add(worker);
+            }
+            worker.start();
+        }
+
+        synchronized void await() throws IOException, InterruptedException {
+            while (remaining > 0 && error == null) {
+                wait();
+            }
+            throwError();
+        }
+
+        private void throwError() throws IOException {
+            if (error instanceof IOException) {
+                throw (IOException) error;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+        }
+
+        /**
+         * Takes the next job to hand out, or returns -1 if there is none right now.
+         */
+        synchronized int nextJob() {
+            if (finished) {
+                return -1;
+            }
+            Integer job = requeued.poll();
+            if (job != null) {
+                return job;
+            }
+            return nextGame < games ? nextGame++ : -1;
+        }
+
+        void completed(int index, GameResult result) {
+            try {
+                if (result == null) {
+                    failures.incrementAndGet();
+                } else {
+                    sink.accept(result, index);
+                }
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+            synchronized (this) {
+                remaining--;
+                if (remaining == 0) {
+                    notifyAll();
+                }
+            }
+        }
+
+        synchronized void fail(Exception e) {
+            if (error == null) {
+                error = e;
+            }
+            notifyAll();
+        }
+
+        /**
+         * Puts a dead worker's jobs back in the queue, replaces the worker if it may, and
+         * hands the jobs out.
+         */
+        void died(Worker worker, Set<Integer> lost) {
+            boolean replace;
+            synchronized (this) {
+                live.remove(worker);
+                if (finished) {
+                    return;
+                }
+                for (int job : lost) {
+                    int tries = attempts.merge(job, 1, Integer::sum);
+                    if (tries >= MAX_ATTEMPTS) {
+                        failures.incrementAndGet();
+                        remaining--;
+                    } else {
+                        requeued.add(job);
+                    }
+                }
+                synchronized (DistributedSimulator.this) {
+                    reassignedJobs += lost.size();
+                }
+                if (remaining == 0) {
+                    notifyAll();
+                    return;
+                }
+                replace = restartsLeft > 0;
+                if (replace) {
+                    restartsLeft--;
+                }
+            }
+
+            if (replace) {
+                try {
+                    launch();
+                    synchronized (DistributedSimulator.this) {
+                        restartedWorkers++;
+                    }
+                } catch (IOException e) {
+                    // The remaining workers carry on
+                }
+            }
+            List<Worker> others;
+            synchronized (this) {
+                if (live.isEmpty()) {
+                    fail(new IOException("Every worker died with " + remaining + " games left"));
+                    return;
+                }
+                others = new ArrayList<>(live);
+            }
+            for (Worker other : others) {
+                other.fill();
+            }
+        }
+
+        void shutDown() throws InterruptedException {
+            List<Worker> workers;
+            synchronized (this) {
+                finished = true;
+                workers = new ArrayList<>(live);
+            }
+            for (Worker worker : workers) {
+                worker.shutDown();
+            }
+        }
+    }
+
+    /**
+     * A worker process, with a thread that reads its replies and sends it more jobs.
+     */
+    private final class Worker extends Thread {
+        private final Batch batch;
+        private final Process process;
+        private final DataOutputStream out;
+        private final DataInputStream in;
+        private final Set<Integer> inFlight = new LinkedHashSet<>();  // Guarded by this
+        private boolean broken;  // Guarded by this
+
+        Worker(Batch batch, Process process) {
+            super("simulation-worker-" + process.pid());
+            setDaemon(true);
+            this.batch = batch;
+            this.process = process;
+            this.out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+
+        @Override
+        public void run() {
+            try {
+                fill();
+                while (true) {
+                    int index = in.readInt();
+                    GameResult result = in.readUnsignedByte() == SimulationWorker.COMPLETED
+                        ? SimulationWorker.readResult(in, names) : null;
+                    synchronized (this) {
+                        if (!inFlight.remove(index)) {
+                            throw new IOException("Worker answered a job it was not given: " + index);
+                        }
+                    }
+                    batch.completed(index, result);
+                    fill();
+                }
+            } catch (IOException e) {
+                // The worker died, or was stopped at the end of the batch
+            }
+            Set<Integer> lost;
+            synchronized (this) {
+                broken = true;
+                lost = new LinkedHashSet<>(inFlight);
+                inFlight.clear();
+            }
+            process.destroyForcibly();
+            batch.died(this, lost);
+        }
+
+        synchronized void sendRoster() throws IOException {
+            out.writeInt(roster.size());
+            for (String spec : roster) {
+                out.writeUTF(spec);
+            }
+        }
+
+        /**
+         * Sends jobs until the worker has its fill or the queue is empty.
+         */
+        synchronized void fill() {
+            if (broken) {
+                return;
+            }
+            try {
+                int job;
+                while (inFlight.size() < MAX_IN_FLIGHT && (job = batch.nextJob()) >= 0) {
+                    inFlight.add(job);
+                    out.writeInt(job);
+                    out.writeLong(BatchSimulator.gameSeed(batch.baseSeed, job));
+                }
+                out.flush();
+            } catch (IOException e) {
+                // The reading thread finds the worker dead and reassigns its jobs
+                broken = true;
+            }
+        }
+
+        /**
+         * Closes the worker's input so it exits, and waits for it.
+         */
+        void shutDown() throws InterruptedException {
+            synchronized (this) {
+                broken = true;
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // Already gone
+                }
+            }
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+            join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Runs a batch of SimplePlayer games across worker JVMs.
+     *
+     * Usage: DistributedSimulator [games] [workers] [players] [seed]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int numPlayers = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        List<String> roster = new ArrayList<>();
+        for (int i = 1; i <= numPlayers; i++) {
+            roster.add("simple:Player" + i);
+        }
+        DistributedSimulator simulator = new DistributedSimulator(roster, workers, List.of());
+        StatsAggregator stats = new StatsAggregator();
+        System.out.println(simulator.run(games, seed, stats));
+        for (TournamentStats.PlayerStats player : stats.snapshot().getPlayers().values()) {
+            System.out.println("  " + player);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.util.*;
+
+/**
+ * A player's deck and discard pile, drawn with a lazy, incremental Fisher-Yates shuffle.
+ *
+ * The deck is never shuffled up front. Each draw swaps a uniformly random remaining card
+ * to the end of the deck array and takes it, so a draw costs O(1) whatever the deck size.
+ * When the deck runs out, the discard array simply becomes the new deck and the emptied
+ * deck array becomes the discard buffer; no cards are copied.
+ */
+public class DrawPile {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private SplittableRandom random;
+    private CardDefinition[] deck;
+    private CardDefinition[] discard;
+    private int deckSize;
+    private int discardSize;
+    private int reshuffles;
+
+    public DrawPile(SplittableRandom random) {
+        this.random = random;
+        this.deck = new CardDefinition[INITIAL_CAPACITY];
+        this.discard = new CardDefinition[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Puts a card into the deck.
+     */
+    public void addToDeck(CardDefinition card) {
+        if (deckSize == deck.length) {
+            deck = Arrays.copyOf(deck, deckSize * 2);
+        }
+        deck[deckSize++] = card;
+    }
+
+    /**
+     * Puts a card onto the discard pile.
+     */
+    public void discard(CardDefinition card) {
+        if (discardSize == discard.length) {
+            discard = Arrays.copyOf(discard, discardSize * 2);
+        }
+        discard[discardSize++] = card;
+    }
+
+    /**
+     * Puts every card in the list onto the discard pile.
+     */
+    public void discardAll(List<CardDefinition> cards) {
+        int needed = discardSize + cards.size();
+        if (needed > discard.length) {
+            discard = Arrays.copyOf(discard, Math.max(needed, discard.length * 2));
+        }
+        for (int i = 0; i < cards.size(); i++) {
+            discard[discardSize++] = cards.get(i);
+        }
+    }
+
+    /**
+     * Draws a uniformly random card from the deck, recycling the discard pile
+     * into the deck first if the deck is empty.
+     *
+     * @return the drawn card, or null if both the deck and the discard pile are empty
+     */
+    public CardDefinition draw() {
+        if (deckSize == 0) {
+            if (discardSize == 0) {
+                return null;
+            }
+            swapDiscard();
+        }
+        int last = deckSize - 1;
+        int pick = random.nextInt(deckSize);
+        CardDefinition card = deck[pick];
+        deck[pick] = deck[last];
+        deck[last] = null;
+        deckSize = last;
+        return card;
+    }
+
+    /**
+     * Moves the discard pile into the deck, as a draw does when the deck runs out.
+     */
+    public void recycleDiscard() {
+        if (discardSize == 0) {
+            return;
+        }
+        if (deckSize == 0) {
+            swapDiscard();
+            return;
+        }
+        if (deckSize + discardSize > deck.length) {
+            deck = Arrays.copyOf(deck, Math.max(deckSize + discardSize, deck.length * 2));
+        }
+        System.arraycopy(discard, 0, deck, deckSize, discardSize);
+        Arrays.fill(discard, 0, discardSize, null);
+        deckSize += discardSize;
+        discardSize = 0;
+        reshuffles++;
+    }
+
+    /**
+     * Swaps the roles of the deck and discard arrays. The deck must be empty.
+     */
+    private void swapDiscard() {
+        CardDefinition[] emptied = deck;
+        deck = discard;
+        deckSize = discardSize;
+        discard = emptied;
+        discardSize = 0;
+        reshuffles++;
+    }
+
+    /**
+     * Replaces the generator used for draws.
+     */
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Replaces the contents of the deck and the discard pile, keeping the given order.
+     */
+    public void reset(List<CardDefinition> deckCards, List<CardDefinition> discardCards) {
+        Arrays.fill(deck, 0, deckSize, null);
+        Arrays.fill(discard, 0, discardSize, null);
+        deckSize = 0;
+        discardSize = 0;
+        for (CardDefinition card : deckCards) {
+            addToDeck(card);
+        }
+        discardAll(discardCards);
+    }
+
+    public int getDeckSize() {
+        return deckSize;
+    }
+
+    public int getDiscardSize() {
+        return discardSize;
+    }
+
+    /**
+     * Gets the number of times the discard pile has been recycled into the deck.
+     */
+    public int getReshuffleCount() {
+        return reshuffles;
+    }
+
+    /**
+     * Gets a copy of the cards in the deck. The deck has no fixed order until drawn.
+     */
+    public List<CardDefinition> getDeck() {
+        return new ArrayList<>(Arrays.asList(deck).subList(0, deckSize));
+    }
+
+    /**
+     * Gets a copy of the cards in the discard pile, oldest first.
+     */
+    public List<CardDefinition> getDiscard() {
+        return new ArrayList<>(Arrays.asList(discard).subList(0, discardSize));
+    }
+}
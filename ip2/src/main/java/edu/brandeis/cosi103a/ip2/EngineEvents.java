@@ -0,0 +1,189 @@
+package edu.brandeis.cosi103a.ip2;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder events for games, turns, decisions and reshuffles, so that GC
+ * pauses and CPU samples in a recording can be lined up with game activity.
+ *
+ * Each begin method returns null unless a running recording has the event enabled, and
+ * each end method ignores null, so without a recording the engine allocates nothing and
+ * reads no clock for these events.
+ *
+ * A game makes over a thousand decisions, most taking about a microsecond, so decision
+ * events are only recorded above a {@value #DECISION_THRESHOLD} threshold by default;
+ * set the threshold of {@code edu.brandeis.cosi103a.ip2.Decision} to 0 to record them all.
+ */
+final class EngineEvents {
+    private static final String CATEGORY = "Automation";
+    static final String DECISION_THRESHOLD = "10 us";
+
+    private static final EventType GAME = EventType.getEventType(GameEvent.class);
+    private static final EventType TURN = EventType.getEventType(TurnEvent.class);
+    private static final EventType DECISION = EventType.getEventType(DecisionEvent.class);
+    private static final EventType RESHUFFLE = EventType.getEventType(ReshuffleEvent.class);
+
+    private EngineEvents() {
+        // Utility class, prevent instantiation
+    }
+
+    @Name("edu.brandeis.cosi103a.ip2.Game")
+    @Label("Game")
+    @Category(CATEGORY)
+    @Description("A game played by EngineImpl.play(), from the first turn to the results")
+    @StackTrace(false)
+    static final class GameEvent extends Event {
+        @Label("Seed")
+        long seed;
+
+        @Label("Players")
+        int players;
+
+        @Label("Turns")
+        int turns;
+
+        @Label("Winner")
+        String winner;
+
+        @Label("Winning Score")
+        int winningScore;
+    }
+
+    @Name("edu.brandeis.cosi103a.ip2.Turn")
+    @Label("Turn")
+    @Category(CATEGORY)
+    @Description("One player's turn, from the ACTION phase through cleanup")
+    @StackTrace(false)
+    static final class TurnEvent extends Event {
+        @Label("Turn")
+        int turn;
+
+        @Label("Seat")
+        int seat;
+
+        @Label("Player")
+        String player;
+    }
+
+    @Name("edu.brandeis.cosi103a.ip2.Decision")
+    @Label("Player Decision")
+    @Category(CATEGORY)
+    @Description("A player choosing one of the options offered by the engine")
+    @StackTrace(false)
+    @Threshold(DECISION_THRESHOLD)
+    static final class DecisionEvent extends Event {
+        @Label("Player")
+        String player;
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Option Count")
+        int optionCount;
+
+        @Label("Chosen Option")
+        int chosenOption;
+    }
+
+    @Name("edu.brandeis.cosi103a.ip2.Reshuffle")
+    @Label("Reshuffle")
+    @Category(CATEGORY)
+    @Description("A player's discard pile moving into an empty deck")
+    @StackTrace(false)
+    static final class ReshuffleEvent extends Event {
+        @Label("Player")
+        String player;
+
+        @Label("Cards")
+        int cards;
+    }
+
+    static GameEvent beginGame() {
+        if (!GAME.isEnabled()) {
+            return null;
+        }
+        GameEvent event = new GameEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endGame(GameEvent event, long seed, GameResult result) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.seed = seed;
+            event.players = result.getPlayerResults().size();
+            event.turns = result.getTurns();
+            PlayerResult winner = result.getPlayerResults().get(0);
+            event.winner = winner.getName();
+            event.winningScore = winner.getScore();
+            event.commit();
+        }
+    }
+
+    static TurnEvent beginTurn() {
+        if (!TURN.isEnabled()) {
+            return null;
+        }
+        TurnEvent event = new TurnEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endTurn(TurnEvent event, int turn, int seat, String player) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.turn = turn;
+            event.seat = seat;
+            event.player = player;
+            event.commit();
+        }
+    }
+
+    static DecisionEvent beginDecision() {
+        if (!DECISION.isEnabled()) {
+            return null;
+        }
+        DecisionEvent event = new DecisionEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endDecision(DecisionEvent event, String player, TurnPhase phase, int optionCount, int chosenOption) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = player;
+            event.phase = phase.name();
+            event.optionCount = optionCount;
+            event.chosenOption = chosenOption;
+            event.commit();
+        }
+    }
+
+    static void reshuffled(String player, int cards) {
+        if (!RESHUFFLE.isEnabled()) {
+            return;
+        }
+        ReshuffleEvent event = new ReshuffleEvent();
+        if (event.shouldCommit()) {
+            event.player = player;
+            event.cards = cards;
+            event.commit();
+        }
+    }
+}
@@ -1,25 +1,99 @@
 package edu.brandeis.cosi103a.ip2;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Implementation of the Engine interface for Automation: The Game.
  */
 public class EngineImpl implements Engine {
+    static final long ACTION_CARD_MASK = actionCardMask();
+
     private final List<Player> players;
+    private final IndexedPlayer[] choosers;  // Index-based view of each player, by seat
+    private final PhasePlanner[] planners;   // Each player that plans phases, or null, by seat
+    private final MemoizingPlayer[] memoizers;  // Each player whose choices are cached, or null, by seat
     private final CardStacks cardStacks;
     private final Map<Player, PlayerState> playerStates;
+    private final PlayerState[] seatStates;  // The same states, by seat
+    private final ImmutableList<String> playerNames;
+    private final long seed;
+    private final boolean seatsOnly;  // Whether decisions are made outside the engine, by seat name
+    private final SplittableRandom forkRandom;  // Seeds forks, so that they are reproducible too
+
+    // Decision cursor, captured by fork(). The turn is a state machine: beginNextTurn()
+    // enters the ACTION phase, awaitDecision() moves through phases until a player must
+    // choose, and resolveDecision() applies the choice.
+    private int currentSeat;
+    private TurnPhase currentPhase;  // Null between turns
+    private int turns;
+    private ImmutableList<Decision> pendingOptions;  // Options of the decision awaited
+    private GameState pendingState;  // The state last handed to a player, until its decision is resolved
+    private long phaseStart;  // When the current phase began, if metrics are collected
+    private EngineEvents.TurnEvent turnEvent;  // Null unless recording turns
+    private TurnPhase plannedPhase;  // The phase the current player was last asked to plan
+    private PhasePlan plan;  // Null if the current phase is not planned
+    private int planStep;
+
+    private DecisionListener decisionListener;  // Null if no one is listening
+    private EngineMetrics metrics;  // Null if timings are not collected
+    private DecisionDeadlines deadlines;  // Null if players have no time limits
 
     /**
-     * Creates a new Engine with the given list of players.
+     * Creates a new Engine with the given list of players and a random seed.
      * 
      * @param players The list of players (must be between 1 and 4 players)
      * @throws IllegalArgumentException if the list contains more than 4 players
      */
     public EngineImpl(List<Player> players) {
+        this(players, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates a new Engine with the given list of players and seed.
+     * Every shuffle in the game draws from a SplittableRandom derived from the seed,
+     * so the same seed and players always produce the same game. Each turn gets its own
+     * generator, derived from the seed and the turn number, so a game can be resumed
+     * between turns without the history of earlier draws.
+     * 
+     * @param players The list of players (must be between 1 and 4 players)
+     * @param seed The seed for this game's random number generator
+     * @throws IllegalArgumentException if the list contains more than 4 players
+     */
+    public EngineImpl(List<Player> players, long seed) {
+        this(players, seed, ListPlayerState::new);
+    }
+
+    /**
+     * Creates a new Engine with the given list of players, seed and player state representation.
+     * 
+     * @param players The list of players (must be between 1 and 4 players)
+     * @param seed The seed for this game's random number generator
+     * @param stateFactory Creates the state of each player, e.g. {@code CountingPlayerState::new}
+     * @throws IllegalArgumentException if the list contains more than 4 players
+     */
+    public EngineImpl(List<Player> players, long seed, PlayerState.Factory stateFactory) {
+        this(players, seed, stateFactory, false);
+    }
+
+    /**
+     * Creates an engine for seats known only by name, whose decisions are made outside the
+     * engine. Drive it with {@link #beginNextTurn()}, {@link #awaitDecision()} and
+     * {@link #resolveDecision(int)}; {@link #play()} is not supported. Games play exactly
+     * as they would under {@link #EngineImpl(List, long)} with players of the same names.
+     *
+     * @param names the name of each seat (must be between 1 and 4 seats)
+     * @param seed The seed for this game's random number generator
+     * @throws IllegalArgumentException if there are not between 1 and 4 seats
+     */
+    EngineImpl(ImmutableList<String> names, long seed) {
+        this(names.stream().map(Seat::new).collect(ImmutableList.toImmutableList()), seed,
+            ListPlayerState::new, true);
+    }
+
+    private EngineImpl(List<? extends Player> players, long seed, PlayerState.Factory stateFactory, boolean seatsOnly) {
         if (players == null || players.isEmpty()) {
             throw new IllegalArgumentException("Must have at least one player");
         }
@@ -28,152 +102,413 @@ public class EngineImpl implements Engine {
         }
         
         this.players = new ArrayList<>(players);
+        this.choosers = new IndexedPlayer[players.size()];
+        this.planners = new PhasePlanner[players.size()];
+        this.memoizers = new MemoizingPlayer[players.size()];
+        for (int i = 0; i < choosers.length; i++) {
+            Player player = players.get(i);
+            if (player instanceof MemoizingPlayer) {
+                // Look choices up here, and only ask the wrapped player on a miss
+                memoizers[i] = (MemoizingPlayer) player;
+                player = memoizers[i].getDelegate();
+                choosers[i] = memoizers[i].getChooser();
+            } else {
+                choosers[i] = IndexedPlayer.adapt(player);
+            }
+            if (player instanceof PhasePlanner) {
+                planners[i] = (PhasePlanner) player;
+            }
+        }
+        this.playerNames = players.stream()
+                .map(Player::getName)
+                .collect(ImmutableList.toImmutableList());
         this.cardStacks = new CardStacks(players.size());
         this.playerStates = new HashMap<>();
+        this.seed = seed;
+        this.seatsOnly = seatsOnly;
         
-        // Initialize player states
+        // Initialize player states, each with its own stream split off the game's generator
+        SplittableRandom random = new SplittableRandom(seed);
         for (Player player : players) {
-            playerStates.put(player, new PlayerState(player));
+            playerStates.put(player, stateFactory.create(player, random.split()));
         }
+        this.seatStates = new PlayerState[players.size()];
+        for (int i = 0; i < seatStates.length; i++) {
+            seatStates[i] = playerStates.get(players.get(i));
+        }
+        this.forkRandom = random.split();
+    }
+
+    /**
+     * Gets the seed this game was created with.
+     */
+    public long getSeed() {
+        return seed;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedOperationException if the seats are only known by name
+     */
     @Override
     public GameResult play() throws PlayerViolationException {
+        if (seatsOnly) {
+            throw new UnsupportedOperationException("This engine's decisions are made outside it");
+        }
+        EngineEvents.GameEvent event = EngineEvents.beginGame();
+
         // Play turns until game is over
-        while (!cardStacks.isGameOver()) {
-            for (Player player : players) {
-                if (cardStacks.isGameOver()) {
-                    break;
-                }
-                playTurn(player);
-            }
+        while (playNextTurn()) {
+            // Keep going
         }
         
         // Calculate and return results
-        return calculateResults();
+        GameResult result = calculateResults();
+        EngineEvents.endGame(event, seed, result);
+        return result;
     }
 
     /**
-     * Plays a complete turn for the given player.
+     * Plays the next turn, unless the game is over.
+     *
+     * @return false if the game was already over
      */
-    private void playTurn(Player player) throws PlayerViolationException {
-        PlayerState state = playerStates.get(player);
-        state.startTurn();
-        
-        // ACTION phase
-        playActionPhase(player, state);
-        
-        // MONEY phase
-        playMoneyPhase(player, state);
-        
-        // BUY phase
-        playBuyPhase(player, state);
-        
-        // CLEANUP phase
-        state.cleanup();
+    boolean playNextTurn() throws PlayerViolationException {
+        if (!beginNextTurn()) {
+            return false;
+        }
+        IndexedPlayer player = choosers[currentSeat];
+        PhasePlanner planner = deadlines == null ? planners[currentSeat] : null;
+        MemoizingPlayer memoizer = memoizers[currentSeat];
+        while (awaitDecision()) {
+            int index = planner == null ? -1 : nextPlannedOption(planner);
+            if (index < 0 && memoizer != null) {
+                index = chooseMemoized(memoizer, player);
+            } else if (index < 0) {
+                index = chooseOption(player, createPendingState(), pendingOptions);
+            }
+            resolveDecision(index);
+        }
+        return true;
     }
 
     /**
-     * Executes the ACTION phase of a turn.
+     * Gets the cached choice of the current player for the awaited decision, or asks the
+     * player and caches its choice. The key is computed from the player's state directly,
+     * and matches {@link DecisionCache#key(GameState)} for the state the player would see.
+     * A choice the engine made for a player that overran its time limit is not cached.
+     *
+     * @return the index of the chosen option; not yet validated
+     * @throws PlayerViolationException if the player threw or overran its time limit
      */
-    private void playActionPhase(Player player, PlayerState state) throws PlayerViolationException {
-        while (state.getActions() > 0) {
-            List<Decision> options = new ArrayList<>();
-            
-            // Add options to play each unplayed action card
-            List<CardDefinition> unplayedActions = getUnplayedActionCards(state);
-            for (CardDefinition card : unplayedActions) {
-                options.add(new PlayCardDecision(card));
-            }
-            
-            // Always add option to end phase
-            options.add(EndPhaseDecision.getInstance());
-            
-            GameState gameState = createGameState(TurnPhase.ACTION, player, state);
-            Decision decision = getPlayerDecision(player, gameState, options);
-            
-            if (decision instanceof EndPhaseDecision) {
-                break;
-            } else if (decision instanceof PlayCardDecision) {
-                PlayCardDecision playDecision = (PlayCardDecision) decision;
-                playActionCard(state, playDecision.getCard());
-            } else {
-                throw new PlayerViolationException("Invalid decision type in ACTION phase");
+    private int chooseMemoized(MemoizingPlayer memoizer, IndexedPlayer player) throws PlayerViolationException {
+        long key = memoizer.getCache().key(currentPhase, seatStates[currentSeat], cardStacks);
+        int index = memoizer.getCache().get(key, pendingOptions.size());
+        if (index < 0) {
+            index = chooseOption(player, createPendingState(), pendingOptions);
+            if (deadlines == null || !deadlines.lastOverran()) {
+                memoizer.remember(key, index, pendingOptions.size());
             }
         }
+        return index;
     }
 
     /**
-     * Executes the MONEY phase of a turn.
+     * Gets the option the current player's plan for this phase chooses, asking for the
+     * plan at the phase's first decision. Once a plan is done or chooses something that
+     * is not an option, the rest of the phase is decided one step at a time.
+     *
+     * @return the index of the option, or -1 if the player must be asked
+     * @throws PlayerViolationException if the player threw while planning
      */
-    private void playMoneyPhase(Player player, PlayerState state) throws PlayerViolationException {
-        while (true) {
-            List<Decision> options = new ArrayList<>();
-            
-            // Add options to play each unplayed card (money or otherwise)
-            Set<CardDefinition> unplayedCards = new HashSet<>(state.getHand());
-            for (CardDefinition card : unplayedCards) {
-                options.add(new PlayCardDecision(card));
+    private int nextPlannedOption(PhasePlanner planner) throws PlayerViolationException {
+        if (plannedPhase != currentPhase) {
+            plannedPhase = currentPhase;
+            planStep = 0;
+            EngineEvents.DecisionEvent event = EngineEvents.beginDecision();
+            long start = startTimer();
+            try {
+                plan = planner.planPhase(createPendingState(), pendingOptions);
+            } catch (Exception e) {
+                throw new PlayerViolationException(
+                    "Player " + playerNames.get(currentSeat) + " threw exception while planning", e);
             }
-            
-            // Always add option to end phase
-            options.add(EndPhaseDecision.getInstance());
-            
-            GameState gameState = createGameState(TurnPhase.MONEY, player, state);
-            Decision decision = getPlayerDecision(player, gameState, options);
-            
-            if (decision instanceof EndPhaseDecision) {
-                break;
-            } else if (decision instanceof PlayCardDecision) {
-                PlayCardDecision playDecision = (PlayCardDecision) decision;
-                playMoneyCard(state, playDecision.getCard());
+            int index = plan == null ? -1 : plan.nextOption(pendingOptions, planStep++);
+            if (index < 0) {
+                // The player is asked next, and that is the decision that gets recorded
+                plan = null;
             } else {
-                throw new PlayerViolationException("Invalid decision type in MONEY phase");
+                recordDecision(event, start, pendingOptions.size(), index);
             }
+            return index;
+        }
+        if (plan == null) {
+            return -1;
         }
+        int index = plan.nextOption(pendingOptions, planStep++);
+        if (index < 0) {
+            plan = null;
+        }
+        return index;
     }
 
     /**
-     * Executes the BUY phase of a turn.
+     * Gets the number of turns started so far, across all players.
      */
-    private void playBuyPhase(Player player, PlayerState state) throws PlayerViolationException {
-        while (state.getBuys() > 0) {
-            List<Decision> options = new ArrayList<>();
-            
-            // Add options to buy each affordable card
-            List<CardDefinition> affordableCards = getAffordableCards(state);
-            for (CardDefinition card : affordableCards) {
-                options.add(new BuyCardDecision(card));
-            }
-            
-            // Always add option to end phase
-            options.add(EndPhaseDecision.getInstance());
-            
-            GameState gameState = createGameState(TurnPhase.BUY, player, state);
-            Decision decision = getPlayerDecision(player, gameState, options);
-            
-            if (decision instanceof EndPhaseDecision) {
-                break;
-            } else if (decision instanceof BuyCardDecision) {
-                BuyCardDecision buyDecision = (BuyCardDecision) decision;
-                buyCard(state, buyDecision.getCard());
-            } else {
-                throw new PlayerViolationException("Invalid decision type in BUY phase");
+    int getTurn() {
+        return turns;
+    }
+
+    /**
+     * Moves the turn counter, after the supply and player states have been restored to
+     * their contents at the end of the given turn.
+     */
+    void resumeAfterTurn(int completedTurns) {
+        this.turns = completedTurns;
+        this.currentSeat = completedTurns % players.size();
+        this.currentPhase = null;
+    }
+
+    CardStacks getCardStacks() {
+        return cardStacks;
+    }
+
+    /**
+     * Gets the state of the player in the given seat.
+     */
+    PlayerState getPlayerState(int seat) {
+        return seatStates[seat];
+    }
+
+    /**
+     * Gets the names of the players, in seat order.
+     */
+    public ImmutableList<String> getPlayerNames() {
+        return playerNames;
+    }
+
+    /**
+     * Registers a listener to be told of every decision made in this game, or null to
+     * remove it. Must be called before {@link #play()}.
+     */
+    public void setDecisionListener(DecisionListener listener) {
+        this.decisionListener = listener;
+    }
+
+    /**
+     * Registers metrics to receive the latency of every phase and decision in this game,
+     * or null to stop timing. Must be called before {@link #play()}.
+     */
+    public void setMetrics(EngineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Puts every decision in this game under the given time limits, or removes them if
+     * null. Without limits, players are called directly on the game's thread. Must be
+     * called before {@link #play()}.
+     */
+    public void setTimeLimits(TimeLimits limits) {
+        this.deadlines = limits == null ? null : new DecisionDeadlines(limits, players.size());
+    }
+
+    /**
+     * Gets how each player fared against the time limits so far, in seat order, or an
+     * empty list if the game has no time limits.
+     */
+    public ImmutableList<OverrunStats> getOverrunStats() {
+        if (deadlines == null) {
+            return ImmutableList.of();
+        }
+        ImmutableList.Builder<OverrunStats> stats = ImmutableList.builder();
+        for (int seat = 0; seat < players.size(); seat++) {
+            stats.add(deadlines.getStats(seat, playerNames.get(seat)));
+        }
+        return stats.build();
+    }
+
+    /**
+     * Captures the current position of this game as a {@link GameFork}. While a player is
+     * deciding, the fork's next decision is that player's; decisions applied to the fork
+     * do not affect this game.
+     *
+     * @throws IllegalStateException if a player holds a card that is not in the {@link CardRegistry}
+     */
+    public GameFork fork() {
+        return GameFork.capture(cardStacks, seatStates, currentSeat, currentPhase, turns, forkRandom.nextLong());
+    }
+
+    /**
+     * Gets the state of the given player, or null if the player is not in this game.
+     */
+    PlayerState getPlayerState(Player player) {
+        return playerStates.get(player);
+    }
+
+    /**
+     * Starts the next player's turn in the ACTION phase, unless the game is over.
+     *
+     * @return false if the game is over
+     */
+    boolean beginNextTurn() {
+        if (cardStacks.isGameOver()) {
+            return false;
+        }
+        int seat = turns % players.size();
+        PlayerState state = getPlayerState(seat);
+        turnEvent = EngineEvents.beginTurn();
+        currentSeat = seat;
+        turns++;
+        plannedPhase = null;
+        plan = null;
+        if (decisionListener != null) {
+            decisionListener.turnStarted(turns, seat);
+        }
+        state.setRandom(new SplittableRandom(turnSeed(seed, turns)));
+        state.startTurn();
+        currentPhase = TurnPhase.ACTION;
+        phaseStart = startTimer();
+        return true;
+    }
+
+    /**
+     * Moves through the current turn until its player must decide, and sets the options
+     * of that decision. Phases the player has no choice in are skipped: ACTION once out
+     * of actions, BUY once out of buys. When the turn runs out of decisions it is cleaned
+     * up and ended.
+     *
+     * @return true if a decision is awaited, false if the turn is over
+     */
+    boolean awaitDecision() {
+        while (currentPhase != null) {
+            PlayerState state = getPlayerState(currentSeat);
+            switch (currentPhase) {
+                case ACTION:
+                    if (state.getActions() > 0) {
+                        // One option per distinct action card in hand, plus end phase
+                        pendingOptions = DecisionOptions.play(state.getHandMask() & ACTION_CARD_MASK);
+                        return true;
+                    }
+                    enterPhase(TurnPhase.MONEY);
+                    break;
+                case MONEY:
+                    // One option per distinct card in hand (money or otherwise), plus end phase
+                    pendingOptions = DecisionOptions.play(state.getHandMask());
+                    return true;
+                case BUY:
+                    if (state.getBuys() > 0) {
+                        // One option per affordable card in the supply, plus end phase
+                        pendingOptions = DecisionOptions.buy(cardStacks.getAvailableMask(state.getMoney()));
+                        return true;
+                    }
+                    endTurn();
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected phase " + currentPhase);
             }
         }
+        return false;
+    }
+
+    /**
+     * Gets the options of the decision awaited since the last {@link #awaitDecision()}.
+     */
+    ImmutableList<Decision> getPendingOptions() {
+        return pendingOptions;
+    }
+
+    /**
+     * Creates the snapshot the player of the awaited decision decides on. It can fork the
+     * game until the decision is resolved, or another snapshot is created.
+     */
+    GameState createPendingState() {
+        detachPendingState();
+        pendingState = createGameState(currentPhase, players.get(currentSeat), getPlayerState(currentSeat));
+        return pendingState;
+    }
+
+    private void detachPendingState() {
+        if (pendingState != null) {
+            pendingState.detach();
+            pendingState = null;
+        }
+    }
+
+    /**
+     * Gets the index of the player whose turn it is.
+     */
+    int getCurrentSeat() {
+        return currentSeat;
     }
 
     /**
-     * Gets unplayed action cards from the player's hand.
+     * Applies the choice of the awaited decision, after validating it.
+     *
+     * @param index the index of the chosen option, as returned by the player
+     * @throws PlayerViolationException if the index is not one of the options
      */
-    private List<CardDefinition> getUnplayedActionCards(PlayerState state) {
-        List<CardDefinition> actions = new ArrayList<>();
-        for (CardDefinition card : state.getHand()) {
-            if (card.getType() == CardType.ACTION) {
-                actions.add(card);
+    void resolveDecision(int index) throws PlayerViolationException {
+        // The game moves on, so no player may fork it from an earlier state
+        detachPendingState();
+        if (decisionListener != null) {
+            decisionListener.decisionMade(currentSeat, currentPhase, index);
+        }
+        
+        // Validate that the index refers to one of the provided options
+        ImmutableList<Decision> options = pendingOptions;
+        if (index < 0 || index >= options.size()) {
+            throw new PlayerViolationException(
+                "Player " + playerNames.get(currentSeat) + " chose invalid option " + index
+                    + " (expected 0 to " + (options.size() - 1) + ")");
+        }
+        Decision decision = options.get(index);
+        PlayerState state = getPlayerState(currentSeat);
+
+        if (decision instanceof EndPhaseDecision) {
+            if (currentPhase == TurnPhase.ACTION) {
+                enterPhase(TurnPhase.MONEY);
+            } else if (currentPhase == TurnPhase.MONEY) {
+                enterPhase(TurnPhase.BUY);
+            } else {
+                endTurn();
             }
+        } else if (currentPhase == TurnPhase.ACTION && decision instanceof PlayCardDecision) {
+            playActionCard(state, ((PlayCardDecision) decision).getCard());
+        } else if (currentPhase == TurnPhase.MONEY && decision instanceof PlayCardDecision) {
+            playMoneyCard(state, ((PlayCardDecision) decision).getCard());
+        } else if (currentPhase == TurnPhase.BUY && decision instanceof BuyCardDecision) {
+            buyCard(state, ((BuyCardDecision) decision).getCard());
+        } else {
+            throw new PlayerViolationException("Invalid decision type in " + currentPhase + " phase");
         }
-        return actions;
+    }
+
+    /**
+     * Ends the current phase and starts the given one.
+     */
+    private void enterPhase(TurnPhase phase) {
+        stopPhaseTimer(currentPhase, phaseStart);
+        currentPhase = phase;
+        phaseStart = startTimer();
+    }
+
+    /**
+     * Ends the BUY phase, cleans up and passes the turn to the next player.
+     */
+    private void endTurn() {
+        stopPhaseTimer(currentPhase, phaseStart);
+        int seat = currentSeat;
+
+        // CLEANUP phase
+        currentPhase = null;
+        pendingOptions = null;
+        long start = startTimer();
+        getPlayerState(seat).cleanup();
+        stopPhaseTimer(TurnPhase.CLEANUP, start);
+        currentSeat = (seat + 1) % players.size();
+        EngineEvents.endTurn(turnEvent, turns, seat, playerNames.get(seat));
+        turnEvent = null;
     }
 
     /**
@@ -206,19 +541,6 @@ public class EngineImpl implements Engine {
         state.setMoney(state.getMoney() + card.getMoneyValue());
     }
 
-    /**
-     * Gets all cards that the player can afford to buy.
-     */
-    private List<CardDefinition> getAffordableCards(PlayerState state) {
-        List<CardDefinition> affordable = new ArrayList<>();
-        for (CardDefinition card : cardStacks.getAvailableCards()) {
-            if (card.getCost() <= state.getMoney()) {
-                affordable.add(card);
-            }
-        }
-        return affordable;
-    }
-
     /**
      * Buys a card for the player.
      */
@@ -232,57 +554,96 @@ public class EngineImpl implements Engine {
 
     /**
      * Creates a GameState snapshot for the player.
+     * The hand, supply and player name views are shared with earlier snapshots
+     * for as long as they have not changed.
      */
-    private GameState createGameState(TurnPhase phase, Player player, PlayerState state) {
-        ImmutableList<String> playerNames = players.stream()
-                .map(Player::getName)
-                .collect(ImmutableList.toImmutableList());
-        
+    GameState createGameState(TurnPhase phase, Player player, PlayerState state) {
         return new GameState(
             phase,
             player.getName(),
-            ImmutableList.copyOf(state.getHand()),
+            state.getHandView(),
             state.getActions(),
             state.getBuys(),
             state.getMoney(),
-            ImmutableMap.copyOf(cardStacks.getAllStacks()),
-            playerNames
+            cardStacks.getSnapshot(),
+            playerNames,
+            this
         );
     }
 
     /**
-     * Gets a decision from the player and validates it.
+     * Asks the player to choose one of the options, under the time limits if there are any.
+     *
+     * @return the index the player chose; not yet validated
+     * @throws PlayerViolationException if the player threw or overran its time limit
      */
-    private Decision getPlayerDecision(Player player, GameState gameState, List<Decision> options) 
+    private int chooseOption(IndexedPlayer player, GameState gameState, ImmutableList<Decision> options)
             throws PlayerViolationException {
-        ImmutableList<Decision> immutableOptions = ImmutableList.copyOf(options);
-        
-        Decision decision;
+        int index;
+        EngineEvents.DecisionEvent event = EngineEvents.beginDecision();
+        long start = startTimer();
         try {
-            decision = player.makeDecision(gameState, immutableOptions);
+            if (deadlines == null) {
+                index = player.chooseOption(gameState, options);
+            } else {
+                index = deadlines.choose(currentSeat, player, gameState, options);
+            }
+        } catch (PlayerViolationException e) {
+            throw e;
         } catch (Exception e) {
             throw new PlayerViolationException(
                 "Player " + player.getName() + " threw exception while making decision", e);
         }
-        
-        // Validate that the decision is one of the provided options
-        if (decision == null) {
-            throw new PlayerViolationException(
-                "Player " + player.getName() + " returned null decision");
+        recordDecision(event, start, options.size(), index);
+        return index;
+    }
+
+    /**
+     * Reports a decision to the metrics and flight recorder, if either is listening.
+     *
+     * @param start the decision's start, from {@link #startTimer()}
+     */
+    void recordDecision(EngineEvents.DecisionEvent event, long start, int optionCount, int index) {
+        if (metrics != null) {
+            metrics.decisionTimed(currentSeat, currentPhase, System.nanoTime() - start);
         }
-        
-        if (!options.contains(decision)) {
-            throw new PlayerViolationException(
-                "Player " + player.getName() + " chose invalid decision: " + decision);
+        EngineEvents.endDecision(event, playerNames.get(currentSeat), currentPhase, optionCount, index);
+    }
+
+    /**
+     * Reads the clock if metrics are being collected, so that untimed games never do.
+     */
+    long startTimer() {
+        return metrics == null ? 0L : System.nanoTime();
+    }
+
+    private void stopPhaseTimer(TurnPhase phase, long start) {
+        if (metrics != null) {
+            metrics.phaseTimed(currentSeat, phase, System.nanoTime() - start);
         }
-        
-        return decision;
+    }
+
+    /**
+     * Derives the seed of a turn's generator from the game seed (SplitMix64 finalizer).
+     */
+    private static long turnSeed(long seed, int turn) {
+        return SplitMix.mix64(seed + turn * SplitMix.GOLDEN_GAMMA);
+    }
+
+    private static long actionCardMask() {
+        long mask = 0;
+        for (int id = 0; id < CardRegistry.size(); id++) {
+            if (CardRegistry.get(id).getType() == CardType.ACTION) {
+                mask |= DecisionOptions.bit(id);
+            }
+        }
+        return mask;
     }
 
     /**
      * Calculates the final game results.
      */
-    private GameResult calculateResults() {
+    GameResult calculateResults() {
         List<PlayerResult> results = new ArrayList<>();
         
         for (Player player : players) {
@@ -295,6 +656,27 @@ public class EngineImpl implements Engine {
         // Sort by score (descending)
         results.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
         
-        return new GameResult(ImmutableList.copyOf(results));
+        return new GameResult(ImmutableList.copyOf(results), turns);
+    }
+
+    /**
+     * A seat known only by its name, for engines whose decisions are made outside them.
+     */
+    private static final class Seat implements Player {
+        private final String name;
+
+        Seat(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Decision makeDecision(GameState state, ImmutableList<Decision> options) {
+            throw new UnsupportedOperationException("Seat " + name + " decides outside the engine");
+        }
     }
 }
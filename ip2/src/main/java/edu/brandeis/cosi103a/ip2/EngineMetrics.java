@@ -0,0 +1,28 @@
+package edu.brandeis.cosi103a.ip2;
+
+/**
+ * Receives timings from a game as the engine plays it. Registered with
+ * {@link EngineImpl#setMetrics(EngineMetrics)}; when none is registered the engine
+ * does not read the clock at all.
+ *
+ * @see LatencyMetrics
+ */
+public interface EngineMetrics {
+    /**
+     * Called when a phase of a turn has finished.
+     *
+     * @param seat the index of the player whose turn it is in the engine's player list
+     * @param phase the phase that finished; {@link TurnPhase#CLEANUP} times the cleanup step
+     * @param nanos the time the phase took, including the decisions made in it
+     */
+    void phaseTimed(int seat, TurnPhase phase, long nanos);
+
+    /**
+     * Called when a player has chosen an option.
+     *
+     * @param seat the index of the deciding player in the engine's player list
+     * @param phase the phase the decision was made in
+     * @param nanos the time the player took to choose
+     */
+    void decisionTimed(int seat, TurnPhase phase, long nanos);
+}
@@ -4,12 +4,37 @@ package edu.brandeis.cosi103a.ip2;
  * Decision to gain a card (adding it directly to discard pile without spending money).
  */
 public class GainCardDecision extends Decision {
+    // Canonical instance for every registered card, indexed by card id
+    private static final GainCardDecision[] CANONICAL = new GainCardDecision[CardRegistry.size()];
+
+    static {
+        for (int id = 0; id < CANONICAL.length; id++) {
+            CANONICAL[id] = new GainCardDecision(CardRegistry.get(id));
+        }
+    }
+
     private final CardDefinition card;
 
     public GainCardDecision(CardDefinition card) {
         this.card = card;
     }
 
+    /**
+     * Gets the shared decision to gain the given card. Registered cards always map to
+     * the same instance; other cards get a new decision.
+     */
+    public static GainCardDecision of(CardDefinition card) {
+        int id = CardRegistry.idOf(card);
+        return id == CardDefinition.UNREGISTERED ? new GainCardDecision(card) : CANONICAL[id];
+    }
+
+    /**
+     * Gets the shared decision to gain the card with the given id.
+     */
+    public static GainCardDecision of(int cardId) {
+        return CANONICAL[cardId];
+    }
+
     public CardDefinition getCard() {
         return card;
     }
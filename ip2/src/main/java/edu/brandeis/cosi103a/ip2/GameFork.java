@@ -0,0 +1,517 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+
+/**
+ * A compact, forkable copy of a game in progress, for players that search ahead.
+ *
+ * The whole position - supply, every player's deck, hand, discard and played zones,
+ * the current player's resources and the phase cursor - lives in one int array of
+ * card counts indexed by {@link CardRegistry} id, so {@link #fork()} is a single array
+ * copy and {@link #copyFrom(GameFork)} reuses an existing fork without allocating.
+ * Decks are unordered counts, as in {@link CountingPlayerState}: each draw picks a
+ * random card from the remaining counts using the fork's own generator.
+ *
+ * A fork follows the same rules as {@link EngineImpl}: it offers the same option lists
+ * ({@link DecisionOptions}), skips the ACTION phase when no actions are left, ends the
+ * turn when no buys are left, and ends the game at the start of a turn once the
+ * Framework stack is empty. Forks are not thread-safe; give each thread its own.
+ */
+public final class GameFork {
+    private static final int CARDS = CardRegistry.size();
+    private static final int FRAMEWORK_ID = Cards.FRAMEWORK.getId();
+    private static final int[] POINTS = new int[CARDS];
+    private static final int[] MONEY_VALUES = new int[CARDS];
+
+    static {
+        for (int id = 0; id < CARDS; id++) {
+            POINTS[id] = CardRegistry.get(id).getPoints();
+            MONEY_VALUES[id] = CardRegistry.get(id).getMoneyValue();
+        }
+    }
+
+    // Phase cursor values: TurnPhase ordinals, or GAME_OVER once the game has ended
+    private static final int ACTION_PHASE = TurnPhase.ACTION.ordinal();
+    private static final int MONEY_PHASE = TurnPhase.MONEY.ordinal();
+    private static final int BUY_PHASE = TurnPhase.BUY.ordinal();
+    private static final int CLEANUP_PHASE = TurnPhase.CLEANUP.ordinal();
+    private static final int GAME_OVER = -1;
+    private static final TurnPhase[] PHASES = TurnPhase.values();
+
+    // Header slots
+    private static final int SEAT = 0;
+    private static final int PHASE = 1;
+    private static final int ACTIONS = 2;
+    private static final int BUYS = 3;
+    private static final int MONEY = 4;
+    private static final int TURN = 5;
+    private static final int SUPPLY = 6;
+
+    // Slots within a seat block: a count vector per zone, then the zone sizes
+    private static final int DECK = 0;
+    private static final int HAND = CARDS;
+    private static final int DISCARD = 2 * CARDS;
+    private static final int PLAYED = 3 * CARDS;
+    private static final int DECK_SIZE = 4 * CARDS;
+    private static final int HAND_SIZE = DECK_SIZE + 1;
+    private static final int DISCARD_SIZE = DECK_SIZE + 2;
+    private static final int PLAYED_SIZE = DECK_SIZE + 3;
+    private static final int SEAT_STRIDE = DECK_SIZE + 4;
+
+    private static final int FIRST_SEAT = SUPPLY + CARDS;
+    private static final int HAND_DRAW = 5;
+
+    private final int numPlayers;
+    private final int[] data;
+    private long random;  // SplitMix64 state; a plain long so that it is copied with the fork
+
+    /**
+     * Creates an empty fork for the given number of players, to be filled by
+     * {@link #copyFrom(GameFork)}.
+     */
+    public GameFork(int numPlayers) {
+        if (numPlayers < 1 || numPlayers > 4) {
+            throw new IllegalArgumentException("Number of players must be between 1 and 4");
+        }
+        this.numPlayers = numPlayers;
+        this.data = new int[FIRST_SEAT + numPlayers * SEAT_STRIDE];
+        this.data[PHASE] = GAME_OVER;
+    }
+
+    /**
+     * Captures the position of a live game. Used by {@link EngineImpl#fork()}.
+     *
+     * @param phase the phase of the decision being made, or null if no turn is in progress
+     * @throws IllegalStateException if a player holds a card that is not in the {@link CardRegistry}
+     */
+    static GameFork capture(CardStacks supply, PlayerState[] seats, int seat, TurnPhase phase,
+                            int turn, long seed) {
+        GameFork fork = new GameFork(seats.length);
+        int[] data = fork.data;
+        for (int id = 0; id < CARDS; id++) {
+            data[SUPPLY + id] = supply.getCount(id);
+        }
+        for (int s = 0; s < seats.length; s++) {
+            int base = fork.seatBase(s);
+            PlayerState state = seats[s];
+            data[base + DECK_SIZE] = addCounts(data, base + DECK, state.getDeck());
+            data[base + HAND_SIZE] = addCounts(data, base + HAND, state.getHand());
+            data[base + DISCARD_SIZE] = addCounts(data, base + DISCARD, state.getDiscard());
+            data[base + PLAYED_SIZE] = addCounts(data, base + PLAYED, state.getPlayed());
+        }
+        data[SEAT] = seat;
+        data[TURN] = turn;
+        fork.random = seed;
+        if (phase == null) {
+            // Between turns: the next decision is the start of this seat's turn
+            fork.startTurn();
+        } else {
+            PlayerState current = seats[seat];
+            data[PHASE] = phase.ordinal();
+            data[ACTIONS] = current.getActions();
+            data[BUYS] = current.getBuys();
+            data[MONEY] = current.getMoney();
+        }
+        return fork;
+    }
+
+    private static int addCounts(int[] data, int offset, Iterable<CardDefinition> cards) {
+        int size = 0;
+        for (CardDefinition card : cards) {
+            int id = CardRegistry.idOf(card);
+            if (id == CardDefinition.UNREGISTERED) {
+                throw new IllegalStateException("Cannot fork a game holding unknown card: " + card);
+            }
+            data[offset + id]++;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Creates an independent copy of this fork, including its random generator.
+     */
+    public GameFork fork() {
+        GameFork copy = new GameFork(numPlayers);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Overwrites this fork with the position of another, without allocating.
+     *
+     * @throws IllegalArgumentException if the other fork has a different number of players
+     */
+    public void copyFrom(GameFork other) {
+        if (other.numPlayers != numPlayers) {
+            throw new IllegalArgumentException("Cannot copy a " + other.numPlayers
+                + "-player fork into a " + numPlayers + "-player fork");
+        }
+        System.arraycopy(other.data, 0, data, 0, data.length);
+        random = other.random;
+    }
+
+    /**
+     * Reseeds the generator used for this fork's draws, e.g. to sample a different
+     * continuation from the same position.
+     */
+    public void setSeed(long seed) {
+        random = seed;
+    }
+
+    /**
+     * Resamples what the given player cannot see: every other player's hand is put back
+     * into their deck and the same number of cards is drawn again. Deck order is never
+     * stored, so together with {@link #setSeed(long)} this samples a fresh determinization
+     * of the hidden information.
+     */
+    public void determinize(int observerSeat) {
+        for (int seat = 0; seat < numPlayers; seat++) {
+            if (seat == observerSeat) {
+                continue;
+            }
+            int base = seatBase(seat);
+            int handSize = data[base + HAND_SIZE];
+            for (int id = 0; id < CARDS; id++) {
+                data[base + DECK + id] += data[base + HAND + id];
+                data[base + HAND + id] = 0;
+            }
+            data[base + DECK_SIZE] += handSize;
+            data[base + HAND_SIZE] = 0;
+            draw(base, handSize);
+        }
+    }
+
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Gets the seat (index in the player list) of the player to move.
+     */
+    public int getCurrentSeat() {
+        return data[SEAT];
+    }
+
+    /**
+     * Gets the phase of the next decision, or null if the game is over.
+     */
+    public TurnPhase getCurrentPhase() {
+        return data[PHASE] == GAME_OVER ? null : PHASES[data[PHASE]];
+    }
+
+    public boolean isGameOver() {
+        return data[PHASE] == GAME_OVER;
+    }
+
+    public int getActions() {
+        return data[ACTIONS];
+    }
+
+    public int getBuys() {
+        return data[BUYS];
+    }
+
+    public int getMoney() {
+        return data[MONEY];
+    }
+
+    /**
+     * Gets the number of turns started since the fork's game began.
+     */
+    public int getTurn() {
+        return data[TURN];
+    }
+
+    /**
+     * Gets the number of copies of a card left in the supply.
+     */
+    public int getSupplyCount(int cardId) {
+        return data[SUPPLY + cardId];
+    }
+
+    /**
+     * Gets the number of copies of a card in a player's hand.
+     */
+    public int getHandCount(int seat, int cardId) {
+        return data[seatBase(seat) + HAND + cardId];
+    }
+
+    public int getHandSize(int seat) {
+        return data[seatBase(seat) + HAND_SIZE];
+    }
+
+    /**
+     * Gets the number of copies of a card a player owns across all zones.
+     */
+    public int getOwnedCount(int seat, int cardId) {
+        int base = seatBase(seat);
+        return data[base + DECK + cardId] + data[base + HAND + cardId]
+            + data[base + DISCARD + cardId] + data[base + PLAYED + cardId];
+    }
+
+    /**
+     * Gets the number of cards a player owns across all zones.
+     */
+    public int getCardCount(int seat) {
+        int base = seatBase(seat);
+        return data[base + DECK_SIZE] + data[base + HAND_SIZE]
+            + data[base + DISCARD_SIZE] + data[base + PLAYED_SIZE];
+    }
+
+    /**
+     * Calculates a player's score, as {@link PlayerState#calculateScore()} would.
+     */
+    public int getScore(int seat) {
+        int score = 0;
+        for (int id = 0; id < CARDS; id++) {
+            score += POINTS[id] * getOwnedCount(seat, id);
+        }
+        return score;
+    }
+
+    /**
+     * Gets the bitmask (see {@link DecisionOptions#bit}) of the cards offered by the
+     * next decision. The options are these cards in registry order, then end phase.
+     * The mask is 0 once the game is over.
+     */
+    public long getOptionMask() {
+        int phase = data[PHASE];
+        if (phase == ACTION_PHASE) {
+            return handMask() & EngineImpl.ACTION_CARD_MASK;
+        } else if (phase == MONEY_PHASE) {
+            return handMask();
+        } else if (phase == BUY_PHASE) {
+            return supplyMask() & CardStacks.affordableMask(data[MONEY]);
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the number of options of the next decision, or 0 once the game is over.
+     */
+    public int getOptionCount() {
+        return isGameOver() ? 0 : Long.bitCount(getOptionMask()) + 1;
+    }
+
+    /**
+     * Gets the options of the next decision: the same shared list the engine would offer.
+     *
+     * @throws IllegalStateException if the game is over
+     */
+    public ImmutableList<Decision> getOptions() {
+        checkNotOver();
+        long mask = getOptionMask();
+        return data[PHASE] == BUY_PHASE ? DecisionOptions.buy(mask) : DecisionOptions.play(mask);
+    }
+
+    /**
+     * Applies one of the options of the next decision, by its index in {@link #getOptions()}.
+     *
+     * @throws IllegalStateException if the game is over
+     * @throws IndexOutOfBoundsException if the index is not an option
+     */
+    public void applyOption(int index) {
+        checkNotOver();
+        long mask = getOptionMask();
+        int count = Long.bitCount(mask);
+        if (index < 0 || index > count) {
+            throw new IndexOutOfBoundsException("Option " + index + " of " + (count + 1));
+        }
+        if (index == count) {
+            endPhase();
+            return;
+        }
+        for (int i = 0; i < index; i++) {
+            mask &= mask - 1;
+        }
+        applyCard(Long.numberOfTrailingZeros(mask));
+    }
+
+    /**
+     * Applies a decision, which must be one of the options of the next decision.
+     *
+     * @throws IllegalStateException if the game is over
+     * @throws IllegalArgumentException if the decision is not an option
+     */
+    public void apply(Decision decision) {
+        checkNotOver();
+        if (decision instanceof EndPhaseDecision) {
+            endPhase();
+            return;
+        }
+        CardDefinition card;
+        if (decision instanceof PlayCardDecision && data[PHASE] != BUY_PHASE) {
+            card = ((PlayCardDecision) decision).getCard();
+        } else if (decision instanceof BuyCardDecision && data[PHASE] == BUY_PHASE) {
+            card = ((BuyCardDecision) decision).getCard();
+        } else {
+            throw new IllegalArgumentException("Not an option in " + getCurrentPhase() + " phase: " + decision);
+        }
+        int id = CardRegistry.idOf(card);
+        if (id == CardDefinition.UNREGISTERED || (getOptionMask() & DecisionOptions.bit(id)) == 0) {
+            throw new IllegalArgumentException("Not an option in " + getCurrentPhase() + " phase: " + decision);
+        }
+        applyCard(id);
+    }
+
+    private void applyCard(int id) {
+        int base = seatBase(data[SEAT]);
+        if (data[PHASE] == BUY_PHASE) {
+            data[SUPPLY + id]--;
+            data[base + DISCARD + id]++;
+            data[base + DISCARD_SIZE]++;
+            data[MONEY] -= CardRegistry.get(id).getCost();
+            data[BUYS]--;
+        } else {
+            data[base + HAND + id]--;
+            data[base + HAND_SIZE]--;
+            data[base + PLAYED + id]++;
+            data[base + PLAYED_SIZE]++;
+            if (data[PHASE] == ACTION_PHASE) {
+                CardDefinition card = CardRegistry.get(id);
+                data[ACTIONS] += card.getExtraActions() - 1;
+                data[BUYS] += card.getExtraBuys();
+                data[MONEY] += card.getExtraMoney();
+                draw(base, card.getExtraCards());
+            } else {
+                data[MONEY] += MONEY_VALUES[id];
+            }
+        }
+        advance();
+    }
+
+    private void endPhase() {
+        data[PHASE]++;
+        advance();
+    }
+
+    /**
+     * Moves past phases that offer no decision: ACTION without actions, BUY without buys,
+     * and cleanup.
+     */
+    private void advance() {
+        if (data[PHASE] == ACTION_PHASE && data[ACTIONS] <= 0) {
+            data[PHASE] = MONEY_PHASE;
+        }
+        if (data[PHASE] == BUY_PHASE && data[BUYS] <= 0) {
+            data[PHASE] = CLEANUP_PHASE;
+        }
+        if (data[PHASE] == CLEANUP_PHASE) {
+            cleanup(seatBase(data[SEAT]));
+            data[SEAT] = (data[SEAT] + 1) % numPlayers;
+            startTurn();
+        }
+    }
+
+    private void startTurn() {
+        if (data[SUPPLY + FRAMEWORK_ID] == 0) {
+            data[PHASE] = GAME_OVER;
+            return;
+        }
+        data[PHASE] = ACTION_PHASE;
+        data[ACTIONS] = 1;
+        data[BUYS] = 1;
+        data[MONEY] = 0;
+        data[TURN]++;
+        advance();
+    }
+
+    private void cleanup(int base) {
+        for (int id = 0; id < CARDS; id++) {
+            data[base + DISCARD + id] += data[base + HAND + id] + data[base + PLAYED + id];
+            data[base + HAND + id] = 0;
+            data[base + PLAYED + id] = 0;
+        }
+        data[base + DISCARD_SIZE] += data[base + HAND_SIZE] + data[base + PLAYED_SIZE];
+        data[base + HAND_SIZE] = 0;
+        data[base + PLAYED_SIZE] = 0;
+        draw(base, HAND_DRAW);
+    }
+
+    /**
+     * Draws cards into a player's hand, moving the discard pile into the deck when it runs out.
+     */
+    private void draw(int base, int count) {
+        for (int i = 0; i < count; i++) {
+            if (data[base + DECK_SIZE] == 0) {
+                if (data[base + DISCARD_SIZE] == 0) {
+                    return;
+                }
+                for (int id = 0; id < CARDS; id++) {
+                    data[base + DECK + id] += data[base + DISCARD + id];
+                    data[base + DISCARD + id] = 0;
+                }
+                data[base + DECK_SIZE] = data[base + DISCARD_SIZE];
+                data[base + DISCARD_SIZE] = 0;
+            }
+            int r = nextInt(data[base + DECK_SIZE]);
+            int id = 0;
+            while (r >= data[base + DECK + id]) {
+                r -= data[base + DECK + id];
+                id++;
+            }
+            data[base + DECK + id]--;
+            data[base + DECK_SIZE]--;
+            data[base + HAND + id]++;
+            data[base + HAND_SIZE]++;
+        }
+    }
+
+    private long handMask() {
+        int offset = seatBase(data[SEAT]) + HAND;
+        long mask = 0;
+        for (int id = 0; id < CARDS; id++) {
+            if (data[offset + id] > 0) {
+                mask |= DecisionOptions.bit(id);
+            }
+        }
+        return mask;
+    }
+
+    private long supplyMask() {
+        long mask = 0;
+        for (int id = 0; id < CARDS; id++) {
+            if (data[SUPPLY + id] > 0) {
+                mask |= DecisionOptions.bit(id);
+            }
+        }
+        return mask;
+    }
+
+    private int seatBase(int seat) {
+        return FIRST_SEAT + seat * SEAT_STRIDE;
+    }
+
+    private void checkNotOver() {
+        if (data[PHASE] == GAME_OVER) {
+            throw new IllegalStateException("The game is over");
+        }
+    }
+
+    /**
+     * Returns a uniformly distributed int in [0, bound), from a SplitMix64 step.
+     */
+    private int nextInt(int bound) {
+        long z = SplitMix.mix64(random += SplitMix.GOLDEN_GAMMA);
+        return (int) (((z >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Forks are equal if they hold the same position; their random generators may differ.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameFork)) return false;
+        GameFork other = (GameFork) o;
+        return Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(data);
+    }
+}
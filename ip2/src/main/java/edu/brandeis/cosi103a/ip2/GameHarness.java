@@ -23,12 +23,12 @@ public class GameHarness {
             System.out.print("Enter type for player " + (i + 1) + " (human/AI): ");
             String playerType = scanner.nextLine().trim().toLowerCase();
             if (playerType.equals("human")) {
-                players.add(new Player("Player " + (i + 1)));
+                players.add(new HumanPlayer());
             } else if (playerType.equals("ai")) {
-                players.add(new Player("Player " + (i + 1)));
+                players.add(new SimplePlayer("Player " + (i + 1)));
             } else {
                 System.out.println("Invalid player type. Defaulting to human.");
-                players.add(new Player("Player " + (i + 1)));
+                players.add(new HumanPlayer());
             }
         }
 
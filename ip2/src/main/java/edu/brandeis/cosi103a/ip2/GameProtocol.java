@@ -0,0 +1,147 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The line protocol between a {@link GameServer} and its players. Every message is one
+ * line of space-separated fields:
+ *
+ * <pre>
+ * client: HELLO name                  join the lobby; names are 1-32 of [A-Za-z0-9_.-]
+ * server: WELCOME                     admitted, waiting for a game
+ * server: BUSY                        not admitted; the server closes the connection
+ * server: START seat name,name,...    a game has started with these players, in seat order
+ * server: DECIDE phase actions buys money hand supply options
+ * client: CHOOSE index                the index of the chosen option
+ * server: RESULT name:score,...       the game is over, best score first; the server closes
+ * server: ABORTED reason...           the game ended with a violation; the server closes
+ * </pre>
+ *
+ * In DECIDE, the hand lists card ids ("-" if empty), the supply lists the count of every
+ * card by id, and the options are PLAY ("P" and a card id), BUY ("B" and a card id) or
+ * END ("E"), all comma-separated.
+ */
+final class GameProtocol {
+    static final String HELLO = "HELLO";
+    static final String WELCOME = "WELCOME";
+    static final String BUSY = "BUSY";
+    static final String START = "START";
+    static final String DECIDE = "DECIDE";
+    static final String CHOOSE = "CHOOSE";
+    static final String RESULT = "RESULT";
+    static final String ABORTED = "ABORTED";
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_.-]{1,32}");
+
+    private GameProtocol() {
+        // Utility class, prevent instantiation
+    }
+
+    static boolean isValidName(String name) {
+        return NAME.matcher(name).matches();
+    }
+
+    static String start(int seat, ImmutableList<String> names) {
+        return START + " " + seat + " " + String.join(",", names);
+    }
+
+    static String decide(GameState state, ImmutableList<Decision> options) {
+        StringBuilder line = new StringBuilder(DECIDE).append(' ')
+            .append(state.getCurrentPhase()).append(' ')
+            .append(state.getCurrentPlayerActions()).append(' ')
+            .append(state.getCurrentPlayerBuys()).append(' ')
+            .append(state.getCurrentPlayerMoney()).append(' ');
+        if (state.getCurrentPlayerHand().isEmpty()) {
+            line.append('-');
+        }
+        for (int i = 0; i < state.getCurrentPlayerHand().size(); i++) {
+            line.append(i == 0 ? "" : ",").append(CardRegistry.idOf(state.getCurrentPlayerHand().get(i)));
+        }
+        line.append(' ');
+        Map<CardDefinition, Integer> supply = state.getAvailableCards();
+        for (int id = 0; id < CardRegistry.size(); id++) {
+            line.append(id == 0 ? "" : ",").append(supply.getOrDefault(CardRegistry.get(id), 0));
+        }
+        line.append(' ');
+        for (int i = 0; i < options.size(); i++) {
+            line.append(i == 0 ? "" : ",");
+            Decision option = options.get(i);
+            if (option instanceof PlayCardDecision) {
+                line.append('P').append(CardRegistry.idOf(((PlayCardDecision) option).getCard()));
+            } else if (option instanceof BuyCardDecision) {
+                line.append('B').append(CardRegistry.idOf(((BuyCardDecision) option).getCard()));
+            } else {
+                line.append('E');
+            }
+        }
+        return line.toString();
+    }
+
+    static String result(GameResult result) {
+        StringBuilder line = new StringBuilder(RESULT).append(' ');
+        for (int i = 0; i < result.getPlayerResults().size(); i++) {
+            PlayerResult player = result.getPlayerResults().get(i);
+            line.append(i == 0 ? "" : ",").append(player.getName()).append(':').append(player.getScore());
+        }
+        return line.toString();
+    }
+
+    /**
+     * A DECIDE message, decoded.
+     */
+    static final class DecisionRequest {
+        final GameState state;
+        final ImmutableList<Decision> options;
+
+        DecisionRequest(GameState state, ImmutableList<Decision> options) {
+            this.state = state;
+            this.options = options;
+        }
+    }
+
+    /**
+     * Decodes the fields of a DECIDE message, after the message name.
+     *
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    static DecisionRequest parseDecide(String[] fields, String playerName, ImmutableList<String> playerNames) {
+        if (fields.length != 8) {
+            throw new IllegalArgumentException("Expected 7 fields in DECIDE, got " + (fields.length - 1));
+        }
+        try {
+            TurnPhase phase = TurnPhase.valueOf(fields[1]);
+            ImmutableList.Builder<CardDefinition> hand = ImmutableList.builder();
+            if (!fields[5].equals("-")) {
+                for (String id : fields[5].split(",")) {
+                    hand.add(CardRegistry.get(Integer.parseInt(id)));
+                }
+            }
+            String[] counts = fields[6].split(",");
+            ImmutableMap.Builder<CardDefinition, Integer> supply = ImmutableMap.builder();
+            for (int id = 0; id < counts.length; id++) {
+                supply.put(CardRegistry.get(id), Integer.parseInt(counts[id]));
+            }
+            ImmutableList.Builder<Decision> options = ImmutableList.builder();
+            for (String option : fields[7].split(",")) {
+                if (option.equals("E")) {
+                    options.add(EndPhaseDecision.getInstance());
+                } else if (option.charAt(0) == 'P') {
+                    options.add(PlayCardDecision.of(Integer.parseInt(option.substring(1))));
+                } else if (option.charAt(0) == 'B') {
+                    options.add(BuyCardDecision.of(Integer.parseInt(option.substring(1))));
+                } else {
+                    throw new IllegalArgumentException("Unknown option " + option);
+                }
+            }
+            GameState state = new GameState(phase, playerName, hand.build(), Integer.parseInt(fields[2]),
+                Integer.parseInt(fields[3]), Integer.parseInt(fields[4]), supply.build(), playerNames);
+            return new DecisionRequest(state, options.build());
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Unknown card in DECIDE", e);
+        }
+    }
+}
@@ -8,15 +8,32 @@ import com.google.common.collect.ImmutableList;
  */
 public class GameResult {
     private final ImmutableList<PlayerResult> playerResults;
+    private final int turns;
 
     public GameResult(ImmutableList<PlayerResult> playerResults) {
+        this(playerResults, 0);
+    }
+
+    /**
+     * @param playerResults the results of every player, sorted by score
+     * @param turns the number of turns played across all players, or 0 if unknown
+     */
+    public GameResult(ImmutableList<PlayerResult> playerResults, int turns) {
         this.playerResults = playerResults;
+        this.turns = turns;
     }
 
     public ImmutableList<PlayerResult> getPlayerResults() {
         return playerResults;
     }
 
+    /**
+     * Gets the number of turns played across all players, or 0 if unknown.
+     */
+    public int getTurns() {
+        return turns;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("Game Results:\n");
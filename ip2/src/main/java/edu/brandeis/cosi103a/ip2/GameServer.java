@@ -0,0 +1,292 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts games for players connecting over TCP, speaking the {@link GameProtocol}.
+ *
+ * Players wait in a lobby until there are enough for a game. Games run on an
+ * {@link AsyncEngine}: a game waiting on a remote player holds no thread, and all socket
+ * I/O runs on one selector thread, so the number of concurrent games is bounded by
+ * memory and CPU rather than threads.
+ *
+ * Admission control caps the connections at enough for {@code maxGames} full games;
+ * connections beyond that are told BUSY and closed. A player that does not answer within
+ * the decision timeout, disconnects or chooses an invalid option forfeits, and the game
+ * is ABORTED for everyone in it.
+ */
+public final class GameServer implements AutoCloseable {
+    private final int playersPerGame;
+    private final int maxConnections;
+    private final Duration decisionTimeout;
+    private final ExecutorService carriers;
+    private final AsyncEngine engine;
+    private final LineSelector selector;
+    private ServerSocketChannel server;
+
+    // Touched only on the selector thread
+    private final List<Client> lobby = new ArrayList<>();
+    private final LatencyHistogram decisionLatency = new LatencyHistogram();
+    private int connections;
+
+    private final AtomicInteger activeGames = new AtomicInteger();
+    private final AtomicInteger peakGames = new AtomicInteger();
+    private final AtomicLong completedGames = new AtomicLong();
+    private final AtomicLong abortedGames = new AtomicLong();
+    private final AtomicLong rejectedConnections = new AtomicLong();
+
+    /**
+     * @param playersPerGame the number of players in each game (1 to 4)
+     * @param maxGames the most games that may be played or waited for at once
+     * @param decisionTimeout how long a player may take to answer a DECIDE
+     * @param carrierThreads the number of threads that run games
+     * @throws IOException if the selector cannot be opened
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public GameServer(int playersPerGame, int maxGames, Duration decisionTimeout, int carrierThreads) throws IOException {
+        if (playersPerGame < 1 || playersPerGame > 4) {
+            throw new IllegalArgumentException("Players per game must be between 1 and 4");
+        }
+        if (maxGames < 1 || carrierThreads < 1) {
+            throw new IllegalArgumentException("Max games and carrier threads must be at least 1");
+        }
+        this.playersPerGame = playersPerGame;
+        this.maxConnections = maxGames * playersPerGame;
+        this.decisionTimeout = decisionTimeout;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.carriers = Executors.newFixedThreadPool(carrierThreads, task -> {
+            Thread thread = new Thread(task, "game-carrier-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.engine = new AsyncEngine(carriers);
+        this.selector = new LineSelector("game-server-io");
+    }
+
+    /**
+     * Starts accepting players on a loopback port.
+     *
+     * @param port the port, or 0 for any free port
+     * @return the address the server listens on
+     * @throws IOException if the port cannot be bound or listened on
+     */
+    public InetSocketAddress start(int port) throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+        try {
+            selector.listen(server, this::accept).join();
+        } catch (CompletionException e) {
+            server.close();
+            throw (IOException) e.getCause();
+        }
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    public int getActiveGames() {
+        return activeGames.get();
+    }
+
+    /**
+     * Gets the most games that were in progress at once.
+     */
+    public int getPeakGames() {
+        return peakGames.get();
+    }
+
+    public long getCompletedGames() {
+        return completedGames.get();
+    }
+
+    public long getAbortedGames() {
+        return abortedGames.get();
+    }
+
+    /**
+     * Gets the number of connections turned away as BUSY.
+     */
+    public long getRejectedConnections() {
+        return rejectedConnections.get();
+    }
+
+    /**
+     * Gets the time from sending each DECIDE to receiving its CHOOSE, over all games.
+     */
+    public LatencyHistogram getDecisionLatency() {
+        CompletableFuture<LatencyHistogram> copy = new CompletableFuture<>();
+        selector.execute(() -> {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.add(decisionLatency);
+            copy.complete(histogram);
+        });
+        return copy.join();
+    }
+
+    private void accept(LineConnection connection) {
+        if (connections >= maxConnections) {
+            rejectedConnections.incrementAndGet();
+            connection.sendAndClose(GameProtocol.BUSY);
+            return;
+        }
+        connections++;
+        connection.setHandler(new Client(connection));
+    }
+
+    /**
+     * Starts a game between the players at the front of the lobby.
+     */
+    private void startGame() {
+        List<Client> players = new ArrayList<>(lobby.subList(0, playersPerGame));
+        lobby.subList(0, playersPerGame).clear();
+        ImmutableList<String> names = players.stream().map(Client::getName).collect(ImmutableList.toImmutableList());
+        for (int seat = 0; seat < players.size(); seat++) {
+            players.get(seat).connection.send(GameProtocol.start(seat, names));
+        }
+        peakGames.accumulateAndGet(activeGames.incrementAndGet(), Math::max);
+        engine.play(new ArrayList<AsyncPlayer>(players)).whenComplete((result, failure) -> {
+            activeGames.decrementAndGet();
+            String last;
+            if (failure == null) {
+                completedGames.incrementAndGet();
+                last = GameProtocol.result(result);
+            } else {
+                abortedGames.incrementAndGet();
+                last = GameProtocol.ABORTED + " " + String.valueOf(failure.getMessage()).replace('\n', ' ');
+            }
+            for (Client player : players) {
+                player.connection.sendAndClose(last);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        selector.close();
+        carriers.shutdownNow();
+    }
+
+    /**
+     * A connected player, from HELLO to the end of its game.
+     */
+    private final class Client implements LineConnection.Handler, AsyncPlayer {
+        private final LineConnection connection;
+        private String name;  // Null until HELLO
+        private volatile Pending pending;  // The decision awaiting CHOOSE, if any
+
+        Client(LineConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void lineReceived(LineConnection connection, String line) {
+            String[] fields = line.split(" ");
+            if (name == null) {
+                if (fields.length != 2 || !fields[0].equals(GameProtocol.HELLO) || !GameProtocol.isValidName(fields[1])) {
+                    connection.sendAndClose(GameProtocol.ABORTED + " expected HELLO name");
+                    return;
+                }
+                name = fields[1];
+                connection.send(GameProtocol.WELCOME);
+                lobby.add(this);
+                if (lobby.size() >= playersPerGame) {
+                    startGame();
+                }
+                return;
+            }
+
+            Pending decision = pending;
+            if (decision == null || fields.length != 2 || !fields[0].equals(GameProtocol.CHOOSE)) {
+                connection.sendAndClose(GameProtocol.ABORTED + " unexpected " + fields[0]);
+                return;
+            }
+            pending = null;
+            decisionLatency.record(System.nanoTime() - decision.sent);
+            int index;
+            try {
+                index = Integer.parseInt(fields[1]);
+            } catch (NumberFormatException e) {
+                index = -1;
+            }
+            // An index out of range becomes a decision that is not an option, which forfeits
+            decision.future.complete(index >= 0 && index < decision.options.size() ? decision.options.get(index) : null);
+        }
+
+        @Override
+        public void closed(LineConnection connection) {
+            connections--;
+            lobby.remove(this);
+            Pending decision = pending;
+            if (decision != null) {
+                decision.future.completeExceptionally(new IOException("Player " + name + " disconnected"));
+            }
+        }
+
+        @Override
+        public CompletableFuture<Decision> makeDecision(GameState state, ImmutableList<Decision> options) {
+            Pending decision = new Pending(options);
+            pending = decision;
+            connection.send(GameProtocol.decide(state, options));
+            if (connection.isClosed()) {
+                decision.future.completeExceptionally(new IOException("Player " + name + " disconnected"));
+            }
+            return decision.future.orTimeout(decisionTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * A DECIDE sent to a player.
+     */
+    private static final class Pending {
+        private final ImmutableList<Decision> options;
+        private final CompletableFuture<Decision> future = new CompletableFuture<>();
+        private final long sent = System.nanoTime();
+
+        Pending(ImmutableList<Decision> options) {
+            this.options = options;
+        }
+    }
+
+    /**
+     * Runs a server until the process is killed, reporting its load every few seconds.
+     *
+     * Usage: GameServer [port] [players per game] [max games] [carrier threads]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7103;
+        int playersPerGame = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int maxGames = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        try (GameServer server = new GameServer(playersPerGame, maxGames, Duration.ofSeconds(10), threads)) {
+            System.out.println("Listening on " + server.start(port));
+            while (true) {
+                Thread.sleep(5000);
+                System.out.printf("active %d (peak %d), completed %d, aborted %d, rejected %d, decisions: %s%n",
+                    server.getActiveGames(), server.getPeakGames(), server.getCompletedGames(),
+                    server.getAbortedGames(), server.getRejectedConnections(), server.getDecisionLatency());
+            }
+        }
+    }
+}
@@ -5,7 +5,8 @@ import com.google.common.collect.ImmutableMap;
 
 /**
  * Represents the current state of the game visible to players.
- * This is an immutable snapshot of the game state.
+ * The values are an immutable snapshot of the game state. A state built by the engine
+ * can also {@link #fork()} the game, but only while its decision is awaited.
  */
 public class GameState {
     private final TurnPhase currentPhase;
@@ -14,8 +15,11 @@ public class GameState {
     private final int currentPlayerActions;
     private final int currentPlayerBuys;
     private final int currentPlayerMoney;
-    private final ImmutableMap<CardDefinition, Integer> availableCards;
+    private final ImmutableMap<CardDefinition, Integer> availableCards;  // Null if backed by a snapshot
+    private final SupplySnapshot supply;                               // Null if backed by a map
     private final ImmutableList<String> playerNames;
+    private final EngineImpl engine;                                   // Null if not created by an engine
+    private boolean detached;                                          // Guarded by this
 
     public GameState(TurnPhase currentPhase, 
                     String currentPlayerName,
@@ -32,7 +36,35 @@ public class GameState {
         this.currentPlayerBuys = currentPlayerBuys;
         this.currentPlayerMoney = currentPlayerMoney;
         this.availableCards = availableCards;
+        this.supply = null;
         this.playerNames = playerNames;
+        this.engine = null;
+    }
+
+    /**
+     * Creates a game state whose supply is backed by a shared snapshot of the stack counts.
+     * The map view is only built if a player asks for it. The state can be forked from
+     * the engine that created it.
+     */
+    GameState(TurnPhase currentPhase,
+              String currentPlayerName,
+              ImmutableList<CardDefinition> currentPlayerHand,
+              int currentPlayerActions,
+              int currentPlayerBuys,
+              int currentPlayerMoney,
+              SupplySnapshot supply,
+              ImmutableList<String> playerNames,
+              EngineImpl engine) {
+        this.currentPhase = currentPhase;
+        this.currentPlayerName = currentPlayerName;
+        this.currentPlayerHand = currentPlayerHand;
+        this.currentPlayerActions = currentPlayerActions;
+        this.currentPlayerBuys = currentPlayerBuys;
+        this.currentPlayerMoney = currentPlayerMoney;
+        this.availableCards = null;
+        this.supply = supply;
+        this.playerNames = playerNames;
+        this.engine = engine;
     }
 
     public TurnPhase getCurrentPhase() {
@@ -60,10 +92,53 @@ public class GameState {
     }
 
     public ImmutableMap<CardDefinition, Integer> getAvailableCards() {
-        return availableCards;
+        return supply != null ? supply.asMap() : availableCards;
+    }
+
+    /**
+     * Gets the number of copies of a card left in the supply, without building the map view.
+     */
+    public int getAvailableCount(CardDefinition card) {
+        if (supply != null) {
+            int id = CardRegistry.idOf(card);
+            return id == CardDefinition.UNREGISTERED ? 0 : supply.getCount(id);
+        }
+        return availableCards.getOrDefault(card, 0);
     }
 
     public ImmutableList<String> getPlayerNames() {
         return playerNames;
     }
+
+    /**
+     * Captures the game this state belongs to as a {@link GameFork}, for simulating ahead.
+     * The engine detaches the state once the decision on it is resolved, so the fork is
+     * always of the position the state was made for.
+     *
+     * The fork only knows what the deciding player can see: every other player's hand is
+     * resampled from their hand and deck (see {@link GameFork#determinize(int)}).
+     *
+     * @throws UnsupportedOperationException if this state was not created by an engine
+     * @throws IllegalStateException if the decision on this state is over: it was made, or
+     *         the player overran its {@link TimeLimits}
+     */
+    public synchronized GameFork fork() {
+        if (engine == null) {
+            throw new UnsupportedOperationException("This game state cannot be forked");
+        }
+        if (detached) {
+            throw new IllegalStateException("The decision on this game state is over");
+        }
+        GameFork fork = engine.fork();
+        fork.determinize(fork.getCurrentSeat());
+        return fork;
+    }
+
+    /**
+     * Stops this state from forking the engine, which is about to move on from the
+     * decision on it. Waits for a fork in progress on another thread.
+     */
+    synchronized void detach() {
+        detached = true;
+    }
 }
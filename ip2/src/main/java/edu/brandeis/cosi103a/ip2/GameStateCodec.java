@@ -0,0 +1,408 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A compact binary encoding of the {@link GameState} and options a remote player decides
+ * on, and of the {@link Decision} it sends back.
+ *
+ * A state message starts with a flags byte saying which fields follow, in this order:
+ *
+ * <pre>
+ * PHASE      phase ordinal
+ * RESOURCES  actions, buys, money
+ * HAND       card count, then card ids
+ * SUPPLY     a bit mask of card ids, then the supply count of each id in the mask
+ * OPTIONS    option count, then each option as a decision (see below)
+ * PLAYER     the current player's name
+ * NAMES      name count, then the names in seat order
+ * </pre>
+ *
+ * Numbers are unsigned varints (7 bits a byte, low bits first); the supply mask is a long
+ * varint, so every card the {@link CardRegistry} can hold has a bit. Names are a varint
+ * byte length and UTF-8. A decision is one varint: its card id shifted left by two, or'ed
+ * with its kind (end phase, play, buy or gain).
+ *
+ * In full mode every message carries every field. In delta mode an encoder only writes
+ * the fields that changed since its last message, and the supply mask only names the
+ * stacks that changed, so the decoder at the other end must see every message in order.
+ * Within a phase most messages are then just the resources, hand and options.
+ */
+final class GameStateCodec {
+    static final int PHASE = 1;
+    static final int RESOURCES = 1 << 1;
+    static final int HAND = 1 << 2;
+    static final int SUPPLY = 1 << 3;
+    static final int OPTIONS = 1 << 4;
+    static final int PLAYER = 1 << 5;
+    static final int NAMES = 1 << 6;
+    static final int ALL = (1 << 7) - 1;
+
+    // Bytes in a varint of 64 bits
+    private static final int MAX_VARLONG_BYTES = 10;
+
+    private static final int END = 0;
+    private static final int PLAY = 1;
+    private static final int BUY = 2;
+    private static final int GAIN = 3;
+
+    private static final TurnPhase[] PHASES = TurnPhase.values();
+
+    private GameStateCodec() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Encodes state messages for one player.
+     */
+    static final class Encoder {
+        private final boolean delta;
+        private final int[] supply = new int[CardRegistry.size()];
+        private boolean started;
+        private TurnPhase phase;
+        private int actions;
+        private int buys;
+        private int money;
+        private ImmutableList<CardDefinition> hand;
+        private ImmutableList<Decision> options;
+        private String player;
+        private ImmutableList<String> names;
+
+        /**
+         * @param delta whether to write only the fields that changed since the last message
+         */
+        Encoder(boolean delta) {
+            this.delta = delta;
+        }
+
+        /**
+         * Makes the next message a full one, for a decoder that is starting over.
+         */
+        void reset() {
+            started = false;
+        }
+
+        /**
+         * Writes a state message.
+         *
+         * @throws java.nio.BufferOverflowException if the message does not fit; the encoder
+         *     is left as it was, so the message can be written again to a larger buffer
+         * @throws IllegalArgumentException if the hand or options hold an unregistered card
+         */
+        void encode(GameState state, ImmutableList<Decision> options, ByteBuffer out) {
+            int flags = delta && started ? changes(state, options) : ALL;
+            out.put((byte) flags);
+            if ((flags & PHASE) != 0) {
+                out.put((byte) state.getCurrentPhase().ordinal());
+            }
+            if ((flags & RESOURCES) != 0) {
+                putVarint(out, state.getCurrentPlayerActions());
+                putVarint(out, state.getCurrentPlayerBuys());
+                putVarint(out, state.getCurrentPlayerMoney());
+            }
+            if ((flags & HAND) != 0) {
+                ImmutableList<CardDefinition> cards = state.getCurrentPlayerHand();
+                putVarint(out, cards.size());
+                for (int i = 0; i < cards.size(); i++) {
+                    putVarint(out, idOf(cards.get(i)));
+                }
+            }
+            if ((flags & SUPPLY) != 0) {
+                putSupply(state, flags == ALL, out);
+            }
+            if ((flags & OPTIONS) != 0) {
+                putVarint(out, options.size());
+                for (int i = 0; i < options.size(); i++) {
+                    putDecision(out, options.get(i));
+                }
+            }
+            if ((flags & PLAYER) != 0) {
+                putString(out, state.getCurrentPlayerName());
+            }
+            if ((flags & NAMES) != 0) {
+                ImmutableList<String> playerNames = state.getPlayerNames();
+                putVarint(out, playerNames.size());
+                for (int i = 0; i < playerNames.size(); i++) {
+                    putString(out, playerNames.get(i));
+                }
+            }
+            remember(state, options);
+        }
+
+        /**
+         * Finds the fields that differ from the last message. The engine shares the hand,
+         * options and name lists between states while they are unchanged, so those are
+         * compared by identity first.
+         */
+        private int changes(GameState state, ImmutableList<Decision> options) {
+            int flags = 0;
+            if (state.getCurrentPhase() != phase) {
+                flags |= PHASE;
+            }
+            if (state.getCurrentPlayerActions() != actions || state.getCurrentPlayerBuys() != buys
+                    || state.getCurrentPlayerMoney() != money) {
+                flags |= RESOURCES;
+            }
+            if (state.getCurrentPlayerHand() != hand && !state.getCurrentPlayerHand().equals(hand)) {
+                flags |= HAND;
+            }
+            for (int id = 0; id < supply.length; id++) {
+                if (state.getAvailableCount(CardRegistry.get(id)) != supply[id]) {
+                    flags |= SUPPLY;
+                    break;
+                }
+            }
+            if (options != this.options && !options.equals(this.options)) {
+                flags |= OPTIONS;
+            }
+            if (!state.getCurrentPlayerName().equals(player)) {
+                flags |= PLAYER;
+            }
+            if (state.getPlayerNames() != names && !state.getPlayerNames().equals(names)) {
+                flags |= NAMES;
+            }
+            return flags;
+        }
+
+        private void putSupply(GameState state, boolean full, ByteBuffer out) {
+            long mask = 0;
+            for (int id = 0; id < supply.length; id++) {
+                if (full || state.getAvailableCount(CardRegistry.get(id)) != supply[id]) {
+                    mask |= 1L << id;
+                }
+            }
+            putVarlong(out, mask);
+            for (int id = 0; id < supply.length; id++) {
+                if ((mask & (1L << id)) != 0) {
+                    putVarint(out, state.getAvailableCount(CardRegistry.get(id)));
+                }
+            }
+        }
+
+        private void remember(GameState state, ImmutableList<Decision> options) {
+            started = true;
+            phase = state.getCurrentPhase();
+            actions = state.getCurrentPlayerActions();
+            buys = state.getCurrentPlayerBuys();
+            money = state.getCurrentPlayerMoney();
+            hand = state.getCurrentPlayerHand();
+            for (int id = 0; id < supply.length; id++) {
+                supply[id] = state.getAvailableCount(CardRegistry.get(id));
+            }
+            this.options = options;
+            player = state.getCurrentPlayerName();
+            names = state.getPlayerNames();
+        }
+    }
+
+    /**
+     * Decodes the state messages of one {@link Encoder}, in either mode.
+     */
+    static final class Decoder {
+        private int[] supply = new int[CardRegistry.size()];
+        private int received;  // The fields seen since the last reset
+        private TurnPhase phase;
+        private int actions;
+        private int buys;
+        private int money;
+        private ImmutableList<CardDefinition> hand;
+        private SupplySnapshot snapshot;
+        private ImmutableList<Decision> options;
+        private String player;
+        private ImmutableList<String> names;
+
+        /**
+         * Forgets the previous messages, for an encoder that has been reset.
+         */
+        void reset() {
+            received = 0;
+        }
+
+        /**
+         * Reads a state message and returns the state, with its options.
+         *
+         * @throws IllegalArgumentException if the message is malformed, or is a delta
+         *     with fields this decoder has not seen yet
+         */
+        GameProtocol.DecisionRequest decode(ByteBuffer in) {
+            try {
+                int flags = in.get() & 0xFF;
+                if ((flags & ~ALL) != 0) {
+                    throw new IllegalArgumentException("Unknown flags " + Integer.toHexString(flags));
+                }
+                if (((received | flags) & ALL) != ALL) {
+                    throw new IllegalArgumentException("Delta message before a full one");
+                }
+                received |= flags;
+                if ((flags & PHASE) != 0) {
+                    phase = PHASES[in.get()];
+                }
+                if ((flags & RESOURCES) != 0) {
+                    actions = getVarint(in);
+                    buys = getVarint(in);
+                    money = getVarint(in);
+                }
+                if ((flags & HAND) != 0) {
+                    CardDefinition[] cards = new CardDefinition[getLength(in)];
+                    for (int i = 0; i < cards.length; i++) {
+                        cards[i] = CardRegistry.get(getVarint(in));
+                    }
+                    hand = ImmutableList.copyOf(cards);
+                }
+                if ((flags & SUPPLY) != 0) {
+                    // The last snapshot may be held by an earlier state, so change a copy
+                    supply = supply.clone();
+                    long mask = getVarlong(in);
+                    for (int id = 0; id < supply.length; id++) {
+                        if ((mask & (1L << id)) != 0) {
+                            supply[id] = getVarint(in);
+                        }
+                    }
+                    snapshot = new SupplySnapshot(supply);
+                }
+                if ((flags & OPTIONS) != 0) {
+                    Decision[] decisions = new Decision[getLength(in)];
+                    for (int i = 0; i < decisions.length; i++) {
+                        decisions[i] = getDecision(in);
+                    }
+                    options = ImmutableList.copyOf(decisions);
+                }
+                if ((flags & PLAYER) != 0) {
+                    player = getString(in);
+                }
+                if ((flags & NAMES) != 0) {
+                    String[] playerNames = new String[getLength(in)];
+                    for (int i = 0; i < playerNames.length; i++) {
+                        playerNames[i] = getString(in);
+                    }
+                    names = ImmutableList.copyOf(playerNames);
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Malformed state message", e);
+            }
+            GameState state = new GameState(phase, player, hand, actions, buys, money, snapshot, names, null);
+            return new GameProtocol.DecisionRequest(state, options);
+        }
+    }
+
+    /**
+     * Writes a decision.
+     *
+     * @throws IllegalArgumentException if the decision is of an unknown kind or for an unregistered card
+     */
+    static void putDecision(ByteBuffer out, Decision decision) {
+        if (decision instanceof EndPhaseDecision) {
+            putVarint(out, END);
+        } else if (decision instanceof PlayCardDecision) {
+            putVarint(out, idOf(((PlayCardDecision) decision).getCard()) << 2 | PLAY);
+        } else if (decision instanceof BuyCardDecision) {
+            putVarint(out, idOf(((BuyCardDecision) decision).getCard()) << 2 | BUY);
+        } else if (decision instanceof GainCardDecision) {
+            putVarint(out, idOf(((GainCardDecision) decision).getCard()) << 2 | GAIN);
+        } else {
+            throw new IllegalArgumentException("Cannot encode decision " + decision);
+        }
+    }
+
+    /**
+     * Reads a decision written by {@link #putDecision}, as its canonical instance.
+     *
+     * @throws IllegalArgumentException if the decision is malformed
+     */
+    static Decision getDecision(ByteBuffer in) {
+        try {
+            int value = getVarint(in);
+            int cardId = value >>> 2;
+            switch (value & 3) {
+                case PLAY:
+                    return PlayCardDecision.of(cardId);
+                case BUY:
+                    return BuyCardDecision.of(cardId);
+                case GAIN:
+                    return GainCardDecision.of(cardId);
+                default:
+                    if (cardId != 0) {
+                        throw new IllegalArgumentException("Malformed end phase decision");
+                    }
+                    return EndPhaseDecision.getInstance();
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed decision", e);
+        }
+    }
+
+    private static int idOf(CardDefinition card) {
+        int id = CardRegistry.idOf(card);
+        if (id == CardDefinition.UNREGISTERED) {
+            throw new IllegalArgumentException("Cannot encode unknown card: " + card);
+        }
+        return id;
+    }
+
+    static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 7 * ByteSink.MAX_VARINT_BYTES; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    static void putVarlong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarlong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARLONG_BYTES; shift += 7) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /**
+     * Reads a count of following items, which must fit in what is left of the buffer.
+     */
+    private static int getLength(ByteBuffer in) {
+        int length = getVarint(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Malformed length " + length);
+        }
+        return length;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarint(out, bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[getLength(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,111 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.util.Arrays;
+
+/**
+ * Counts int values in fixed buckets, one per value in [min, max]. Values outside the
+ * range are counted in the first or last bucket, but the mean is always exact.
+ *
+ * Histograms are not thread-safe; give each thread its own and {@link #add} them together.
+ */
+public final class Histogram {
+    private final int min;
+    private final long[] counts;
+    private long total;
+    private long sum;
+
+    /**
+     * @throws IllegalArgumentException if max is less than min
+     */
+    public Histogram(int min, int max) {
+        if (max < min) {
+            throw new IllegalArgumentException("Histogram max " + max + " is less than min " + min);
+        }
+        this.min = min;
+        this.counts = new long[max - min + 1];
+    }
+
+    public void record(int value) {
+        counts[Math.max(0, Math.min(counts.length - 1, value - min))]++;
+        total++;
+        sum += value;
+    }
+
+    /**
+     * Adds the counts of another histogram with the same range to this one.
+     *
+     * @throws IllegalArgumentException if the ranges differ
+     */
+    public void add(Histogram other) {
+        if (other.min != min || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Cannot add histograms with different ranges");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        sum += other.sum;
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return min + counts.length - 1;
+    }
+
+    /**
+     * Gets the count of the bucket holding the given value.
+     */
+    public long getCount(int value) {
+        return counts[Math.max(0, Math.min(counts.length - 1, value - min))];
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public double getMean() {
+        if (total == 0) {
+            return 0.0;
+        }
+        return (double) sum / total;
+    }
+
+    /**
+     * Gets the smallest bucket value at or below which the given fraction of values fall.
+     *
+     * @param fraction between 0 and 1, e.g. 0.5 for the median
+     * @throws IllegalArgumentException if fraction is outside [0, 1]
+     * @throws IllegalStateException if the histogram is empty
+     */
+    public int getPercentile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Fraction must be between 0 and 1, got " + fraction);
+        }
+        if (total == 0) {
+            throw new IllegalStateException("Histogram is empty");
+        }
+        long target = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return min + i;
+            }
+        }
+        return getMax();
+    }
+
+    public Histogram copy() {
+        Histogram copy = new Histogram(min, getMax());
+        copy.add(this);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram[" + min + ".." + getMax() + ", total=" + total + ", counts=" + Arrays.toString(counts) + "]";
+    }
+}
@@ -0,0 +1,81 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A Player that chooses a decision by its position in the list of options.
+ *
+ * The engine validates an index with a bounds check instead of searching the options
+ * for a matching decision, so bots that decide thousands of times per game avoid a
+ * linear scan and the equals dispatch on every choice. Plain Players are adapted to
+ * this interface with {@link #adapt(Player)}.
+ */
+public interface IndexedPlayer extends Player {
+
+    /**
+     * Chooses one of the options. This method should handle exceptions to the greatest
+     * extent possible - allowing an exception to escape will cause the player to forfeit the game.
+     * @param state the current game state
+     * @param options the available decisions to choose from
+     * @return the index of the chosen decision in options
+     */
+    int chooseOption(GameState state, ImmutableList<Decision> options);
+
+    /**
+     * Makes a choice by delegating to {@link #chooseOption}.
+     * Returns null if the chosen index is out of range.
+     */
+    @Override
+    default Decision makeDecision(GameState state, ImmutableList<Decision> options) {
+        int index = chooseOption(state, options);
+        return index >= 0 && index < options.size() ? options.get(index) : null;
+    }
+
+    /**
+     * Adapts a player to the index-based interface. Players that already implement it are
+     * returned unchanged; any other player's decision is located in the options, by identity
+     * first and then by equality.
+     *
+     * @param player the player to adapt
+     * @return an IndexedPlayer that chooses what the player would decide; the index is -1
+     *         if the player returns null or a decision that is not one of the options
+     */
+    static IndexedPlayer adapt(Player player) {
+        if (player instanceof IndexedPlayer) {
+            return (IndexedPlayer) player;
+        }
+        return new IndexedPlayer() {
+            @Override
+            public String getName() {
+                return player.getName();
+            }
+
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                return indexOf(options, player.makeDecision(state, options));
+            }
+
+            @Override
+            public Decision makeDecision(GameState state, ImmutableList<Decision> options) {
+                return player.makeDecision(state, options);
+            }
+        };
+    }
+
+    /**
+     * Finds a decision in a list of options, by identity first and then by equality.
+     *
+     * @return the index of the decision, or -1 if it is null or not one of the options
+     */
+    static int indexOf(ImmutableList<Decision> options, Decision decision) {
+        if (decision == null) {
+            return -1;
+        }
+        for (int i = 0; i < options.size(); i++) {
+            if (options.get(i) == decision) {
+                return i;
+            }
+        }
+        return options.indexOf(decision);
+    }
+}
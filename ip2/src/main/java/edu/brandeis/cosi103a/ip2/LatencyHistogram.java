@@ -0,0 +1,114 @@
+package edu.brandeis.cosi103a.ip2;
+
+/**
+ * Counts nanosecond latencies in logarithmic buckets: each power of two is split into
+ * {@value #SUB_BUCKETS} buckets, so percentiles are accurate to within 12.5% across the
+ * whole range. The mean and maximum are exact.
+ *
+ * Histograms are not thread-safe.
+ */
+public final class LatencyHistogram {
+    static final int SUB_BUCKETS = 8;
+    private static final int SUB_BITS = 3;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long sum;
+    private long max;
+
+    /**
+     * Records a latency; negative values are counted as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucket(value)]++;
+        total++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the sum of every recorded latency, in nanoseconds.
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    public double getMean() {
+        if (total == 0) {
+            return 0.0;
+        }
+        return (double) sum / total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the latency at or below which the given fraction of latencies fall, as the
+     * upper bound of the bucket it falls in (never more than the maximum).
+     *
+     * @param fraction between 0 and 1, e.g. 0.99 for the 99th percentile
+     * @throws IllegalArgumentException if fraction is outside [0, 1]
+     * @throws IllegalStateException if the histogram is empty
+     */
+    public long getPercentile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Fraction must be between 0 and 1, got " + fraction);
+        }
+        if (total == 0) {
+            throw new IllegalStateException("Histogram is empty");
+        }
+        long target = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(max, upperBound(i));
+            }
+        }
+        return max;
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        if (total == 0) {
+            return "no samples";
+        }
+        return String.format("n=%d mean=%.0fns p50=%dns p99=%dns max=%dns",
+            total, getMean(), getPercentile(0.5), getPercentile(0.99), max);
+    }
+}
@@ -0,0 +1,142 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * Collects phase and decision latencies of a game in {@link LatencyHistogram}s, per
+ * player and phase. Comparing a player's decision latency with the latency of the
+ * phases it plays shows whether a slow game is spent in the player or in the engine.
+ *
+ * <pre>
+ * LatencyMetrics metrics = LatencyMetrics.attach(engine);
+ * engine.play();
+ * LatencyHistogram buys = metrics.getDecisionLatency("Alice", TurnPhase.BUY);
+ * </pre>
+ *
+ * Players are reported by name; players sharing a name are reported together.
+ * Not thread-safe: read the metrics after the game, from the thread that played it.
+ */
+public final class LatencyMetrics implements EngineMetrics {
+    private static final TurnPhase[] PHASES = TurnPhase.values();
+
+    private final ImmutableList<String> playerNames;
+    // Indexed by seat, then phase ordinal; created on first use
+    private final LatencyHistogram[][] phases;
+    private final LatencyHistogram[][] decisions;
+
+    /**
+     * Creates metrics for a game between the given players, in seat order. They must be
+     * registered as the engine's metrics; see {@link #attach(EngineImpl)}.
+     */
+    public LatencyMetrics(List<String> playerNames) {
+        this.playerNames = ImmutableList.copyOf(playerNames);
+        this.phases = new LatencyHistogram[playerNames.size()][PHASES.length];
+        this.decisions = new LatencyHistogram[playerNames.size()][PHASES.length];
+    }
+
+    /**
+     * Creates metrics for an engine's game and registers them as the engine's metrics.
+     */
+    public static LatencyMetrics attach(EngineImpl engine) {
+        LatencyMetrics metrics = new LatencyMetrics(engine.getPlayerNames());
+        engine.setMetrics(metrics);
+        return metrics;
+    }
+
+    @Override
+    public void phaseTimed(int seat, TurnPhase phase, long nanos) {
+        histogram(phases, seat, phase).record(nanos);
+    }
+
+    @Override
+    public void decisionTimed(int seat, TurnPhase phase, long nanos) {
+        histogram(decisions, seat, phase).record(nanos);
+    }
+
+    private static LatencyHistogram histogram(LatencyHistogram[][] histograms, int seat, TurnPhase phase) {
+        LatencyHistogram histogram = histograms[seat][phase.ordinal()];
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            histograms[seat][phase.ordinal()] = histogram;
+        }
+        return histogram;
+    }
+
+    public ImmutableList<String> getPlayerNames() {
+        return playerNames;
+    }
+
+    /**
+     * Gets the latency of a phase over every player's turns.
+     */
+    public LatencyHistogram getPhaseLatency(TurnPhase phase) {
+        return merge(phases, null, phase);
+    }
+
+    /**
+     * Gets the latency of a phase over a player's turns, including the player's decisions.
+     *
+     * @throws IllegalArgumentException if no player has that name
+     */
+    public LatencyHistogram getPhaseLatency(String player, TurnPhase phase) {
+        return merge(phases, checkName(player), phase);
+    }
+
+    /**
+     * Gets the latency of a player's decisions in every phase.
+     *
+     * @throws IllegalArgumentException if no player has that name
+     */
+    public LatencyHistogram getDecisionLatency(String player) {
+        return merge(decisions, checkName(player), null);
+    }
+
+    /**
+     * Gets the latency of a player's decisions in one phase.
+     *
+     * @throws IllegalArgumentException if no player has that name
+     */
+    public LatencyHistogram getDecisionLatency(String player, TurnPhase phase) {
+        return merge(decisions, checkName(player), phase);
+    }
+
+    private String checkName(String player) {
+        if (!playerNames.contains(player)) {
+            throw new IllegalArgumentException("No player named " + player);
+        }
+        return player;
+    }
+
+    /**
+     * Merges the histograms of the matching seats and phases; null matches everything.
+     */
+    private LatencyHistogram merge(LatencyHistogram[][] histograms, String player, TurnPhase phase) {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (int seat = 0; seat < playerNames.size(); seat++) {
+            if (player != null && !player.equals(playerNames.get(seat))) {
+                continue;
+            }
+            for (TurnPhase candidate : PHASES) {
+                LatencyHistogram histogram = histograms[seat][candidate.ordinal()];
+                if (histogram != null && (phase == null || phase == candidate)) {
+                    merged.add(histogram);
+                }
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (TurnPhase phase : PHASES) {
+            sb.append(phase).append(": ").append(getPhaseLatency(phase)).append('\n');
+        }
+        for (String player : playerNames.stream().distinct().toArray(String[]::new)) {
+            sb.append(player).append(" decisions: ").append(getDecisionLatency(player)).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,175 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A non-blocking socket that exchanges newline-terminated ASCII lines, owned by a
+ * {@link LineSelector}. Lines may be sent from any thread; everything else runs on the
+ * selector's thread.
+ */
+final class LineConnection {
+    static final int MAX_LINE_LENGTH = 8192;
+
+    /**
+     * Receives the lines of a connection, on the selector's thread.
+     */
+    interface Handler {
+        void lineReceived(LineConnection connection, String line);
+
+        /**
+         * Called once, when the connection is closed by either side.
+         */
+        void closed(LineConnection connection);
+    }
+
+    private final LineSelector selector;
+    private final SocketChannel channel;
+    private Handler handler;
+    private final ByteBuffer input = ByteBuffer.allocate(1024);
+    private final StringBuilder line = new StringBuilder();
+    private final Queue<ByteBuffer> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private volatile boolean closeWhenFlushed;
+    private SelectionKey key;
+    private boolean connected;
+    private volatile boolean closed;
+
+    LineConnection(LineSelector selector, SocketChannel channel) {
+        this.selector = selector;
+        this.channel = channel;
+    }
+
+    /**
+     * Sets the handler of the connection's lines. Must be set before any line arrives.
+     */
+    void setHandler(Handler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Marks the connection as registered and connected, and writes anything already sent.
+     */
+    void connected(SelectionKey key) {
+        this.key = key;
+        this.connected = true;
+        flush();
+    }
+
+    /**
+     * Queues a line to be written. Safe to call from any thread.
+     */
+    void send(String text) {
+        outbox.add(encode(text));
+        requestFlush();
+    }
+
+    /**
+     * Queues a last line and closes the connection once it is written.
+     */
+    void sendAndClose(String text) {
+        // Queue the line before asking to close, so a flush in progress cannot close first
+        outbox.add(encode(text));
+        closeWhenFlushed = true;
+        requestFlush();
+    }
+
+    private static ByteBuffer encode(String text) {
+        return ByteBuffer.wrap((text + "\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void requestFlush() {
+        if (flushQueued.compareAndSet(false, true)) {
+            selector.flushLater(this);
+        }
+    }
+
+    /**
+     * Reads what is available and hands each complete line to the handler.
+     */
+    void read() {
+        try {
+            int count = channel.read(input);
+            if (count < 0) {
+                close();
+                return;
+            }
+            input.flip();
+            while (input.hasRemaining() && !closed) {
+                char c = (char) input.get();
+                if (c == '\n') {
+                    String text = line.toString();
+                    line.setLength(0);
+                    if (handler == null) {
+                        continue;  // Being turned away; ignore what it says
+                    }
+                    handler.lineReceived(this, text.endsWith("\r") ? text.substring(0, text.length() - 1) : text);
+                } else if (line.length() < MAX_LINE_LENGTH) {
+                    line.append(c);
+                } else {
+                    close();
+                }
+            }
+            input.clear();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    /**
+     * Writes queued lines until the socket is full, and closes the connection if asked
+     * to once everything is written.
+     */
+    void flush() {
+        flushQueued.set(false);
+        if (closed || !connected) {
+            // Lines sent while connecting are written once connected
+            return;
+        }
+        try {
+            ByteBuffer next;
+            while ((next = outbox.peek()) != null) {
+                channel.write(next);
+                if (next.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                outbox.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            if (closeWhenFlushed) {
+                close();
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to do with it
+        }
+        if (handler != null) {
+            handler.closed(this);
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,221 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Runs the I/O of many {@link LineConnection}s on a single thread.
+ *
+ * A failure on one connection closes that connection and nothing else. A task or
+ * handler that throws is reported on standard error, and the thread carries on.
+ */
+final class LineSelector implements Closeable {
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Queue<LineConnection> flushes = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    LineSelector(String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Accepts connections on a socket until it is closed. Each new connection is passed to
+     * the callback on the selector's thread, which must set its handler or close it.
+     *
+     * @return a future completed once the socket is being listened on, or completed
+     *         with the IOException that prevented it
+     */
+    CompletableFuture<Void> listen(ServerSocketChannel server, Consumer<LineConnection> onAccept) {
+        CompletableFuture<Void> listening = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                server.configureBlocking(false);
+                server.register(selector, SelectionKey.OP_ACCEPT, onAccept);
+                listening.complete(null);
+            } catch (IOException e) {
+                listening.completeExceptionally(e);
+            }
+        });
+        return listening;
+    }
+
+    /**
+     * Opens a connection to an address. Lines may be sent at once; they are written
+     * once the connection is established.
+     */
+    LineConnection connect(InetSocketAddress address, LineConnection.Handler handler) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        LineConnection connection = new LineConnection(this, channel);
+        connection.setHandler(handler);
+        execute(() -> {
+            try {
+                if (channel.connect(address)) {
+                    connection.connected(channel.register(selector, SelectionKey.OP_READ, connection));
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, connection);
+                }
+            } catch (IOException e) {
+                connection.close();
+            }
+        });
+        return connection;
+    }
+
+    /**
+     * Runs a task on the selector's thread.
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    void flushLater(LineConnection connection) {
+        flushes.add(connection);
+        selector.wakeup();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                break;
+            }
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    report("Task failed", e);
+                }
+            }
+            for (SelectionKey key : selector.selectedKeys()) {
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept(key);
+                    continue;
+                }
+                LineConnection connection = (LineConnection) key.attachment();
+                try {
+                    if (key.isConnectable()) {
+                        finishConnect(key, connection);
+                        continue;
+                    }
+                    if (key.isReadable()) {
+                        connection.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.flush();
+                    }
+                } catch (RuntimeException e) {
+                    fail(connection, "Connection failed", e);
+                }
+            }
+            selector.selectedKeys().clear();
+            LineConnection connection;
+            while ((connection = flushes.poll()) != null) {
+                try {
+                    connection.flush();
+                } catch (RuntimeException e) {
+                    fail(connection, "Connection failed", e);
+                }
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof LineConnection) {
+                try {
+                    ((LineConnection) key.attachment()).close();
+                } catch (RuntimeException e) {
+                    report("Closing a connection failed", e);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void accept(SelectionKey key) {
+        Consumer<LineConnection> onAccept = (Consumer<LineConnection>) key.attachment();
+        ServerSocketChannel server = (ServerSocketChannel) key.channel();
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (IOException e) {
+                if (!server.isOpen()) {
+                    key.cancel();
+                }
+                // Otherwise, e.g. out of file descriptors, retry on the next select
+                return;
+            }
+            if (channel == null) {
+                return;
+            }
+            LineConnection connection = new LineConnection(this, channel);
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connection.connected(channel.register(selector, SelectionKey.OP_READ, connection));
+                onAccept.accept(connection);
+            } catch (IOException e) {
+                connection.close();
+            } catch (RuntimeException e) {
+                fail(connection, "Accepting a connection failed", e);
+            }
+        }
+    }
+
+    private void finishConnect(SelectionKey key, LineConnection connection) {
+        try {
+            ((SocketChannel) key.channel()).finishConnect();
+            key.interestOps(SelectionKey.OP_READ);
+            connection.connected(key);
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    private void fail(LineConnection connection, String what, RuntimeException e) {
+        report(what, e);
+        try {
+            connection.close();
+        } catch (RuntimeException closing) {
+            report("Closing a failed connection failed", closing);
+        }
+    }
+
+    private void report(String what, RuntimeException e) {
+        System.err.println(thread.getName() + ": " + what);
+        e.printStackTrace();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        selector.close();
+    }
+}
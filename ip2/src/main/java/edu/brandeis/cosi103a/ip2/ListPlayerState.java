@@ -0,0 +1,254 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.*;
+
+/**
+ * A PlayerState that keeps each zone as a list of cards.
+ * The deck and discard pile live in a {@link DrawPile}, which shuffles lazily as cards are drawn.
+ */
+public class ListPlayerState implements PlayerState {
+    private final Player player;
+    private final DrawPile drawPile;
+    private final List<CardDefinition> hand;
+    private final List<CardDefinition> played;
+    private ImmutableList<CardDefinition> handView;  // Null when the hand has changed since last built
+    
+    // Turn resources
+    private int actions;
+    private int buys;
+    private int money;
+
+    public ListPlayerState(Player player) {
+        this(player, new SplittableRandom());
+    }
+
+    /**
+     * Creates a player state whose draws use the given generator.
+     * The generator must not be shared with any other player state.
+     */
+    public ListPlayerState(Player player, SplittableRandom random) {
+        this.player = player;
+        this.drawPile = new DrawPile(random);
+        this.hand = new ArrayList<>();
+        this.played = new ArrayList<>();
+        
+        // Initialize starting deck: 7 Bitcoin, 3 Method
+        for (int i = 0; i < 7; i++) {
+            drawPile.addToDeck(Cards.BITCOIN);
+        }
+        for (int i = 0; i < 3; i++) {
+            drawPile.addToDeck(Cards.METHOD);
+        }
+        
+        drawCards(5);
+    }
+
+    @Override
+    public Player getPlayer() {
+        return player;
+    }
+
+    @Override
+    public List<CardDefinition> getHand() {
+        return new ArrayList<>(hand);
+    }
+
+    @Override
+    public List<CardDefinition> getDeck() {
+        return drawPile.getDeck();
+    }
+
+    @Override
+    public List<CardDefinition> getDiscard() {
+        return drawPile.getDiscard();
+    }
+
+    @Override
+    public List<CardDefinition> getPlayed() {
+        return new ArrayList<>(played);
+    }
+
+    @Override
+    public ImmutableList<CardDefinition> getHandView() {
+        if (handView == null) {
+            handView = ImmutableList.copyOf(hand);
+        }
+        return handView;
+    }
+
+    @Override
+    public int getHandSize() {
+        return hand.size();
+    }
+
+    @Override
+    public long getHandMask() {
+        long mask = 0;
+        for (int i = 0; i < hand.size(); i++) {
+            int id = CardRegistry.idOf(hand.get(i));
+            if (id != CardDefinition.UNREGISTERED) {
+                mask |= DecisionOptions.bit(id);
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public int countInHand(CardDefinition card) {
+        int count = 0;
+        for (CardDefinition inHand : hand) {
+            if (inHand.equals(card)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int getCardCount() {
+        return drawPile.getDeckSize() + hand.size() + drawPile.getDiscardSize() + played.size();
+    }
+
+    @Override
+    public int getActions() {
+        return actions;
+    }
+
+    @Override
+    public int getBuys() {
+        return buys;
+    }
+
+    @Override
+    public int getMoney() {
+        return money;
+    }
+
+    @Override
+    public void setActions(int actions) {
+        this.actions = actions;
+    }
+
+    @Override
+    public void setBuys(int buys) {
+        this.buys = buys;
+    }
+
+    @Override
+    public void setMoney(int money) {
+        this.money = money;
+    }
+
+    /**
+     * Starts a new turn by resetting resources.
+     */
+    @Override
+    public void startTurn() {
+        actions = 1;
+        buys = 1;
+        money = 0;
+    }
+
+    /**
+     * Plays a card from hand.
+     */
+    @Override
+    public boolean playCard(CardDefinition card) {
+        if (hand.remove(card)) {
+            handView = null;
+            played.add(card);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gains a card (adds to discard pile).
+     */
+    @Override
+    public void gainCard(CardDefinition card) {
+        drawPile.discard(card);
+    }
+
+    /**
+     * Draws cards from deck to hand, recycling discard if needed.
+     */
+    @Override
+    public void drawCards(int count) {
+        for (int i = 0; i < count; i++) {
+            if (drawPile.getDeckSize() == 0 && drawPile.getDiscardSize() > 0) {
+                EngineEvents.reshuffled(player.getName(), drawPile.getDiscardSize());
+            }
+            CardDefinition card = drawPile.draw();
+            if (card == null) {
+                return;
+            }
+            hand.add(card);
+            handView = null;
+        }
+    }
+
+    /**
+     * Moves the discard pile into the deck. The draw pile picks a random card on every
+     * draw, so the deck needs no shuffle.
+     */
+    @Override
+    public void recycleDiscard() {
+        drawPile.recycleDiscard();
+    }
+
+    @Override
+    public void setRandom(SplittableRandom random) {
+        drawPile.setRandom(random);
+    }
+
+    @Override
+    public void restoreZones(List<CardDefinition> deck, List<CardDefinition> hand, List<CardDefinition> discard) {
+        drawPile.reset(deck, discard);
+        this.hand.clear();
+        this.hand.addAll(hand);
+        this.played.clear();
+        handView = null;
+    }
+
+    /**
+     * Ends the turn: discard hand and played cards, draw new hand.
+     */
+    @Override
+    public void cleanup() {
+        drawPile.discardAll(hand);
+        drawPile.discardAll(played);
+        hand.clear();
+        handView = null;
+        played.clear();
+        drawCards(5);
+    }
+
+    /**
+     * Calculates the total score (points) for this player.
+     */
+    @Override
+    public int calculateScore() {
+        int score = 0;
+        for (CardDefinition card : getAllCards()) {
+            score += card.getPoints();
+        }
+        
+        return score;
+    }
+
+    /**
+     * Gets all cards owned by this player (for final results).
+     */
+    @Override
+    public List<CardDefinition> getAllCards() {
+        List<CardDefinition> allCards = new ArrayList<>(getCardCount());
+        allCards.addAll(drawPile.getDeck());
+        allCards.addAll(hand);
+        allCards.addAll(drawPile.getDiscard());
+        allCards.addAll(played);
+        return allCards;
+    }
+}
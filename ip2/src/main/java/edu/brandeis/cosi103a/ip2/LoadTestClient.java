@@ -0,0 +1,217 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a {@link GameServer} with many bot connections, to find how many games a node
+ * can host.
+ *
+ * Each bot plays as a {@link SimplePlayer}, from the state in each DECIDE, and joins a
+ * new game as soon as its last one ends. A bot turned away as BUSY tries again shortly.
+ * All bots share one selector thread.
+ */
+public final class LoadTestClient {
+    private static final long RETRY_MILLIS = 50;
+
+    private final InetSocketAddress server;
+    private final AtomicLong completedGames = new AtomicLong();
+    private final AtomicLong abortedGames = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong decisions = new AtomicLong();
+    private volatile boolean running;
+    private LineSelector selector;
+    private ScheduledExecutorService retries;
+
+    public LoadTestClient(InetSocketAddress server) {
+        this.server = server;
+    }
+
+    /**
+     * The totals of a load test.
+     */
+    public static final class Report {
+        private final long completedGames;
+        private final long abortedGames;
+        private final long rejections;
+        private final long decisions;
+        private final long elapsedNanos;
+
+        private Report(long completedGames, long abortedGames, long rejections, long decisions, long elapsedNanos) {
+            this.completedGames = completedGames;
+            this.abortedGames = abortedGames;
+            this.rejections = rejections;
+            this.decisions = decisions;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Gets the number of games that finished with a result, counted once per game.
+         */
+        public long getCompletedGames() {
+            return completedGames;
+        }
+
+        /**
+         * Gets the number of games that ended ABORTED, counted once per game.
+         */
+        public long getAbortedGames() {
+            return abortedGames;
+        }
+
+        /**
+         * Gets the number of times a bot was turned away as BUSY.
+         */
+        public long getRejections() {
+            return rejections;
+        }
+
+        public long getDecisions() {
+            return decisions;
+        }
+
+        public double getGamesPerSecond() {
+            return completedGames * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games in %.1f s (%.0f games/s, %.0f decisions/s), %d aborted, %d rejections",
+                completedGames, elapsedNanos / 1e9, getGamesPerSecond(), decisions * 1e9 / elapsedNanos,
+                abortedGames, rejections);
+        }
+    }
+
+    /**
+     * Runs bots against the server for a while, then disconnects them.
+     *
+     * @param bots the number of concurrent bot connections
+     * @param duration how long to play; games still running at the end are not counted
+     */
+    public Report run(int bots, Duration duration) throws IOException, InterruptedException {
+        selector = new LineSelector("load-test-io");
+        retries = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "load-test-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        try {
+            for (int i = 0; i < bots; i++) {
+                new Bot("bot-" + i).connect();
+            }
+            long start = System.nanoTime();
+            Thread.sleep(duration.toMillis());
+            running = false;
+            return new Report(completedGames.get(), abortedGames.get(), rejections.get(), decisions.get(),
+                System.nanoTime() - start);
+        } finally {
+            running = false;
+            // Closing the connections calls back into the bots, which must still be able to schedule
+            selector.close();
+            retries.shutdownNow();
+        }
+    }
+
+    /**
+     * One bot connection, replaced by a new one for each game.
+     */
+    private final class Bot implements LineConnection.Handler {
+        private final String name;
+        private final SimplePlayer player;
+        private ImmutableList<String> playerNames = ImmutableList.of();
+        private boolean firstSeat;
+        private boolean rejected;
+
+        Bot(String name) {
+            this.name = name;
+            this.player = new SimplePlayer(name);
+        }
+
+        void connect() {
+            if (!running) {
+                return;
+            }
+            try {
+                selector.connect(server, this).send(GameProtocol.HELLO + " " + name);
+            } catch (IOException e) {
+                retries.schedule(this::connect, RETRY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void lineReceived(LineConnection connection, String line) {
+            String[] fields = line.split(" ");
+            switch (fields[0]) {
+                case GameProtocol.START:
+                    firstSeat = fields[1].equals("0");
+                    playerNames = ImmutableList.copyOf(fields[2].split(","));
+                    break;
+                case GameProtocol.DECIDE:
+                    GameProtocol.DecisionRequest request;
+                    try {
+                        request = GameProtocol.parseDecide(fields, name, playerNames);
+                    } catch (IllegalArgumentException e) {
+                        connection.close();
+                        return;
+                    }
+                    decisions.incrementAndGet();
+                    connection.send(GameProtocol.CHOOSE + " " + player.chooseOption(request.state, request.options));
+                    break;
+                case GameProtocol.RESULT:
+                    // Every player gets the result; count each game once
+                    if (firstSeat && running) {
+                        completedGames.incrementAndGet();
+                    }
+                    break;
+                case GameProtocol.ABORTED:
+                    if (firstSeat && running) {
+                        abortedGames.incrementAndGet();
+                    }
+                    break;
+                case GameProtocol.BUSY:
+                    rejected = true;
+                    rejections.incrementAndGet();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void closed(LineConnection connection) {
+            if (!running) {
+                return;
+            }
+            firstSeat = false;
+            if (rejected) {
+                rejected = false;
+                retries.schedule(this::connect, RETRY_MILLIS, TimeUnit.MILLISECONDS);
+            } else {
+                connect();
+            }
+        }
+    }
+
+    /**
+     * Runs a load test against a server on this machine.
+     *
+     * Usage: LoadTestClient [port] [bots] [seconds]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7103;
+        int bots = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        LoadTestClient client = new LoadTestClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        System.out.println(client.run(bots, Duration.ofSeconds(seconds)));
+    }
+}
@@ -0,0 +1,404 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+
+/**
+ * A player that chooses by Monte Carlo Tree Search over {@link GameFork} simulations.
+ *
+ * Search is root-parallel: each worker thread grows its own UCT tree from the current
+ * position, and the visit counts of the root moves are summed across workers. Trees are
+ * open-loop (a node is a sequence of decisions, not a position), and every iteration
+ * starts from a fresh determinization: opponents' hands are resampled and draws are
+ * reseeded (see {@link GameFork#determinize(int)}). Playouts follow a fast "big money"
+ * policy and are scored by win share.
+ *
+ * MONEY-phase decisions are never searched: playing every card with a money value is
+ * always at least as good as stopping, so both this player and its playouts do so.
+ *
+ * Each decision runs until the iteration budget or the time budget is spent, whichever
+ * comes first. With only an iteration budget and a fixed seed, decisions are reproducible
+ * regardless of thread scheduling. Worker threads are daemons; call {@link #close()} to
+ * release them early.
+ */
+public class MctsPlayer implements IndexedPlayer, AutoCloseable {
+    private static final int CARDS = CardRegistry.size();
+    private static final int END_PHASE_SLOT = CARDS;  // Child slot of the end phase option
+    private static final double EXPLORATION = 0.7;
+    private static final double UNTRIED = 1e9;  // Selection value of an option not yet tried
+    private static final int MAX_PLAYOUT_TURNS = 200;  // Playouts stop here and are scored as they stand
+    private static final int SOLO_MAX_SCORE = 8 * 6 + 8 * 3 + 14;  // Every Framework, Module and Method
+
+    // Playout buy preferences, most preferred first
+    private static final int[] BIG_MONEY = {
+        Cards.FRAMEWORK.getId(), Cards.DOGECOIN.getId(), Cards.ETHEREUM.getId()
+    };
+    private static final double PLAYOUT_EXPLORATION = 0.1;  // Chance of a random buy in playouts
+
+    private final String name;
+    private final int iterations;
+    private final long timeLimitNanos;
+    private final int threads;
+    private final SplittableRandom random;
+    private final SimplePlayer fallback;
+    private ExecutorService workers;  // Created on first parallel search
+
+    /**
+     * Creates a single-threaded player that runs a fixed number of iterations per decision.
+     */
+    public MctsPlayer(String name, int iterations) {
+        this(name, iterations, null, 1, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates a player that searches with every available processor for a fixed time per decision.
+     */
+    public MctsPlayer(String name, Duration timeLimit) {
+        this(name, 0, timeLimit, Runtime.getRuntime().availableProcessors(), new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates a player with the given budgets and parallelism.
+     *
+     * @param name the player's name
+     * @param iterations the iterations per decision, shared by all threads; 0 for no limit
+     * @param timeLimit the time per decision; null for no limit
+     * @param threads the number of worker threads searching in parallel
+     * @param seed the seed for the player's searches
+     * @throws IllegalArgumentException if there is no budget, or threads is not positive
+     */
+    public MctsPlayer(String name, int iterations, Duration timeLimit, int threads, long seed) {
+        if (iterations < 0 || (iterations == 0 && timeLimit == null)) {
+            throw new IllegalArgumentException("Must have an iteration budget, a time budget or both");
+        }
+        if (timeLimit != null && (timeLimit.isNegative() || timeLimit.isZero())) {
+            throw new IllegalArgumentException("Time limit must be positive");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1");
+        }
+        this.name = name;
+        this.iterations = iterations;
+        this.timeLimitNanos = timeLimit == null ? Long.MAX_VALUE : timeLimit.toNanos();
+        this.threads = threads;
+        this.random = new SplittableRandom(seed);
+        this.fallback = new SimplePlayer(name);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int chooseOption(GameState state, ImmutableList<Decision> options) {
+        if (options.size() <= 1) {
+            return 0;
+        }
+        GameFork root;
+        try {
+            root = state.fork();
+        } catch (UnsupportedOperationException | IllegalStateException e) {
+            // Not a position we can simulate
+            return fallback.chooseOption(state, options);
+        }
+        if (root.getCurrentPhase() == TurnPhase.MONEY) {
+            return moneyOption(root);
+        }
+        long deadline = timeLimitNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeLimitNanos;
+        int[] visits;
+        try {
+            visits = search(root, deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback.chooseOption(state, options);
+        }
+        return bestOption(root.getOptionMask(), visits);
+    }
+
+    /**
+     * Runs the workers and sums their root visit counts, by child slot.
+     */
+    private int[] search(GameFork root, long deadline) throws InterruptedException {
+        List<Search> searches = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            int share = iterations / threads + (i < iterations % threads ? 1 : 0);
+            searches.add(new Search(root, random.split(), iterations == 0 ? Integer.MAX_VALUE : share, deadline));
+        }
+
+        int[] visits = new int[CARDS + 1];
+        if (threads == 1) {
+            addVisits(visits, searches.get(0).call());
+            return visits;
+        }
+        try {
+            for (Future<Node> result : getWorkers().invokeAll(searches)) {
+                addVisits(visits, result.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+        return visits;
+    }
+
+    private static void addVisits(int[] visits, Node root) {
+        if (root.children == null) {
+            return;
+        }
+        for (int slot = 0; slot < visits.length; slot++) {
+            if (root.children[slot] != null) {
+                visits[slot] += root.children[slot].visits;
+            }
+        }
+    }
+
+    /**
+     * Picks the most visited option; ties go to the earlier option.
+     */
+    private static int bestOption(long mask, int[] visits) {
+        int best = Long.bitCount(mask);  // End phase
+        int bestVisits = visits[END_PHASE_SLOT];
+        int index = 0;
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1, index++) {
+            int slot = Long.numberOfTrailingZeros(remaining);
+            if (visits[slot] > bestVisits || (visits[slot] == bestVisits && index < best)) {
+                best = index;
+                bestVisits = visits[slot];
+            }
+        }
+        return best;
+    }
+
+    private synchronized ExecutorService getWorkers() {
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, name + " search");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+
+    /**
+     * Stops the worker threads. The player can still decide afterwards, single-threaded
+     * searches inline and parallel searches on a new pool.
+     */
+    @Override
+    public synchronized void close() {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+    }
+
+    /**
+     * Gets the option index of the first card with a money value, or of end phase.
+     */
+    private static int moneyOption(GameFork fork) {
+        long mask = fork.getOptionMask();
+        int index = 0;
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1, index++) {
+            if (CardRegistry.get(Long.numberOfTrailingZeros(remaining)).getMoneyValue() > 0) {
+                return index;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Gets the option index of the card with the given id in a mask.
+     */
+    private static int indexOf(long mask, int slot) {
+        return slot == END_PHASE_SLOT
+            ? Long.bitCount(mask)
+            : Long.bitCount(mask & (DecisionOptions.bit(slot) - 1));
+    }
+
+    /**
+     * A node of an open-loop search tree: the decisions leading to it, with the
+     * statistics of the player who made the last one.
+     */
+    private static final class Node {
+        final int seat;  // Seat that chose the decision leading here
+        Node[] children;  // By slot: card id, or END_PHASE_SLOT
+        int visits;
+        double reward;
+
+        Node(int seat) {
+            this.seat = seat;
+        }
+    }
+
+    /**
+     * One worker's search: a tree grown from the root position until its budget is spent.
+     */
+    private static final class Search implements Callable<Node> {
+        private final GameFork root;
+        private final GameFork scratch;
+        private final SplittableRandom random;
+        private final int iterations;
+        private final long deadline;
+        private final double[] rewards;
+        private final Node[] path = new Node[1024];
+
+        Search(GameFork root, SplittableRandom random, int iterations, long deadline) {
+            this.root = root;
+            this.scratch = new GameFork(root.getNumPlayers());
+            this.random = random;
+            this.iterations = iterations;
+            this.deadline = deadline;
+            this.rewards = new double[root.getNumPlayers()];
+        }
+
+        @Override
+        public Node call() {
+            Node tree = new Node(-1);
+            int observer = root.getCurrentSeat();
+            for (int i = 0; i < iterations; i++) {
+                if (deadline != Long.MAX_VALUE && System.nanoTime() >= deadline && i > 0) {
+                    break;
+                }
+                scratch.copyFrom(root);
+                scratch.setSeed(random.nextLong());
+                scratch.determinize(observer);
+                iterate(tree);
+            }
+            return tree;
+        }
+
+        /**
+         * Selects down the tree, expands one node, plays out and backs up the result.
+         */
+        private void iterate(Node tree) {
+            int depth = 0;
+            path[depth++] = tree;
+            Node node = tree;
+            boolean expanded = false;
+            int startTurn = scratch.getTurn();
+            while (!scratch.isGameOver() && !expanded && depth < path.length) {
+                if (scratch.getCurrentPhase() == TurnPhase.MONEY) {
+                    scratch.applyOption(moneyOption(scratch));
+                    continue;
+                }
+                long mask = scratch.getOptionMask();
+                if (node.children == null) {
+                    node.children = new Node[CARDS + 1];
+                }
+                int slot = select(node, mask);
+                Node child = node.children[slot];
+                if (child == null) {
+                    child = new Node(scratch.getCurrentSeat());
+                    node.children[slot] = child;
+                    expanded = true;
+                }
+                scratch.applyOption(indexOf(mask, slot));
+                node = child;
+                path[depth++] = node;
+            }
+
+            playOut(startTurn);
+            score();
+            for (int i = 0; i < depth; i++) {
+                Node visited = path[i];
+                visited.visits++;
+                if (visited.seat >= 0) {
+                    visited.reward += rewards[visited.seat];
+                }
+            }
+        }
+
+        /**
+         * Picks the child slot to descend into: an untried option first, else by UCB1.
+         */
+        private int select(Node node, long mask) {
+            double logVisits = Math.log(Math.max(1, node.visits));
+            int best = END_PHASE_SLOT;
+            double bestValue = value(node.children[END_PHASE_SLOT], logVisits);
+            for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                int slot = Long.numberOfTrailingZeros(remaining);
+                double value = value(node.children[slot], logVisits);
+                if (value > bestValue) {
+                    best = slot;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+
+        private double value(Node child, double logVisits) {
+            if (child == null || child.visits == 0) {
+                // Untried options come first, in random order
+                return UNTRIED + random.nextDouble();
+            }
+            return child.reward / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+        }
+
+        /**
+         * Plays the scratch position forward with the playout policy.
+         */
+        private void playOut(int startTurn) {
+            while (!scratch.isGameOver() && scratch.getTurn() - startTurn < MAX_PLAYOUT_TURNS) {
+                long mask = scratch.getOptionMask();
+                switch (scratch.getCurrentPhase()) {
+                    case ACTION:
+                        // Play the first action card, if any
+                        scratch.applyOption(0);
+                        break;
+                    case MONEY:
+                        scratch.applyOption(moneyOption(scratch));
+                        break;
+                    default:
+                        scratch.applyOption(buyOption(mask));
+                        break;
+                }
+            }
+        }
+
+        /**
+         * Buys by the big money preferences, with an occasional random option.
+         */
+        private int buyOption(long mask) {
+            if (random.nextDouble() < PLAYOUT_EXPLORATION) {
+                return random.nextInt(Long.bitCount(mask) + 1);
+            }
+            for (int id : BIG_MONEY) {
+                if ((mask & DecisionOptions.bit(id)) != 0) {
+                    return indexOf(mask, id);
+                }
+            }
+            return indexOf(mask, END_PHASE_SLOT);
+        }
+
+        /**
+         * Fills the reward of each seat: its share of the win, or for a solo game
+         * its score as a fraction of the most it could reasonably reach.
+         */
+        private void score() {
+            int numPlayers = rewards.length;
+            if (numPlayers == 1) {
+                rewards[0] = Math.max(0, Math.min(1, scratch.getScore(0) / (double) SOLO_MAX_SCORE));
+                return;
+            }
+            int best = Integer.MIN_VALUE;
+            int winners = 0;
+            for (int seat = 0; seat < numPlayers; seat++) {
+                int score = scratch.getScore(seat);
+                if (score > best) {
+                    best = score;
+                    winners = 1;
+                } else if (score == best) {
+                    winners++;
+                }
+            }
+            for (int seat = 0; seat < numPlayers; seat++) {
+                rewards[seat] = scratch.getScore(seat) == best ? 1.0 / winners : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Objects;
+
+/**
+ * A player that remembers the choices of a deterministic player in a {@link DecisionCache},
+ * and makes the same choice again whenever the same state comes up, in this game or any
+ * other game sharing the cache.
+ *
+ * Only wrap players whose choice depends on nothing but the state the cache keys on (see
+ * {@link DecisionCache}), such as {@link SimplePlayer}: not players that remember earlier
+ * turns, look at the other players, or draw random numbers, like {@link MctsPlayer}.
+ *
+ * {@link EngineImpl} recognizes these players and looks choices up from its own state,
+ * without building a {@link GameState} for a hit. A hit is not a call to the player, so it
+ * is not timed by metrics or time limits, but it is reported to decision listeners. If
+ * the wrapped player plans phases, the engine follows its plans as usual and only the
+ * decisions it is asked for one at a time go through the cache.
+ */
+public final class MemoizingPlayer implements IndexedPlayer {
+    private final Player delegate;
+    private final IndexedPlayer chooser;
+    private final DecisionCache cache;
+
+    /**
+     * @param delegate the deterministic player whose choices are remembered
+     * @param cache the cache to keep them in, shared only with players that decide alike
+     */
+    public MemoizingPlayer(Player delegate, DecisionCache cache) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.chooser = IndexedPlayer.adapt(delegate);
+        this.cache = Objects.requireNonNull(cache, "cache");
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public int chooseOption(GameState state, ImmutableList<Decision> options) {
+        long key = cache.key(state);
+        int index = cache.get(key, options.size());
+        if (index < 0) {
+            index = chooser.chooseOption(state, options);
+            remember(key, index, options.size());
+        }
+        return index;
+    }
+
+    /**
+     * Caches a choice the player made, unless it was not one of the options.
+     */
+    void remember(long key, int index, int optionCount) {
+        if (index >= 0 && index < optionCount) {
+            cache.put(key, index);
+        }
+    }
+
+    public Player getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Gets the wrapped player, adapted to choose by index.
+     */
+    IndexedPlayer getChooser() {
+        return chooser;
+    }
+
+    public DecisionCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,74 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.time.Duration;
+
+/**
+ * How one player fared against the {@link TimeLimits} of a game.
+ *
+ * @see EngineImpl#getOverrunStats()
+ */
+public final class OverrunStats {
+    private final String playerName;
+    private final int decisions;
+    private final int overruns;
+    private final long timeUsedNanos;
+    private final long longestDecisionNanos;
+    private final int stuckDecisions;
+
+    OverrunStats(String playerName, int decisions, int overruns, long timeUsedNanos, long longestDecisionNanos,
+                 int stuckDecisions) {
+        this.playerName = playerName;
+        this.decisions = decisions;
+        this.overruns = overruns;
+        this.timeUsedNanos = timeUsedNanos;
+        this.longestDecisionNanos = longestDecisionNanos;
+        this.stuckDecisions = stuckDecisions;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    /**
+     * Gets the number of decisions asked of the player, including those it overran.
+     */
+    public int getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * Gets the number of decisions the player did not make in time.
+     */
+    public int getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Gets the time counted against the player's per-game budget.
+     */
+    public Duration getTimeUsed() {
+        return Duration.ofNanos(timeUsedNanos);
+    }
+
+    /**
+     * Gets the longest the player was waited for, which is at most the per-decision limit.
+     */
+    public Duration getLongestDecision() {
+        return Duration.ofNanos(longestDecisionNanos);
+    }
+
+    /**
+     * Gets the number of overrun decisions the player was still making when these stats
+     * were taken. Each of them holds a thread until the player returns.
+     */
+    public int getStuckDecisions() {
+        return stuckDecisions;
+    }
+
+    @Override
+    public String toString() {
+        String stuck = stuckDecisions == 0 ? "" : String.format(", %d still running", stuckDecisions);
+        return String.format("%s: %d of %d decisions overran%s, %.1f ms used",
+            playerName, overruns, decisions, stuck, timeUsedNanos / 1e6);
+    }
+}
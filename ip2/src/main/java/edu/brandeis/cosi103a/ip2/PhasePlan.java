@@ -0,0 +1,98 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * The decisions a {@link PhasePlanner} makes for a phase in advance: either a fixed
+ * sequence of decisions, or a rule for playing cards from the hand until none are left.
+ */
+public final class PhasePlan {
+    private enum Kind { SEQUENCE, PLAY_ALL, PLAY_HAND }
+
+    private final Kind kind;
+    private final ImmutableList<Decision> steps;  // For SEQUENCE
+    private final CardType type;                  // For PLAY_ALL and PLAY_HAND
+
+    private PhasePlan(Kind kind, ImmutableList<Decision> steps, CardType type) {
+        this.kind = kind;
+        this.steps = steps;
+        this.type = type;
+    }
+
+    /**
+     * Plans to make the given decisions in order, such as playing some action cards or
+     * buying some cards. End with {@link EndPhaseDecision} to end the phase; otherwise the
+     * player is asked for the rest of the phase one decision at a time.
+     *
+     * @throws IllegalArgumentException if a step is null
+     */
+    public static PhasePlan sequence(List<? extends Decision> steps) {
+        for (Decision step : steps) {
+            if (step == null) {
+                throw new IllegalArgumentException("Plan steps must not be null");
+            }
+        }
+        return new PhasePlan(Kind.SEQUENCE, ImmutableList.copyOf(steps), null);
+    }
+
+    /**
+     * Plans to play every card of a type in the hand, lowest card id first, then end the
+     * phase. Cards drawn while playing are played too.
+     */
+    public static PhasePlan playAll(CardType type) {
+        return new PhasePlan(Kind.PLAY_ALL, ImmutableList.of(), type);
+    }
+
+    /**
+     * Plans to play every card in the hand, those of the given type first, and then end
+     * the phase.
+     */
+    public static PhasePlan playHand(CardType first) {
+        return new PhasePlan(Kind.PLAY_HAND, ImmutableList.of(), first);
+    }
+
+    /**
+     * Gets the index of the option for a step of the plan.
+     *
+     * @param options the options of the decision
+     * @param step the number of steps of the plan already taken
+     * @return the index, or -1 if the plan is done or its step is not one of the options
+     */
+    int nextOption(ImmutableList<Decision> options, int step) {
+        switch (kind) {
+            case SEQUENCE:
+                return step < steps.size() ? IndexedPlayer.indexOf(options, steps.get(step)) : -1;
+            case PLAY_HAND: {
+                int index = firstPlay(options, type);
+                return index >= 0 ? index : orEndPhase(options, firstPlay(options, null));
+            }
+            default:
+                return orEndPhase(options, firstPlay(options, type));
+        }
+    }
+
+    /**
+     * Finds the first option that plays a card of the given type, or of any type if null.
+     */
+    private static int firstPlay(ImmutableList<Decision> options, CardType type) {
+        for (int i = 0; i < options.size(); i++) {
+            Decision option = options.get(i);
+            if (option instanceof PlayCardDecision
+                    && (type == null || ((PlayCardDecision) option).getCard().getType() == type)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int orEndPhase(ImmutableList<Decision> options, int index) {
+        return index >= 0 ? index : options.indexOf(EndPhaseDecision.getInstance());
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.SEQUENCE ? "Plan " + steps : "Plan " + kind + " " + type;
+    }
+}
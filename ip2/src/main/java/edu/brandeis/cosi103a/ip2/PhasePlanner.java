@@ -0,0 +1,28 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A player that can decide a whole phase at once. Implemented alongside {@link Player}.
+ *
+ * At the first decision of each phase, {@link EngineImpl} asks the player for a
+ * {@link PhasePlan} and then applies its steps itself, without building a
+ * {@link GameState} or calling the player for each card. Each step is still validated
+ * against the options of its decision and reported to listeners like any other decision.
+ * If the plan runs out, or a step is not one of the options, the engine asks the player
+ * one decision at a time for the rest of the phase.
+ *
+ * Plans are not used while the engine has time limits.
+ */
+public interface PhasePlanner {
+
+    /**
+     * Plans the rest of the phase from its first decision. Like decisions, plans must
+     * not throw; an exception forfeits the game.
+     *
+     * @param state the game state at the first decision of the phase
+     * @param options the options of that decision
+     * @return the plan, or null to decide one step at a time
+     */
+    PhasePlan planPhase(GameState state, ImmutableList<Decision> options);
+}
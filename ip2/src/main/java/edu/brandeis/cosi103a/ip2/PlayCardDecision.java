@@ -4,12 +4,37 @@ package edu.brandeis.cosi103a.ip2;
  * Decision to play a card from the player's hand.
  */
 public class PlayCardDecision extends Decision {
+    // Canonical instance for every registered card, indexed by card id
+    private static final PlayCardDecision[] CANONICAL = new PlayCardDecision[CardRegistry.size()];
+
+    static {
+        for (int id = 0; id < CANONICAL.length; id++) {
+            CANONICAL[id] = new PlayCardDecision(CardRegistry.get(id));
+        }
+    }
+
     private final CardDefinition card;
 
     public PlayCardDecision(CardDefinition card) {
         this.card = card;
     }
 
+    /**
+     * Gets the shared decision to play the given card. Registered cards always map to
+     * the same instance; other cards get a new decision.
+     */
+    public static PlayCardDecision of(CardDefinition card) {
+        int id = CardRegistry.idOf(card);
+        return id == CardDefinition.UNREGISTERED ? new PlayCardDecision(card) : CANONICAL[id];
+    }
+
+    /**
+     * Gets the shared decision to play the card with the given id.
+     */
+    public static PlayCardDecision of(int cardId) {
+        return CANONICAL[cardId];
+    }
+
     public CardDefinition getCard() {
         return card;
     }
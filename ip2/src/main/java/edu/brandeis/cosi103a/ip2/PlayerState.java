@@ -1,174 +1,141 @@
 package edu.brandeis.cosi103a.ip2;
 
-import java.util.*;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Represents the complete state of a player during the game.
- * This includes their deck, hand, discard pile, and played cards.
+ * This includes their deck, hand, discard pile, and played cards, plus the
+ * resources (actions, buys, money) of the current turn.
  */
-public class PlayerState {
-    private final Player player;
-    private final List<CardDefinition> deck;
-    private final List<CardDefinition> hand;
-    private final List<CardDefinition> discard;
-    private final List<CardDefinition> played;
-    
-    // Turn resources
-    private int actions;
-    private int buys;
-    private int money;
-
-    public PlayerState(Player player) {
-        this.player = player;
-        this.deck = new ArrayList<>();
-        this.hand = new ArrayList<>();
-        this.discard = new ArrayList<>();
-        this.played = new ArrayList<>();
-        
-        // Initialize starting deck: 7 Bitcoin, 3 Method
-        for (int i = 0; i < 7; i++) {
-            deck.add(Cards.BITCOIN);
-        }
-        for (int i = 0; i < 3; i++) {
-            deck.add(Cards.METHOD);
-        }
-        
-        shuffleDeck();
-        drawCards(5);
-    }
+public interface PlayerState {
 
-    public Player getPlayer() {
-        return player;
+    /**
+     * Creates the state of a player at the start of a game: the starting deck
+     * shuffled and an opening hand drawn.
+     */
+    @FunctionalInterface
+    interface Factory {
+        /**
+         * @param player the player the state belongs to
+         * @param random the generator for this player's shuffles; not shared with any other state
+         * @return the new player state
+         */
+        PlayerState create(Player player, SplittableRandom random);
     }
 
-    public List<CardDefinition> getHand() {
-        return new ArrayList<>(hand);
-    }
+    Player getPlayer();
 
-    public List<CardDefinition> getDeck() {
-        return new ArrayList<>(deck);
-    }
+    /**
+     * Gets a copy of the cards in hand.
+     */
+    List<CardDefinition> getHand();
 
-    public List<CardDefinition> getDiscard() {
-        return new ArrayList<>(discard);
-    }
+    /**
+     * Gets a copy of the cards in the deck.
+     */
+    List<CardDefinition> getDeck();
 
-    public List<CardDefinition> getPlayed() {
-        return new ArrayList<>(played);
-    }
+    /**
+     * Gets a copy of the cards in the discard pile.
+     */
+    List<CardDefinition> getDiscard();
 
-    public int getActions() {
-        return actions;
-    }
+    /**
+     * Gets a copy of the cards played this turn.
+     */
+    List<CardDefinition> getPlayed();
 
-    public int getBuys() {
-        return buys;
-    }
+    /**
+     * Gets an immutable view of the cards in hand. The same instance is returned
+     * until the hand changes, so it can be shared by consecutive snapshots.
+     */
+    ImmutableList<CardDefinition> getHandView();
 
-    public int getMoney() {
-        return money;
-    }
+    int getHandSize();
 
-    public void setActions(int actions) {
-        this.actions = actions;
-    }
+    /**
+     * Gets the bitmask (see {@link DecisionOptions#bit}) of the registered cards in hand.
+     */
+    long getHandMask();
 
-    public void setBuys(int buys) {
-        this.buys = buys;
-    }
+    /**
+     * Counts the copies of a card in hand.
+     */
+    int countInHand(CardDefinition card);
 
-    public void setMoney(int money) {
-        this.money = money;
-    }
+    /**
+     * Gets the number of cards this player owns across all zones.
+     */
+    int getCardCount();
+
+    int getActions();
+
+    int getBuys();
+
+    int getMoney();
+
+    void setActions(int actions);
+
+    void setBuys(int buys);
+
+    void setMoney(int money);
 
     /**
      * Starts a new turn by resetting resources.
      */
-    public void startTurn() {
-        actions = 1;
-        buys = 1;
-        money = 0;
-    }
+    void startTurn();
 
     /**
      * Plays a card from hand.
+     *
+     * @return true if the card was in hand and has been played
      */
-    public boolean playCard(CardDefinition card) {
-        if (hand.remove(card)) {
-            played.add(card);
-            return true;
-        }
-        return false;
-    }
+    boolean playCard(CardDefinition card);
 
     /**
      * Gains a card (adds to discard pile).
      */
-    public void gainCard(CardDefinition card) {
-        discard.add(card);
-    }
+    void gainCard(CardDefinition card);
 
     /**
      * Draws cards from deck to hand, shuffling discard if needed.
      */
-    public void drawCards(int count) {
-        for (int i = 0; i < count; i++) {
-            if (deck.isEmpty()) {
-                deck.addAll(discard);
-                discard.clear();
-                shuffleDeck();
-            }
-            if (!deck.isEmpty()) {
-                hand.add(deck.remove(0));
-            }
-        }
-    }
+    void drawCards(int count);
 
     /**
-     * Shuffles the deck.
+     * Moves the whole discard pile into the deck. Decks are drawn in random order, so
+     * the cards are not shuffled here; {@link #drawCards} recycles the discard pile by
+     * itself whenever the deck runs out.
      */
-    public void shuffleDeck() {
-        Collections.shuffle(deck);
-    }
+    void recycleDiscard();
+
+    /**
+     * Replaces the generator used for this player's draws. The engine gives every turn
+     * its own generator, derived from the game seed and the turn number.
+     */
+    void setRandom(SplittableRandom random);
+
+    /**
+     * Replaces the contents of the deck, hand and discard pile, in the order given, and
+     * empties the played cards, e.g. to resume a game from a checkpoint between turns.
+     */
+    void restoreZones(List<CardDefinition> deck, List<CardDefinition> hand, List<CardDefinition> discard);
 
     /**
      * Ends the turn: discard hand and played cards, draw new hand.
      */
-    public void cleanup() {
-        discard.addAll(hand);
-        discard.addAll(played);
-        hand.clear();
-        played.clear();
-        drawCards(5);
-    }
+    void cleanup();
 
     /**
      * Calculates the total score (points) for this player.
      */
-    public int calculateScore() {
-        int score = 0;
-        List<CardDefinition> allCards = new ArrayList<>();
-        allCards.addAll(deck);
-        allCards.addAll(hand);
-        allCards.addAll(discard);
-        allCards.addAll(played);
-        
-        for (CardDefinition card : allCards) {
-            score += card.getPoints();
-        }
-        
-        return score;
-    }
+    int calculateScore();
 
     /**
      * Gets all cards owned by this player (for final results).
      */
-    public List<CardDefinition> getAllCards() {
-        List<CardDefinition> allCards = new ArrayList<>();
-        allCards.addAll(deck);
-        allCards.addAll(hand);
-        allCards.addAll(discard);
-        allCards.addAll(played);
-        return allCards;
-    }
+    List<CardDefinition> getAllCards();
 }
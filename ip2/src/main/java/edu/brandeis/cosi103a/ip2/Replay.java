@@ -0,0 +1,120 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A recorded game being re-executed, positioned between turns. Created by
+ * {@link ReplayLog#seek}; the position can be inspected with {@link #fork()}
+ * and advanced a turn at a time.
+ */
+public final class Replay {
+    private final EngineImpl engine;
+    private final ReplayLog.DecisionReader reader;
+    private final int numPlayers;
+    private final boolean ordered;
+
+    Replay(ImmutableList<String> playerNames, long seed, ReplayLog.Representation representation,
+           ReplayLog.DecisionReader reader) {
+        this.reader = reader;
+        this.numPlayers = playerNames.size();
+        this.ordered = representation.ordered;
+        List<Player> seats = new ArrayList<>(numPlayers);
+        for (String name : playerNames) {
+            seats.add(new ScriptedPlayer(name));
+        }
+        this.engine = new EngineImpl(seats, seed, representation.factory);
+    }
+
+    void restore(int[] checkpoint, int completedTurns) {
+        ReplayCheckpoint.restore(engine, numPlayers, checkpoint, completedTurns, ordered);
+    }
+
+    /**
+     * Plays forward until the given turn is next, or the game is over.
+     */
+    void skipTo(int turn) throws PlayerViolationException {
+        while (engine.getTurn() < turn - 1 && engine.playNextTurn()) {
+            // Keep going
+        }
+    }
+
+    /**
+     * Gets the number of turns played so far, across all players.
+     */
+    public int getCompletedTurns() {
+        return engine.getTurn();
+    }
+
+    /**
+     * Gets the number of recorded decisions played so far.
+     */
+    public int getDecisionIndex() {
+        return reader.getPosition();
+    }
+
+    public boolean isGameOver() {
+        return engine.getCardStacks().isGameOver();
+    }
+
+    /**
+     * Captures the current position, e.g. to inspect supplies, hands and scores.
+     */
+    public GameFork fork() {
+        return engine.fork();
+    }
+
+    /**
+     * Plays the next recorded turn.
+     *
+     * @return false if the game was already over
+     * @throws PlayerViolationException if the recorded game ended in a violation during
+     *         the turn, or if the log ends before the turn does
+     */
+    public boolean step() throws PlayerViolationException {
+        return engine.playNextTurn();
+    }
+
+    /**
+     * Plays the rest of the recorded game.
+     *
+     * @return the result of the game
+     * @throws PlayerViolationException if the recorded game ended in a violation,
+     *         or if the log ends before the game does
+     * @throws IllegalStateException if the game ends before the log does
+     */
+    public GameResult finish() throws PlayerViolationException {
+        while (engine.playNextTurn()) {
+            // Keep going
+        }
+        if (reader.hasNext()) {
+            throw new IllegalStateException("Game ended after " + reader.getPosition() + " recorded decisions, "
+                + "but the log has more");
+        }
+        return engine.calculateResults();
+    }
+
+    /**
+     * Plays back the recorded decisions. All seats share the reader, since the log
+     * interleaves their decisions in the order the engine asked for them.
+     */
+    private final class ScriptedPlayer implements IndexedPlayer {
+        private final String name;
+
+        ScriptedPlayer(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int chooseOption(GameState state, ImmutableList<Decision> options) {
+            return reader.next();
+        }
+    }
+}
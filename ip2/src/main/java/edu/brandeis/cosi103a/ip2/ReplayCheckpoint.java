@@ -0,0 +1,183 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Captures and restores the state of a game between turns, for seekable replays.
+ *
+ * A checkpoint is a vector of ints: the supply count of every registered card, then the
+ * deck, hand and discard pile of each seat. For player states whose zones are unordered,
+ * such as {@link CountingPlayerState}, each zone is the count of every card, so every
+ * count keeps its position from one checkpoint to the next. For states whose zone order
+ * affects later draws, such as {@link ListPlayerState}, each zone is its length followed
+ * by its card ids, in zone order. Played cards are always empty between turns, and turn
+ * resources are reset when a turn starts, so nothing else is needed. Draw order does not
+ * need saving either, since every turn draws from its own generator (see {@link EngineImpl}).
+ *
+ * Checkpoints are written either in full or as a delta against the previous checkpoint:
+ * element-wise differences, with runs of unchanged elements collapsed to their length.
+ * Deltas of counts only carry the cards a turn moved. Deltas of ordered zones shift
+ * whenever a zone grows or shrinks, and only pay off where a zone kept its order.
+ */
+final class ReplayCheckpoint {
+    private static final int FULL = 0;
+    private static final int DELTA = 1;
+
+    private ReplayCheckpoint() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Captures the state of a game that is between turns.
+     *
+     * @param ordered whether to capture the order of each zone, rather than its counts
+     * @throws IllegalStateException if a player holds a card that is not in the {@link CardRegistry}
+     */
+    static int[] capture(EngineImpl engine, int numPlayers, boolean ordered) {
+        int cards = CardRegistry.size();
+        int length = cards;
+        List<List<CardDefinition>> zones = new ArrayList<>(3 * numPlayers);
+        for (int seat = 0; seat < numPlayers; seat++) {
+            PlayerState state = engine.getPlayerState(seat);
+            for (List<CardDefinition> zone : Arrays.asList(state.getDeck(), state.getHand(), state.getDiscard())) {
+                zones.add(zone);
+                length += ordered ? 1 + zone.size() : cards;
+            }
+        }
+
+        int[] vector = new int[length];
+        CardStacks supply = engine.getCardStacks();
+        for (int id = 0; id < cards; id++) {
+            vector[id] = supply.getCount(id);
+        }
+        int position = cards;
+        for (List<CardDefinition> zone : zones) {
+            if (ordered) {
+                vector[position++] = zone.size();
+            }
+            for (CardDefinition card : zone) {
+                int id = CardRegistry.idOf(card);
+                if (id == CardDefinition.UNREGISTERED) {
+                    throw new IllegalStateException("Cannot checkpoint unknown card: " + card);
+                }
+                if (ordered) {
+                    vector[position++] = id;
+                } else {
+                    vector[position + id]++;
+                }
+            }
+            position += ordered ? 0 : cards;
+        }
+        return vector;
+    }
+
+    /**
+     * Restores a game to a checkpoint taken after the given number of turns.
+     *
+     * @param ordered whether the checkpoint was captured with the order of each zone
+     */
+    static void restore(EngineImpl engine, int numPlayers, int[] vector, int completedTurns, boolean ordered) {
+        int cards = CardRegistry.size();
+        engine.getCardStacks().setCounts(Arrays.copyOf(vector, cards));
+        int position = cards;
+        for (int seat = 0; seat < numPlayers; seat++) {
+            List<List<CardDefinition>> zones = new ArrayList<>(3);
+            for (int zone = 0; zone < 3; zone++) {
+                List<CardDefinition> cardsInZone = new ArrayList<>();
+                if (ordered) {
+                    for (int i = vector[position++]; i > 0; i--) {
+                        cardsInZone.add(CardRegistry.get(vector[position++]));
+                    }
+                } else {
+                    for (int id = 0; id < cards; id++, position++) {
+                        for (int i = vector[position]; i > 0; i--) {
+                            cardsInZone.add(CardRegistry.get(id));
+                        }
+                    }
+                }
+                zones.add(cardsInZone);
+            }
+            engine.getPlayerState(seat).restoreZones(zones.get(0), zones.get(1), zones.get(2));
+        }
+        engine.resumeAfterTurn(completedTurns);
+    }
+
+    /**
+     * Writes a checkpoint, as a delta against the previous one unless that is null.
+     */
+    static void write(ByteSink out, int[] vector, int[] previous) {
+        out.writeVarint(vector.length);
+        if (previous == null) {
+            out.writeByte(FULL);
+            for (int value : vector) {
+                out.writeVarint(value);
+            }
+            return;
+        }
+
+        // Groups of (unchanged run length, changed count, differences) until the end
+        out.writeByte(DELTA);
+        int position = 0;
+        while (position < vector.length) {
+            int runStart = position;
+            while (position < vector.length && difference(vector, previous, position) == 0) {
+                position++;
+            }
+            int changedStart = position;
+            while (position < vector.length && difference(vector, previous, position) != 0) {
+                position++;
+            }
+            out.writeVarint(changedStart - runStart);
+            out.writeVarint(position - changedStart);
+            for (int i = changedStart; i < position; i++) {
+                out.writeVarint(difference(vector, previous, i));
+            }
+        }
+    }
+
+    /**
+     * Reads a checkpoint written by {@link #write}.
+     *
+     * @param previous the checkpoint before it, needed if it is a delta
+     * @throws IOException if the checkpoint is malformed, or is a delta and previous is null
+     */
+    static int[] read(ByteSource in, int[] previous) throws IOException {
+        int length = in.readVarint();
+        if (length < 0) {
+            throw new IOException("Malformed checkpoint length " + length);
+        }
+        int[] vector = new int[length];
+        int kind = in.readByte();
+        if (kind == FULL) {
+            for (int i = 0; i < length; i++) {
+                vector[i] = in.readVarint();
+            }
+            return vector;
+        }
+        if (kind != DELTA || previous == null) {
+            throw new IOException("Unexpected checkpoint kind " + kind);
+        }
+
+        System.arraycopy(previous, 0, vector, 0, Math.min(length, previous.length));
+        int position = 0;
+        while (position < length) {
+            int unchanged = in.readVarint();
+            int changed = in.readVarint();
+            if (unchanged < 0 || changed < 0 || position + unchanged + changed > length) {
+                throw new IOException("Malformed checkpoint delta");
+            }
+            position += unchanged;
+            for (int i = 0; i < changed; i++, position++) {
+                vector[position] += in.readVarint();
+            }
+        }
+        return vector;
+    }
+
+    private static int difference(int[] vector, int[] previous, int position) {
+        return vector[position] - (position < previous.length ? previous[position] : 0);
+    }
+}
@@ -0,0 +1,335 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A game recorded by {@link ReplayRecorder}, which can be re-executed through
+ * {@link EngineImpl} without calling any of the original players, from the start
+ * or from any turn.
+ *
+ * Log format: the magic bytes "AR", a version byte, the seed as a big-endian long, the
+ * number of players as a byte, each player's name as modified UTF-8 (see
+ * {@link DataOutputStream#writeUTF}), the player state representation as a byte (see
+ * {@link Representation}) and the checkpoint interval K. Then come the
+ * segments: segment i holds a checkpoint of the game after turn i * K (none for
+ * segment 0), then one zigzag varint option index per decision until the next segment.
+ * The turn index follows: the segment count, then each segment's checkpoint offset,
+ * decision offset and decision count. The last four bytes hold the offset of the index.
+ */
+public final class ReplayLog {
+    private static final byte[] MAGIC = "AR".getBytes(StandardCharsets.US_ASCII);
+    // Version 1 logs predate per-turn generators; version 2 logs do not record the representation
+    private static final int VERSION = 3;
+
+    /**
+     * The player state representations a game can be recorded with. Each draws differently
+     * from the same seed, so a game must be replayed with the one it was played with.
+     */
+    enum Representation {
+        LIST(ListPlayerState::new, true),
+        COUNTING(CountingPlayerState::new, false);
+
+        final PlayerState.Factory factory;
+        final boolean ordered;  // Whether the order of each zone affects later draws
+
+        Representation(PlayerState.Factory factory, boolean ordered) {
+            this.factory = factory;
+            this.ordered = ordered;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the state is not of a representation that can be replayed
+         */
+        static Representation of(PlayerState state) {
+            if (state instanceof ListPlayerState) {
+                return LIST;
+            }
+            if (state instanceof CountingPlayerState) {
+                return COUNTING;
+            }
+            throw new IllegalArgumentException("Cannot record games with player states of type "
+                + state.getClass().getName());
+        }
+    }
+
+    private final byte[] log;
+    private final long seed;
+    private final ImmutableList<String> playerNames;
+    private final Representation representation;
+    private final int checkpointInterval;
+    private final int[] checkpointOffsets;
+    private final int[] decisionOffsets;
+    private final int[] decisionCounts;
+    private final int[] firstDecisions;  // Index of each segment's first decision in the game
+    private final int decisionCount;
+    private int[] decisions;  // Decoded on first use
+
+    private ReplayLog(byte[] log, long seed, ImmutableList<String> playerNames, Representation representation,
+                      int checkpointInterval, int[] checkpointOffsets, int[] decisionOffsets, int[] decisionCounts) {
+        this.log = log;
+        this.seed = seed;
+        this.playerNames = playerNames;
+        this.representation = representation;
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointOffsets = checkpointOffsets;
+        this.decisionOffsets = decisionOffsets;
+        this.decisionCounts = decisionCounts;
+        this.firstDecisions = new int[decisionCounts.length];
+        int total = 0;
+        for (int i = 0; i < decisionCounts.length; i++) {
+            firstDecisions[i] = total;
+            total += decisionCounts[i];
+        }
+        this.decisionCount = total;
+    }
+
+    /**
+     * Parses the header and turn index of a replay log. Decisions and checkpoints are
+     * only decoded when they are needed.
+     *
+     * @throws IOException if the bytes are not a valid replay log
+     */
+    public static ReplayLog read(byte[] log) throws IOException {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(log));
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a replay log");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay log version " + version);
+        }
+        long seed = data.readLong();
+        int numPlayers = data.readUnsignedByte();
+        ImmutableList.Builder<String> names = ImmutableList.builder();
+        for (int i = 0; i < numPlayers; i++) {
+            names.add(data.readUTF());
+        }
+        int representation = data.readUnsignedByte();
+        if (representation >= Representation.values().length) {
+            throw new IOException("Unknown player state representation " + representation);
+        }
+        ByteSource in = new ByteSource(log, log.length - data.available());
+        int checkpointInterval = in.readVarint();
+        int headerEnd = in.getPosition();
+        if (checkpointInterval < 0 || log.length < headerEnd + 4) {
+            throw new IOException("Malformed replay log header");
+        }
+
+        in.setPosition(log.length - 4);
+        int indexOffset = in.readInt();
+        if (indexOffset < headerEnd || indexOffset > log.length - 4) {
+            throw new IOException("Malformed replay log index offset " + indexOffset);
+        }
+        in.setPosition(indexOffset);
+        int segments = in.readVarint();
+        if (segments < 1 || segments > log.length) {
+            throw new IOException("Malformed replay log index");
+        }
+        int[] checkpointOffsets = new int[segments];
+        int[] decisionOffsets = new int[segments];
+        int[] decisionCounts = new int[segments];
+        for (int i = 0; i < segments; i++) {
+            checkpointOffsets[i] = in.readVarint();
+            decisionOffsets[i] = in.readVarint();
+            decisionCounts[i] = in.readVarint();
+            if (checkpointOffsets[i] < headerEnd || decisionOffsets[i] < checkpointOffsets[i]
+                    || decisionOffsets[i] > indexOffset || decisionCounts[i] < 0) {
+                throw new IOException("Malformed replay log index entry " + i);
+            }
+        }
+        return new ReplayLog(log, seed, names.build(), Representation.values()[representation], checkpointInterval,
+            checkpointOffsets, decisionOffsets, decisionCounts);
+    }
+
+    /**
+     * Parses a replay log, reading the stream to its end.
+     *
+     * @throws IOException if the stream cannot be read or does not hold a valid replay log
+     */
+    public static ReplayLog read(InputStream in) throws IOException {
+        return read(in.readAllBytes());
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the names of the players, in seat order.
+     */
+    public ImmutableList<String> getPlayerNames() {
+        return playerNames;
+    }
+
+    /**
+     * Gets the player state representation the game was played, and is replayed, with.
+     */
+    Representation getRepresentation() {
+        return representation;
+    }
+
+    /**
+     * Gets the number of turns between checkpoints, or 0 if the log has none.
+     */
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public int getCheckpointCount() {
+        return checkpointOffsets.length - 1;
+    }
+
+    public int getDecisionCount() {
+        return decisionCount;
+    }
+
+    /**
+     * Gets the option index chosen by the given decision, counting from the start of the game.
+     *
+     * @throws IllegalStateException if the log's decisions are malformed
+     */
+    public int getDecision(int index) {
+        if (decisions == null) {
+            int[] decoded = new int[decisionCount];
+            DecisionReader reader = new DecisionReader(0);
+            for (int i = 0; i < decisionCount; i++) {
+                decoded[i] = reader.next();
+            }
+            decisions = decoded;
+        }
+        return decisions[index];
+    }
+
+    /**
+     * Re-executes the game, with the player state representation it was recorded with.
+     *
+     * @return the result of the recorded game
+     * @throws PlayerViolationException if the recorded game ended in a violation,
+     *         or if the log ends before the game does
+     * @throws IllegalStateException if the game ends before the log does
+     */
+    public GameResult replay() throws PlayerViolationException {
+        try {
+            return seek(1).finish();
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed replay log", e);
+        }
+    }
+
+    /**
+     * Positions a replay at the start of the given turn (counting from 1 across all
+     * players), or at the end of the game if it ended sooner. The replay restores the
+     * last checkpoint before the turn and plays forward from there, so the cost does not
+     * depend on how far into the game the turn is: at most {@value ReplayRecorder#KEYFRAME_INTERVAL}
+     * checkpoints are decoded and fewer than K turns are played.
+     *
+     * @param turn the turn to seek to
+     * @throws IOException if a checkpoint is malformed
+     * @throws PlayerViolationException if the recorded game ended in a violation before the turn
+     */
+    public Replay seek(int turn) throws IOException, PlayerViolationException {
+        if (turn < 1) {
+            throw new IllegalArgumentException("Turns are numbered from 1");
+        }
+        int segment = checkpointInterval == 0
+            ? 0
+            : Math.min((turn - 1) / checkpointInterval, getCheckpointCount());
+        DecisionReader reader = new DecisionReader(segment);
+        Replay replay = new Replay(playerNames, seed, representation, reader);
+        if (segment > 0) {
+            int keyframe = segment - (segment - 1) % ReplayRecorder.KEYFRAME_INTERVAL;
+            int[] checkpoint = null;
+            for (int i = keyframe; i <= segment; i++) {
+                checkpoint = ReplayCheckpoint.read(new ByteSource(log, checkpointOffsets[i]), checkpoint);
+            }
+            replay.restore(checkpoint, segment * checkpointInterval);
+        }
+        replay.skipTo(turn);
+        return replay;
+    }
+
+    /**
+     * Reads decisions in game order, from the start of a segment, stepping over the
+     * checkpoints between segments.
+     */
+    final class DecisionReader {
+        private final ByteSource source;
+        private int segment;
+        private int remaining;
+        private int position;  // Index of the next decision in the game
+
+        private DecisionReader(int segment) {
+            this.segment = segment;
+            this.source = new ByteSource(log, decisionOffsets[segment]);
+            this.remaining = decisionCounts[segment];
+            this.position = firstDecisions[segment];
+        }
+
+        /**
+         * Gets the index of the next decision, counting from the start of the game.
+         */
+        int getPosition() {
+            return position;
+        }
+
+        boolean hasNext() {
+            return position < decisionCount;
+        }
+
+        /**
+         * @throws IllegalStateException if every decision has been read, or the log is malformed
+         */
+        int next() {
+            if (!hasNext()) {
+                throw new IllegalStateException("Replay log ended after " + decisionCount + " decisions");
+            }
+            while (remaining == 0) {
+                segment++;
+                source.setPosition(decisionOffsets[segment]);
+                remaining = decisionCounts[segment];
+            }
+            try {
+                int decision = source.readVarint();
+                remaining--;
+                position++;
+                return decision;
+            } catch (IOException e) {
+                throw new IllegalStateException("Malformed decision " + position, e);
+            }
+        }
+    }
+
+    /**
+     * Encodes the log header.
+     */
+    static byte[] encodeHeader(long seed, List<String> playerNames, Representation representation,
+                               int checkpointInterval) {
+        if (playerNames.size() > 255) {
+            throw new IllegalArgumentException("Too many players: " + playerNames.size());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            out.writeByte(playerNames.size());
+            for (String name : playerNames) {
+                out.writeUTF(name);
+            }
+            out.writeByte(representation.ordinal());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // Not thrown by an in-memory stream
+        }
+        ByteSink header = new ByteSink(bytes.size() + ByteSink.MAX_VARINT_BYTES);
+        header.writeBytes(bytes.toByteArray());
+        header.writeVarint(checkpointInterval);
+        return header.toByteArray();
+    }
+}
@@ -0,0 +1,172 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records a game as a compact binary replay log, which {@link ReplayLog} can re-execute.
+ *
+ * The log holds the game's seed, player names and player state representation, then
+ * every decision as the index of the chosen option, zigzag varint encoded: one byte per
+ * decision for any option list shorter than 64. Nothing else is needed to replay from the start, because the engine
+ * is deterministic given the seed and the decisions. Recording appends to an in-memory
+ * buffer and never allocates while it has room, so it can stay on for every game.
+ *
+ * When attached to an engine, the recorder also writes a checkpoint of the game every
+ * K turns, so that a replay can seek to any turn by restoring the nearest checkpoint and
+ * replaying at most K turns. Checkpoints are delta-compressed against the previous one,
+ * with a full checkpoint every {@value #KEYFRAME_INTERVAL} to bound the deltas a seek
+ * has to apply.
+ *
+ * <pre>
+ * ReplayRecorder recorder = ReplayRecorder.attach(engine);
+ * engine.play();
+ * byte[] log = recorder.toByteArray();
+ * </pre>
+ */
+public final class ReplayRecorder implements DecisionListener {
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 16;
+    static final int KEYFRAME_INTERVAL = 8;
+
+    private final byte[] header;
+    private final EngineImpl engine;  // Null if not checkpointing
+    private final int numPlayers;
+    private final boolean orderedCheckpoints;
+    private final int checkpointInterval;
+    private final ByteSink body = new ByteSink(256);
+
+    // Segment i starts with the checkpoint after turn i * K (none for segment 0), then its decisions
+    private int[] checkpointOffsets = new int[8];
+    private int[] decisionOffsets = new int[8];
+    private int[] decisionCounts = new int[8];
+    private int segments = 1;
+    private int[] lastCheckpoint;
+    private int decisionCount;
+
+    /**
+     * Creates a recorder without checkpoints for a game with the given seed and players,
+     * played with the default player state representation. It must be registered as the
+     * engine's decision listener; see {@link #attach(EngineImpl)}.
+     */
+    public ReplayRecorder(long seed, List<String> playerNames) {
+        this(seed, playerNames, ReplayLog.Representation.LIST, null, 0);
+    }
+
+    private ReplayRecorder(long seed, List<String> playerNames, ReplayLog.Representation representation,
+                           EngineImpl engine, int checkpointInterval) {
+        this.header = ReplayLog.encodeHeader(seed, playerNames, representation, checkpointInterval);
+        this.engine = engine;
+        this.numPlayers = playerNames.size();
+        this.orderedCheckpoints = representation.ordered;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Creates a recorder for an engine's game, with a checkpoint every
+     * {@value #DEFAULT_CHECKPOINT_INTERVAL} turns, and registers it as the engine's
+     * decision listener.
+     */
+    public static ReplayRecorder attach(EngineImpl engine) {
+        return attach(engine, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Creates a recorder for an engine's game and registers it as the engine's decision listener.
+     * The log records the engine's player state representation, which replays use.
+     *
+     * @param checkpointInterval the number of turns between checkpoints, or 0 for none
+     * @throws IllegalArgumentException if the engine's player states are neither
+     *         {@link ListPlayerState} nor {@link CountingPlayerState}
+     */
+    public static ReplayRecorder attach(EngineImpl engine, int checkpointInterval) {
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("Checkpoint interval must not be negative");
+        }
+        ReplayLog.Representation representation = ReplayLog.Representation.of(engine.getPlayerState(0));
+        ReplayRecorder recorder = new ReplayRecorder(engine.getSeed(), engine.getPlayerNames(), representation,
+            engine, checkpointInterval);
+        engine.setDecisionListener(recorder);
+        return recorder;
+    }
+
+    @Override
+    public void turnStarted(int turn, int seat) {
+        if (engine == null || checkpointInterval == 0 || turn == 1 || (turn - 1) % checkpointInterval != 0) {
+            return;
+        }
+        if (segments == checkpointOffsets.length) {
+            checkpointOffsets = Arrays.copyOf(checkpointOffsets, segments * 2);
+            decisionOffsets = Arrays.copyOf(decisionOffsets, segments * 2);
+            decisionCounts = Arrays.copyOf(decisionCounts, segments * 2);
+        }
+        int[] checkpoint = ReplayCheckpoint.capture(engine, numPlayers, orderedCheckpoints);
+        boolean keyframe = (segments - 1) % KEYFRAME_INTERVAL == 0;
+        checkpointOffsets[segments] = body.size();
+        ReplayCheckpoint.write(body, checkpoint, keyframe ? null : lastCheckpoint);
+        decisionOffsets[segments] = body.size();
+        lastCheckpoint = checkpoint;
+        segments++;
+    }
+
+    @Override
+    public void decisionMade(int seat, TurnPhase phase, int optionIndex) {
+        body.writeVarint(optionIndex);
+        decisionCounts[segments - 1]++;
+        decisionCount++;
+    }
+
+    /**
+     * Gets the number of decisions recorded so far.
+     */
+    public int getDecisionCount() {
+        return decisionCount;
+    }
+
+    /**
+     * Gets the number of checkpoints recorded so far.
+     */
+    public int getCheckpointCount() {
+        return segments - 1;
+    }
+
+    /**
+     * Gets the size of the log recorded so far, in bytes.
+     */
+    public int size() {
+        return encode().size();
+    }
+
+    /**
+     * Writes the log recorded so far.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        encode().writeTo(out);
+    }
+
+    /**
+     * Gets a copy of the log recorded so far.
+     */
+    public byte[] toByteArray() {
+        return encode().toByteArray();
+    }
+
+    /**
+     * Lays out the header, the segments, the turn index and the trailer pointing at the index.
+     */
+    private ByteSink encode() {
+        ByteSink log = new ByteSink(header.length + body.size() + 16 + 6 * segments);
+        log.writeBytes(header);
+        log.writeBytes(body);
+        int indexOffset = log.size();
+        log.writeVarint(segments);
+        for (int i = 0; i < segments; i++) {
+            log.writeVarint(header.length + checkpointOffsets[i]);
+            log.writeVarint(header.length + decisionOffsets[i]);
+            log.writeVarint(decisionCounts[i]);
+        }
+        log.writeInt(indexOffset);
+        return log;
+    }
+}
@@ -0,0 +1,81 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.nio.ByteBuffer;
+
+import static edu.brandeis.cosi103a.ip2.ResultsFileFormat.*;
+
+/**
+ * A view of one game's record in a results file. Getters read straight from the file's
+ * mapping; players are addressed by rank, best score first, as in {@link GameResult}.
+ */
+public final class ResultRecord {
+    private final ImmutableList<String> roster;
+    private final int cards;
+    private ByteBuffer buffer;
+    private int offset;
+
+    ResultRecord(ImmutableList<String> roster, int cards) {
+        this.roster = roster;
+        this.cards = cards;
+    }
+
+    void moveTo(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    /**
+     * Gets the number of players in the game, or 0 if the record was never completed.
+     */
+    public int getPlayerCount() {
+        return buffer.get(offset + PLAYER_COUNT);
+    }
+
+    /**
+     * Gets the number of turns played, or 0 if unknown.
+     */
+    public int getTurns() {
+        return Short.toUnsignedInt(buffer.getShort(offset + TURNS));
+    }
+
+    public String getName(int rank) {
+        return roster.get(buffer.getShort(slot(rank) + SLOT_NAME));
+    }
+
+    public int getScore(int rank) {
+        return buffer.getInt(slot(rank) + SLOT_SCORE);
+    }
+
+    /**
+     * Gets the number of copies of a card in a player's ending deck.
+     */
+    public int getCardCount(int rank, int cardId) {
+        return Short.toUnsignedInt(buffer.getShort(slot(rank) + SLOT_COUNTS + 2 * cardId));
+    }
+
+    /**
+     * Rebuilds the game's result, with each ending deck in registry order.
+     */
+    public GameResult toGameResult() {
+        ImmutableList.Builder<PlayerResult> players = ImmutableList.builder();
+        for (int rank = 0; rank < getPlayerCount(); rank++) {
+            ImmutableList.Builder<CardDefinition> deck = ImmutableList.builder();
+            for (int id = 0; id < cards; id++) {
+                for (int i = getCardCount(rank, id); i > 0; i--) {
+                    deck.add(CardRegistry.get(id));
+                }
+            }
+            players.add(new PlayerResult(getName(rank), getScore(rank), deck.build()));
+        }
+        return new GameResult(players.build(), getTurns());
+    }
+
+    private int slot(int rank) {
+        if (rank < 0 || rank >= getPlayerCount()) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " of " + getPlayerCount());
+        }
+        return offset + FIRST_SLOT + rank * slotSize(cards);
+    }
+}
@@ -0,0 +1,49 @@
+package edu.brandeis.cosi103a.ip2;
+
+/**
+ * Layout of the binary results file shared by {@link ResultsFileWriter} and {@link ResultsFileReader}.
+ *
+ * The file starts with a {@value #HEADER_SIZE}-byte header: magic, version, card count,
+ * record size, then the roster as a count and length-prefixed UTF-8 names. Fixed-width
+ * records follow, one per game, all fields big-endian:
+ *
+ * <pre>
+ * 0   byte   player count; 0 while the record is being written
+ * 2   short  turns played, or 0 if unknown
+ * 4   slot   for each of the {@value #MAX_PLAYERS} ranks, best score first:
+ *              short  roster index of the player's name
+ *              short  (padding)
+ *              int    score
+ *              short  count of each registered card in the ending deck, by card id
+ * </pre>
+ */
+final class ResultsFileFormat {
+    static final int MAGIC = 0x41524553;  // "ARES"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 4096;
+    static final int MAX_PLAYERS = 4;
+    static final int MAX_CARD_COUNT = 0xFFFF;
+    static final int MAX_TURNS = 0xFFFF;
+
+    static final int PLAYER_COUNT = 0;
+    static final int TURNS = 2;
+    static final int FIRST_SLOT = 4;
+    static final int SLOT_NAME = 0;
+    static final int SLOT_SCORE = 4;
+    static final int SLOT_COUNTS = 8;
+
+    private ResultsFileFormat() {
+        // Utility class, prevent instantiation
+    }
+
+    static int slotSize(int cards) {
+        return SLOT_COUNTS + 2 * cards;
+    }
+
+    /**
+     * Gets the size of a record, rounded up to a multiple of 8 bytes.
+     */
+    static int recordSize(int cards) {
+        return (FIRST_SLOT + MAX_PLAYERS * slotSize(cards) + 7) & ~7;
+    }
+}
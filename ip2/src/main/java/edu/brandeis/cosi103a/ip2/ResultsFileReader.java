@@ -0,0 +1,136 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import static edu.brandeis.cosi103a.ip2.ResultsFileFormat.*;
+
+/**
+ * Reads a results file written by {@link ResultsFileWriter}, straight from a read-only
+ * mapping of the file. Records are read through a {@link ResultRecord} view, so scanning
+ * copies nothing and allocates nothing per record.
+ */
+public final class ResultsFileReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final ImmutableList<String> roster;
+    private final int cards;
+    private final int recordSize;
+    private final long recordCount;
+    private final int recordsPerChunk;
+    private final MappedByteBuffer[] chunks;
+
+    private ResultsFileReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // Keep reading
+        }
+        if (header.hasRemaining()) {
+            throw new IOException("Results file is shorter than its header");
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a results file");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported results file version " + version);
+        }
+        this.cards = header.getInt();
+        this.recordSize = header.getInt();
+        if (cards != CardRegistry.size() || recordSize != ResultsFileFormat.recordSize(cards)) {
+            throw new IOException("Results file was written for " + cards + " cards, not " + CardRegistry.size());
+        }
+        int rosterSize = header.getInt();
+        ImmutableList.Builder<String> names = ImmutableList.builder();
+        for (int i = 0; i < rosterSize; i++) {
+            byte[] bytes = new byte[header.getShort()];
+            header.get(bytes);
+            names.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        this.roster = names.build();
+
+        // A file that was not closed may end in unused space; its records have no players
+        this.recordCount = (channel.size() - HEADER_SIZE) / recordSize;
+        this.recordsPerChunk = Integer.MAX_VALUE / recordSize;
+        int chunkCount = (int) ((recordCount + recordsPerChunk - 1) / recordsPerChunk);
+        this.chunks = new MappedByteBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            long first = (long) i * recordsPerChunk;
+            long records = Math.min(recordsPerChunk, recordCount - first);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * recordSize, records * recordSize);
+        }
+    }
+
+    /**
+     * Opens a results file for reading.
+     *
+     * @throws IOException if the file cannot be read or is not a results file for this card set
+     */
+    public static ResultsFileReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ResultsFileReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the roster that record names refer to.
+     */
+    public ImmutableList<String> getRoster() {
+        return roster;
+    }
+
+    /**
+     * Gets the number of record slots in the file, including any that were never written.
+     */
+    public long size() {
+        return recordCount;
+    }
+
+    /**
+     * Gets a view of the record at the given index.
+     */
+    public ResultRecord get(long index) {
+        ResultRecord record = new ResultRecord(roster, cards);
+        moveTo(record, index);
+        return record;
+    }
+
+    /**
+     * Passes every complete record to the action, in file order. The same view is reused
+     * for each record, so the action must not keep it.
+     */
+    public void forEach(Consumer<ResultRecord> action) {
+        ResultRecord record = new ResultRecord(roster, cards);
+        for (long index = 0; index < recordCount; index++) {
+            moveTo(record, index);
+            if (record.getPlayerCount() > 0) {
+                action.accept(record);
+            }
+        }
+    }
+
+    private void moveTo(ResultRecord record, long index) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + recordCount);
+        }
+        record.moveTo(chunks[(int) (index / recordsPerChunk)], (int) (index % recordsPerChunk) * recordSize);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
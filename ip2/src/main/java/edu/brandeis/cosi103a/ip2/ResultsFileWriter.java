@@ -0,0 +1,226 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static edu.brandeis.cosi103a.ip2.ResultsFileFormat.*;
+
+/**
+ * Appends game results to a binary results file (see {@link ResultsFileFormat}) through
+ * memory-mapped chunks of the file.
+ *
+ * Each result takes one fixed-width record, with every ending deck stored as a vector of
+ * card counts. Appends are lock-free and safe from any number of threads: a record slot
+ * is reserved with an atomic increment and written straight into the mapping, and the
+ * player count is written last so that readers never see a partly written record. Only
+ * mapping a new chunk, once per {@value #CHUNK_BYTES} bytes, takes a lock.
+ *
+ * Names are stored as indexes into a roster fixed when the file is created, so every
+ * player name must be in the roster.
+ */
+public final class ResultsFileWriter implements AutoCloseable, Consumer<GameResult> {
+    static final long CHUNK_BYTES = 64L << 20;
+
+    private final FileChannel channel;
+    private final ImmutableMap<String, Integer> rosterIndex;
+    private final int cards;
+    private final int recordSize;
+    private final int recordsPerChunk;
+    private final AtomicLong nextRecord = new AtomicLong();
+    private volatile MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+    private volatile boolean closed;
+
+    private ResultsFileWriter(FileChannel channel, List<String> roster) {
+        this.channel = channel;
+        ImmutableMap.Builder<String, Integer> index = ImmutableMap.builder();
+        for (int i = 0; i < roster.size(); i++) {
+            index.put(roster.get(i), i);
+        }
+        this.rosterIndex = index.buildOrThrow();
+        this.cards = CardRegistry.size();
+        this.recordSize = recordSize(cards);
+        this.recordsPerChunk = (int) (CHUNK_BYTES / recordSize);
+    }
+
+    /**
+     * Creates (or truncates) a results file for games played by the given roster.
+     *
+     * @param path the file to write
+     * @param roster every player name that may appear in a result, without duplicates
+     * @throws IOException if the file cannot be created
+     * @throws IllegalArgumentException if the roster has duplicates or does not fit in the header
+     */
+    public static ResultsFileWriter create(Path path, List<String> roster) throws IOException {
+        ByteBuffer header = encodeHeader(roster);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ResultsFileWriter writer = new ResultsFileWriter(channel, roster);
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            return writer;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static ByteBuffer encodeHeader(List<String> roster) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(CardRegistry.size()).putInt(recordSize(CardRegistry.size()));
+        header.putInt(roster.size());
+        for (String name : roster) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > Short.MAX_VALUE || header.remaining() < 2 + bytes.length) {
+                throw new IllegalArgumentException("Roster does not fit in the results file header");
+            }
+            header.putShort((short) bytes.length).put(bytes);
+        }
+        header.clear();
+        return header;
+    }
+
+    /**
+     * Appends a result. Same as {@link #append}, so the writer can be handed to
+     * {@link BatchSimulator#run(int, long, Consumer)} as a sink.
+     */
+    @Override
+    public void accept(GameResult result) {
+        append(result);
+    }
+
+    /**
+     * Appends a result. Safe to call from many threads at once.
+     *
+     * @return the index of the result's record
+     * @throws IllegalArgumentException if the result has more than {@value ResultsFileFormat#MAX_PLAYERS}
+     *         players, a name not in the roster, an unregistered card or too many copies of a card
+     * @throws IllegalStateException if the writer is closed
+     * @throws UncheckedIOException if the file cannot be extended
+     */
+    public long append(GameResult result) {
+        ImmutableList<PlayerResult> players = result.getPlayerResults();
+        if (players.isEmpty() || players.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Cannot store a result with " + players.size() + " players");
+        }
+        short[] names = new short[players.size()];
+        int[][] counts = new int[players.size()][];
+        for (int rank = 0; rank < players.size(); rank++) {
+            PlayerResult player = players.get(rank);
+            Integer index = rosterIndex.get(player.getName());
+            if (index == null) {
+                throw new IllegalArgumentException("Player " + player.getName() + " is not in the roster");
+            }
+            names[rank] = (short) (int) index;
+            counts[rank] = countCards(player.getEndingDeck());
+        }
+        if (closed) {
+            throw new IllegalStateException("Results file is closed");
+        }
+
+        long record = nextRecord.getAndIncrement();
+        MappedByteBuffer chunk = chunk((int) (record / recordsPerChunk));
+        int offset = (int) (record % recordsPerChunk) * recordSize;
+        chunk.putShort(offset + TURNS, (short) Math.min(result.getTurns(), MAX_TURNS));
+        for (int rank = 0; rank < players.size(); rank++) {
+            int slot = offset + FIRST_SLOT + rank * slotSize(cards);
+            chunk.putShort(slot + SLOT_NAME, names[rank]);
+            chunk.putInt(slot + SLOT_SCORE, players.get(rank).getScore());
+            for (int id = 0; id < cards; id++) {
+                chunk.putShort(slot + SLOT_COUNTS + 2 * id, (short) counts[rank][id]);
+            }
+        }
+        // Publish the record: the player count must not become visible before the slots
+        VarHandle.releaseFence();
+        chunk.put(offset + PLAYER_COUNT, (byte) players.size());
+        return record;
+    }
+
+    private int[] countCards(List<CardDefinition> deck) {
+        int[] counts = new int[cards];
+        for (CardDefinition card : deck) {
+            int id = CardRegistry.idOf(card);
+            if (id == CardDefinition.UNREGISTERED) {
+                throw new IllegalArgumentException("Cannot store unknown card: " + card);
+            }
+            if (++counts[id] > MAX_CARD_COUNT) {
+                throw new IllegalArgumentException("Too many copies of " + card);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the number of records appended (or being appended) so far.
+     */
+    public long size() {
+        return nextRecord.get();
+    }
+
+    private MappedByteBuffer chunk(int index) {
+        MappedByteBuffer[] mapped = chunks;
+        if (index < mapped.length && mapped[index] != null) {
+            return mapped[index];
+        }
+        return mapChunk(index);
+    }
+
+    /**
+     * Maps a chunk, copying the array on write so that readers of {@link #chunks} only
+     * ever see slots filled before the array was published.
+     */
+    private synchronized MappedByteBuffer mapChunk(int index) {
+        MappedByteBuffer[] mapped = chunks;
+        if (index < mapped.length && mapped[index] != null) {
+            return mapped[index];
+        }
+        MappedByteBuffer chunk;
+        long position = HEADER_SIZE + (long) index * recordsPerChunk * recordSize;
+        try {
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) recordsPerChunk * recordSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot extend results file", e);
+        }
+        mapped = Arrays.copyOf(mapped, Math.max(index + 1, mapped.length));
+        mapped[index] = chunk;
+        chunks = mapped;
+        return chunk;
+    }
+
+    /**
+     * Flushes the records to disk and trims the file to the records appended. Must not be
+     * called while appends are still running.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            for (MappedByteBuffer chunk : chunks) {
+                if (chunk != null) {
+                    chunk.force();
+                }
+            }
+            channel.truncate(HEADER_SIZE + nextRecord.get() * recordSize);
+        } finally {
+            channel.close();
+        }
+    }
+}
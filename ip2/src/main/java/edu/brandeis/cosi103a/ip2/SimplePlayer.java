@@ -9,7 +9,20 @@ import com.google.common.collect.ImmutableList;
  * - In MONEY phase: Play all money cards
  * - In BUY phase: Buy the best card affordable (Framework > Module > Dogecoin > Method > Ethereum > Bitcoin)
  */
-public class SimplePlayer implements Player {
+public class SimplePlayer implements IndexedPlayer, PhasePlanner {
+    // Whether a class still chooses with this class's chooseOption, which the plans mirror
+    private static final ClassValue<Boolean> PLANS_MATCH_CHOICES = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("chooseOption", GameState.class, ImmutableList.class)
+                    .getDeclaringClass() == SimplePlayer.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
     private final String name;
 
     public SimplePlayer(String name) {
@@ -22,107 +35,116 @@ public class SimplePlayer implements Player {
     }
 
     @Override
-    public Decision makeDecision(GameState state, ImmutableList<Decision> options) {
+    public int chooseOption(GameState state, ImmutableList<Decision> options) {
         if (options.isEmpty()) {
-            return null;
+            return -1;
         }
 
         // If there's only one option or one is EndPhase, prefer action decisions
         if (options.size() == 1) {
-            return options.get(0);
+            return 0;
         }
 
         switch (state.getCurrentPhase()) {
             case ACTION:
                 // Play action cards if available, otherwise end phase
-                return findBestPlayCardDecision(options, CardType.ACTION);
+                return findBestPlayCardOption(options, CardType.ACTION);
                 
             case MONEY:
                 // Play money cards if available, otherwise end phase
-                Decision moneyDecision = findBestPlayCardDecision(options, CardType.MONEY);
-                if (moneyDecision == null) {
-                    // Try playing any other card for money value
-                    moneyDecision = findFirstPlayCardDecision(options);
-                }
-                return moneyDecision != null ? moneyDecision : getEndPhaseDecision(options);
+                return findBestPlayCardOption(options, CardType.MONEY);
                 
             case BUY:
                 // Buy the best card we can afford
-                return findBestBuyDecision(options);
+                return findBestBuyOption(options);
                 
             case GAIN:
                 // Gain the best card available
-                return findBestGainDecision(options);
+                return findBestGainOption(options);
                 
             default:
-                return options.get(0);
+                return 0;
         }
     }
 
-    private Decision findBestPlayCardDecision(ImmutableList<Decision> options, CardType preferredType) {
-        for (Decision option : options) {
-            if (option instanceof PlayCardDecision) {
-                PlayCardDecision playDecision = (PlayCardDecision) option;
-                if (playDecision.getCard().getType() == preferredType) {
-                    return option;
-                }
-            }
+    /**
+     * Plans the ACTION and MONEY phases, which this player always plays out the same way:
+     * every action card while actions last, and then every money card.
+     * Subclasses that override {@link #chooseOption} decide every step themselves.
+     */
+    @Override
+    public PhasePlan planPhase(GameState state, ImmutableList<Decision> options) {
+        if (!PLANS_MATCH_CHOICES.get(getClass())) {
+            return null;
+        }
+        switch (state.getCurrentPhase()) {
+            case ACTION:
+                return PhasePlan.playAll(CardType.ACTION);
+            case MONEY:
+                return PhasePlan.playAll(CardType.MONEY);
+            default:
+                return null;
         }
-        return getEndPhaseDecision(options);
     }
 
-    private Decision findFirstPlayCardDecision(ImmutableList<Decision> options) {
-        for (Decision option : options) {
+    private int findBestPlayCardOption(ImmutableList<Decision> options, CardType preferredType) {
+        for (int i = 0; i < options.size(); i++) {
+            Decision option = options.get(i);
             if (option instanceof PlayCardDecision) {
-                return option;
+                PlayCardDecision playDecision = (PlayCardDecision) option;
+                if (playDecision.getCard().getType() == preferredType) {
+                    return i;
+                }
             }
         }
-        return null;
+        return getEndPhaseOption(options);
     }
 
-    private Decision findBestBuyDecision(ImmutableList<Decision> options) {
-        Decision bestBuy = null;
+    private int findBestBuyOption(ImmutableList<Decision> options) {
+        int bestBuy = -1;
         int bestPriority = -1;
 
-        for (Decision option : options) {
+        for (int i = 0; i < options.size(); i++) {
+            Decision option = options.get(i);
             if (option instanceof BuyCardDecision) {
                 BuyCardDecision buyDecision = (BuyCardDecision) option;
                 int priority = getCardPriority(buyDecision.getCard());
                 if (priority > bestPriority) {
                     bestPriority = priority;
-                    bestBuy = option;
+                    bestBuy = i;
                 }
             }
         }
 
-        return bestBuy != null ? bestBuy : getEndPhaseDecision(options);
+        return bestBuy >= 0 ? bestBuy : getEndPhaseOption(options);
     }
 
-    private Decision findBestGainDecision(ImmutableList<Decision> options) {
-        Decision bestGain = null;
+    private int findBestGainOption(ImmutableList<Decision> options) {
+        int bestGain = -1;
         int bestPriority = -1;
 
-        for (Decision option : options) {
+        for (int i = 0; i < options.size(); i++) {
+            Decision option = options.get(i);
             if (option instanceof GainCardDecision) {
                 GainCardDecision gainDecision = (GainCardDecision) option;
                 int priority = getCardPriority(gainDecision.getCard());
                 if (priority > bestPriority) {
                     bestPriority = priority;
-                    bestGain = option;
+                    bestGain = i;
                 }
             }
         }
 
-        return bestGain != null ? bestGain : options.get(0);
+        return bestGain >= 0 ? bestGain : 0;
     }
 
-    private Decision getEndPhaseDecision(ImmutableList<Decision> options) {
-        for (Decision option : options) {
-            if (option instanceof EndPhaseDecision) {
-                return option;
+    private int getEndPhaseOption(ImmutableList<Decision> options) {
+        for (int i = 0; i < options.size(); i++) {
+            if (options.get(i) instanceof EndPhaseDecision) {
+                return i;
             }
         }
-        return options.get(0);
+        return 0;
     }
 
     private int getCardPriority(CardDefinition card) {
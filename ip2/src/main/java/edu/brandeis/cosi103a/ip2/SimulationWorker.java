@@ -0,0 +1,161 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A worker process for a {@link DistributedSimulator}: plays the games its coordinator
+ * sends on standard input and writes their results to standard output.
+ *
+ * The coordinator first sends the roster, as a count and then one player spec per seat
+ * (see {@link #playerFactory}). Each job is then an int game index and a long seed, and
+ * each reply is the game index, a status byte, and for a completed game the turn count
+ * and each player's roster seat, score and ending card counts by card id. The worker
+ * plays its games one at a time with a single roster, and exits when its input closes.
+ */
+public final class SimulationWorker {
+    static final int COMPLETED = 0;
+    static final int FAILED = 1;
+
+    private SimulationWorker() {
+        // Entry point only, prevent instantiation
+    }
+
+    /**
+     * Gets a factory for the player described by a spec: {@code simple:NAME} for a
+     * {@link SimplePlayer}, or {@code mcts:NAME:ITERATIONS} for an {@link MctsPlayer}.
+     *
+     * @throws IllegalArgumentException if the spec is malformed
+     */
+    static Supplier<Player> playerFactory(String spec) {
+        String[] fields = spec.split(":");
+        if (fields.length == 2 && fields[0].equals("simple") && !fields[1].isEmpty()) {
+            return () -> new SimplePlayer(fields[1]);
+        }
+        if (fields.length == 3 && fields[0].equals("mcts") && !fields[1].isEmpty()) {
+            int iterations;
+            try {
+                iterations = Integer.parseInt(fields[2]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed iteration count in player spec: " + spec, e);
+            }
+            return () -> new MctsPlayer(fields[1], iterations);
+        }
+        throw new IllegalArgumentException("Unknown player spec: " + spec);
+    }
+
+    /**
+     * Gets the player name in a spec.
+     */
+    static String nameOf(String spec) {
+        return spec.split(":")[1];
+    }
+
+    static void writeResult(DataOutputStream out, int index, GameResult result, List<String> names) throws IOException {
+        out.writeInt(index);
+        out.writeByte(COMPLETED);
+        out.writeShort(result.getTurns());
+        out.writeByte(result.getPlayerResults().size());
+        int[] counts = new int[CardRegistry.size()];
+        for (PlayerResult player : result.getPlayerResults()) {
+            out.writeByte(names.indexOf(player.getName()));
+            out.writeInt(player.getScore());
+            Arrays.fill(counts, 0);
+            for (CardDefinition card : player.getEndingDeck()) {
+                counts[CardRegistry.idOf(card)]++;
+            }
+            for (int count : counts) {
+                out.writeShort(count);
+            }
+        }
+    }
+
+    /**
+     * Reads the rest of a completed game's reply, after its index and status.
+     */
+    static GameResult readResult(DataInputStream in, List<String> names) throws IOException {
+        int turns = in.readUnsignedShort();
+        int players = in.readUnsignedByte();
+        ImmutableList.Builder<PlayerResult> results = ImmutableList.builder();
+        for (int rank = 0; rank < players; rank++) {
+            String name = names.get(in.readUnsignedByte());
+            int score = in.readInt();
+            ImmutableList.Builder<CardDefinition> deck = ImmutableList.builder();
+            for (int id = 0; id < CardRegistry.size(); id++) {
+                for (int i = in.readUnsignedShort(); i > 0; i--) {
+                    deck.add(CardRegistry.get(id));
+                }
+            }
+            results.add(new PlayerResult(name, score, deck.build()));
+        }
+        return new GameResult(results.build(), turns);
+    }
+
+    /**
+     * Runs a worker on standard input and output.
+     *
+     * Usage: SimulationWorker [crash after]
+     *
+     * With an argument, the worker answers that many jobs and then halts on the next one
+     * without replying, so coordinators can test their recovery.
+     */
+    public static void main(String[] args) throws Exception {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        // Keep anything the players print off the result stream
+        System.setOut(System.err);
+        int crashAfter = args.length > 0 ? Integer.parseInt(args[0]) : -1;
+
+        List<String> names = new ArrayList<>();
+        List<Player> roster = new ArrayList<>();
+        for (int seat = in.readInt(); seat > 0; seat--) {
+            String spec = in.readUTF();
+            names.add(nameOf(spec));
+            roster.add(playerFactory(spec).get());
+        }
+
+        try {
+            while (true) {
+                int index;
+                try {
+                    index = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                long seed = in.readLong();
+                if (crashAfter-- == 0) {
+                    Runtime.getRuntime().halt(1);
+                }
+                try {
+                    writeResult(out, index, new EngineImpl(roster, seed).play(), names);
+                } catch (PlayerViolationException e) {
+                    out.writeInt(index);
+                    out.writeByte(FAILED);
+                }
+                // Batch replies while more jobs are already waiting
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } finally {
+            for (Player player : roster) {
+                if (player instanceof AutoCloseable) {
+                    ((AutoCloseable) player).close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package edu.brandeis.cosi103a.ip2;
+
+/**
+ * The SplitMix64 generator's step and finalizer, shared by everything that derives seeds
+ * or hashes from longs.
+ */
+final class SplitMix {
+    /**
+     * The generator's increment: the odd integer closest to 2^64 divided by the golden ratio.
+     */
+    static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private SplitMix() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Scrambles a value so that every input bit affects every output bit; a bijection.
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,128 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Aggregates statistics over a stream of game results without keeping the results:
+ * win rates, score distributions, game lengths and average ending decks per player name.
+ *
+ * Each reporting thread gets its own accumulator, so workers never contend with each
+ * other; {@link #snapshot()} merges them. Once a thread has finished, its accumulator is
+ * folded into a single retired one, so a long-running aggregator fed by short-lived
+ * threads holds one accumulator per live thread rather than one per thread ever seen. Pass an aggregator as the sink of
+ * {@link BatchSimulator#run(int, long, Consumer)} to aggregate a batch of any size.
+ */
+public final class StatsAggregator implements Consumer<GameResult> {
+    static final int MIN_SCORE = -16;
+    static final int MAX_SCORE = 128;
+    static final int MAX_TURNS = 1024;
+
+    private final Queue<Accumulator> accumulators = new ConcurrentLinkedQueue<>();
+    // Results of finished threads; guards pruning of the queue
+    private final Accumulator retired = new Accumulator(null);
+    private final ThreadLocal<Accumulator> local = ThreadLocal.withInitial(() -> {
+        synchronized (retired) {
+            retireFinished();
+        }
+        Accumulator accumulator = new Accumulator(Thread.currentThread());
+        accumulators.add(accumulator);
+        return accumulator;
+    });
+
+    /**
+     * Adds a game's result. Safe to call from many threads at once.
+     *
+     * @throws IllegalArgumentException if an ending deck holds a card that is not in the {@link CardRegistry}
+     */
+    @Override
+    public void accept(GameResult result) {
+        Accumulator accumulator = local.get();
+        // Only contended while a snapshot is merging this accumulator
+        synchronized (accumulator) {
+            accumulator.add(result);
+        }
+    }
+
+    /**
+     * Merges everything added so far. Results added while the snapshot is taken may or
+     * may not be included.
+     */
+    public TournamentStats snapshot() {
+        Accumulator merged = new Accumulator(null);
+        synchronized (retired) {
+            retireFinished();
+            merged.merge(retired);
+            for (Accumulator accumulator : accumulators) {
+                synchronized (accumulator) {
+                    merged.merge(accumulator);
+                }
+            }
+        }
+        return new TournamentStats(merged.games, merged.gameLengths, merged.players);
+    }
+
+    /**
+     * The number of accumulators still tied to a thread.
+     */
+    int accumulatorCount() {
+        return accumulators.size();
+    }
+
+    // Caller holds the lock on retired
+    private void retireFinished() {
+        for (Iterator<Accumulator> it = accumulators.iterator(); it.hasNext(); ) {
+            Accumulator accumulator = it.next();
+            // A finished thread adds nothing more, so its accumulator can be merged for good
+            if (!accumulator.owner.isAlive()) {
+                synchronized (accumulator) {
+                    retired.merge(accumulator);
+                }
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Statistics from one thread's results, or several merged together.
+     */
+    private static final class Accumulator {
+        // The thread that adds to this accumulator, or null if it only holds merged results
+        private final Thread owner;
+        private long games;
+        private final Histogram gameLengths = new Histogram(0, MAX_TURNS);
+        private final Map<String, TournamentStats.PlayerStats> players = new HashMap<>();
+
+        Accumulator(Thread owner) {
+            this.owner = owner;
+        }
+
+        void add(GameResult result) {
+            List<PlayerResult> playerResults = result.getPlayerResults();
+            games++;
+            gameLengths.record(result.getTurns());
+            int best = playerResults.isEmpty() ? 0 : playerResults.get(0).getScore();
+            for (PlayerResult player : playerResults) {
+                // Ties count as a win for every tied player
+                player(player.getName()).add(player.getScore(), player.getScore() == best, player.getEndingDeck());
+            }
+        }
+
+        void merge(Accumulator other) {
+            games += other.games;
+            gameLengths.add(other.gameLengths);
+            for (TournamentStats.PlayerStats stats : other.players.values()) {
+                player(stats.getName()).add(stats);
+            }
+        }
+
+        private TournamentStats.PlayerStats player(String name) {
+            return players.computeIfAbsent(name, TournamentStats.PlayerStats::new);
+        }
+    }
+}
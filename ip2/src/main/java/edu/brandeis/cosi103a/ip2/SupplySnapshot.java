@@ -0,0 +1,40 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * An immutable copy of the supply stack counts, indexed by {@link CardRegistry} id.
+ * The map view players see is built from it only when first asked for, and then shared.
+ */
+final class SupplySnapshot {
+    private final int[] counts;
+    private ImmutableMap<CardDefinition, Integer> map;  // Built on first use
+
+    /**
+     * @param counts the stack counts; the snapshot takes ownership and never changes them
+     */
+    SupplySnapshot(int[] counts) {
+        this.counts = counts;
+    }
+
+    int getCount(int cardId) {
+        return counts[cardId];
+    }
+
+    /**
+     * Gets the counts as a map in registry order. Concurrent callers may each build
+     * the map once; every result is equal and safely published.
+     */
+    ImmutableMap<CardDefinition, Integer> asMap() {
+        ImmutableMap<CardDefinition, Integer> result = map;
+        if (result == null) {
+            ImmutableMap.Builder<CardDefinition, Integer> builder = ImmutableMap.builderWithExpectedSize(counts.length);
+            for (int id = 0; id < counts.length; id++) {
+                builder.put(CardRegistry.get(id), counts[id]);
+            }
+            result = builder.build();
+            map = result;
+        }
+        return result;
+    }
+}
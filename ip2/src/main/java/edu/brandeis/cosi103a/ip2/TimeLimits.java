@@ -0,0 +1,76 @@
+package edu.brandeis.cosi103a.ip2;
+
+import java.time.Duration;
+
+/**
+ * Bounds the time players may spend deciding, for games against untrusted players.
+ * Registered with {@link EngineImpl#setTimeLimits(TimeLimits)}.
+ *
+ * Every decision has a deadline: the per-decision limit, or the player's remaining
+ * per-game budget if that is sooner. A player that misses a deadline has overrun, and
+ * the engine applies the {@link Policy}. The player's call is interrupted and abandoned,
+ * so a player that may be timed out must not expect its calls to be serialized.
+ */
+public final class TimeLimits {
+    /**
+     * What the engine does when a player overruns.
+     */
+    public enum Policy {
+        /** Ends the current phase for the player, as if it had chosen {@link EndPhaseDecision}. */
+        END_PHASE,
+        /** Ends the game with a {@link PlayerViolationException}. */
+        FORFEIT
+    }
+
+    private final Duration perDecision;
+    private final Duration perGame;
+    private final Policy policy;
+
+    /**
+     * @param perDecision the most time a player may take for one decision
+     * @param perGame the most time a player may spend deciding over a whole game, or null for no limit
+     * @param policy what to do when a player overruns
+     * @throws IllegalArgumentException if a limit is not positive or the policy is null
+     */
+    public TimeLimits(Duration perDecision, Duration perGame, Policy policy) {
+        if (perDecision == null || perDecision.isNegative() || perDecision.isZero()) {
+            throw new IllegalArgumentException("Per-decision limit must be positive");
+        }
+        if (perGame != null && (perGame.isNegative() || perGame.isZero())) {
+            throw new IllegalArgumentException("Per-game limit must be positive");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Policy must not be null");
+        }
+        this.perDecision = perDecision;
+        this.perGame = perGame;
+        this.policy = policy;
+    }
+
+    /**
+     * Creates limits on each decision, with no limit on the game as a whole.
+     */
+    public static TimeLimits perDecision(Duration perDecision, Policy policy) {
+        return new TimeLimits(perDecision, null, policy);
+    }
+
+    public Duration getPerDecision() {
+        return perDecision;
+    }
+
+    /**
+     * Gets the per-game budget of each player, or null if there is none.
+     */
+    public Duration getPerGame() {
+        return perGame;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeLimits[perDecision=" + perDecision + ", perGame=" + perGame + ", policy=" + policy + "]";
+    }
+}
@@ -0,0 +1,141 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics over a set of games, as merged by {@link StatsAggregator#snapshot()}.
+ */
+public final class TournamentStats {
+    private final long games;
+    private final Histogram gameLengths;
+    private final ImmutableSortedMap<String, PlayerStats> players;
+
+    TournamentStats(long games, Histogram gameLengths, Map<String, PlayerStats> players) {
+        this.games = games;
+        this.gameLengths = gameLengths;
+        this.players = ImmutableSortedMap.copyOf(players);
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the distribution of game lengths, in turns across all players.
+     */
+    public Histogram getGameLengths() {
+        return gameLengths.copy();
+    }
+
+    /**
+     * Gets the statistics of every player name seen, sorted by name.
+     */
+    public ImmutableSortedMap<String, PlayerStats> getPlayers() {
+        return players;
+    }
+
+    /**
+     * Gets the statistics of one player name.
+     *
+     * @throws IllegalArgumentException if no game had a player with that name
+     */
+    public PlayerStats getPlayer(String name) {
+        PlayerStats stats = players.get(name);
+        if (stats == null) {
+            throw new IllegalArgumentException("No games for player " + name);
+        }
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d games, mean length %.1f turns%n", games, gameLengths.getMean()));
+        for (PlayerStats stats : players.values()) {
+            sb.append("  ").append(stats).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Statistics of one player name over the games it played.
+     */
+    public static final class PlayerStats {
+        private final String name;
+        private long games;
+        private long wins;
+        private final Histogram scores = new Histogram(StatsAggregator.MIN_SCORE, StatsAggregator.MAX_SCORE);
+        private final long[] ownedCounts = new long[CardRegistry.size()];
+
+        PlayerStats(String name) {
+            this.name = name;
+        }
+
+        void add(int score, boolean won, List<CardDefinition> endingDeck) {
+            games++;
+            if (won) {
+                wins++;
+            }
+            scores.record(score);
+            for (CardDefinition card : endingDeck) {
+                int id = CardRegistry.idOf(card);
+                if (id == CardDefinition.UNREGISTERED) {
+                    throw new IllegalArgumentException("Cannot count unknown card: " + card);
+                }
+                ownedCounts[id]++;
+            }
+        }
+
+        void add(PlayerStats other) {
+            games += other.games;
+            wins += other.wins;
+            scores.add(other.scores);
+            for (int id = 0; id < ownedCounts.length; id++) {
+                ownedCounts[id] += other.ownedCounts[id];
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * Gets the number of games won, counting ties as a win for every tied player.
+         */
+        public long getWins() {
+            return wins;
+        }
+
+        public double getWinRate() {
+            return games == 0 ? 0.0 : (double) wins / games;
+        }
+
+        public Histogram getScores() {
+            return scores.copy();
+        }
+
+        public double getMeanScore() {
+            return scores.getMean();
+        }
+
+        /**
+         * Gets the average number of copies of a card in the player's ending deck.
+         */
+        public double getMeanOwnedCount(int cardId) {
+            return games == 0 ? 0.0 : (double) ownedCounts[cardId] / games;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d games, %.1f%% wins, mean score %.1f",
+                name, games, 100.0 * getWinRate(), getMeanScore());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncEngineTest {
+    private ExecutorService carriers;
+    private ExecutorService remote;
+
+    @BeforeEach
+    public void setUp() {
+        carriers = Executors.newFixedThreadPool(2);
+        remote = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        carriers.shutdownNow();
+        remote.shutdownNow();
+    }
+
+    private static void assertSameResult(GameResult expected, GameResult actual) {
+        assertEquals(expected.getTurns(), actual.getTurns());
+        for (int i = 0; i < expected.getPlayerResults().size(); i++) {
+            PlayerResult a = expected.getPlayerResults().get(i);
+            PlayerResult b = actual.getPlayerResults().get(i);
+            assertEquals(a.getName(), b.getName());
+            assertEquals(a.getScore(), b.getScore());
+            assertEquals(a.getEndingDeck(), b.getEndingDeck());
+        }
+    }
+
+    @Test
+    public void testDirectPlayersMatchBlockingEngine() throws Exception {
+        AsyncEngine engine = new AsyncEngine(carriers);
+        for (long seed = 0; seed < 5; seed++) {
+            GameResult expected = new EngineImpl(Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob")), seed).play();
+            GameResult actual = engine.play(Arrays.asList(
+                AsyncPlayer.direct(new SimplePlayer("Alice")), AsyncPlayer.direct(new SimplePlayer("Bob"))), seed)
+                .get(10, TimeUnit.SECONDS);
+            assertSameResult(expected, actual);
+        }
+    }
+
+    @Test
+    public void testManyGamesShareCarriers() throws Exception {
+        // Every decision completes on another thread, so games suspend at each one
+        AtomicInteger waiting = new AtomicInteger();
+        AtomicInteger mostWaiting = new AtomicInteger();
+        class RemotePlayer implements AsyncPlayer {
+            private final SimplePlayer delegate;
+
+            RemotePlayer(String name) {
+                delegate = new SimplePlayer(name);
+            }
+
+            @Override
+            public String getName() {
+                return delegate.getName();
+            }
+
+            @Override
+            public CompletableFuture<Decision> makeDecision(GameState state, ImmutableList<Decision> options) {
+                mostWaiting.accumulateAndGet(waiting.incrementAndGet(), Math::max);
+                return CompletableFuture.supplyAsync(() -> {
+                    waiting.decrementAndGet();
+                    return delegate.makeDecision(state, options);
+                }, remote);
+            }
+        }
+
+        AsyncEngine engine = new AsyncEngine(carriers);
+        int games = 200;
+        List<CompletableFuture<GameResult>> results = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            results.add(engine.play(Arrays.asList(new RemotePlayer("Alice"), new RemotePlayer("Bob")), i));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+
+        assertTrue(mostWaiting.get() > 2, "games in flight: " + mostWaiting.get());
+        for (int i = 0; i < games; i += 40) {
+            GameResult expected = new EngineImpl(Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob")), i).play();
+            assertSameResult(expected, results.get(i).get());
+        }
+    }
+
+    @Test
+    public void testBlockingAdapter() throws Exception {
+        AsyncEngine engine = new AsyncEngine(carriers);
+        GameResult result = engine.play(Arrays.asList(
+            AsyncPlayer.blocking(new SimplePlayer("Alice"), remote), AsyncPlayer.direct(new SimplePlayer("Bob"))), 3L)
+            .get(10, TimeUnit.SECONDS);
+        GameResult expected = new EngineImpl(Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob")), 3L).play();
+        assertSameResult(expected, result);
+    }
+
+    @Test
+    public void testFailedDecisionIsViolation() {
+        AsyncPlayer failing = new AsyncPlayer() {
+            @Override
+            public String getName() {
+                return "Failing";
+            }
+
+            @Override
+            public CompletableFuture<Decision> makeDecision(GameState state, ImmutableList<Decision> options) {
+                return CompletableFuture.supplyAsync(() -> {
+                    throw new IllegalStateException("disconnected");
+                }, remote);
+            }
+        };
+        CompletableFuture<GameResult> result = new AsyncEngine(carriers).play(Arrays.asList(failing), 1L);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(PlayerViolationException.class, e.getCause());
+        assertInstanceOf(IllegalStateException.class, e.getCause().getCause());
+    }
+
+    @Test
+    public void testCancelledDecisionIsViolation() {
+        AsyncPlayer cancelling = new AsyncPlayer() {
+            @Override
+            public String getName() {
+                return "Cancelling";
+            }
+
+            @Override
+            public CompletableFuture<Decision> makeDecision(GameState state, ImmutableList<Decision> options) {
+                CompletableFuture<Decision> decision = new CompletableFuture<>();
+                decision.cancel(false);
+                return decision;
+            }
+        };
+        CompletableFuture<GameResult> result = new AsyncEngine(carriers).play(Arrays.asList(cancelling), 1L);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(PlayerViolationException.class, e.getCause());
+        assertInstanceOf(CancellationException.class, e.getCause().getCause());
+    }
+
+    @Test
+    public void testDecisionOutsideOptionsIsViolation() {
+        Player cheater = new Player() {
+            @Override
+            public String getName() {
+                return "Cheater";
+            }
+
+            @Override
+            public Decision makeDecision(GameState state, ImmutableList<Decision> options) {
+                return new BuyCardDecision(Cards.FRAMEWORK);
+            }
+        };
+        CompletableFuture<GameResult> result = new AsyncEngine(carriers).play(Arrays.asList(AsyncPlayer.direct(cheater)), 1L);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(PlayerViolationException.class, e.getCause());
+        assertThrows(IllegalArgumentException.class, () -> new AsyncEngine(carriers).play(new ArrayList<>()));
+        assertThrows(UnsupportedOperationException.class, () -> new EngineImpl(ImmutableList.of("Alice"), 1L).play());
+    }
+}
@@ -0,0 +1,89 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchSimulatorTest {
+
+    @Test
+    public void testRunCollectsEveryGame() {
+        BatchSimulator simulator = new BatchSimulator(() -> Arrays.asList(
+            new SimplePlayer("Alice"),
+            new SimplePlayer("Bob")
+        ), 2);
+
+        BatchResult result = simulator.run(20);
+
+        assertEquals(20, result.getCompletedGames());
+        assertEquals(0, result.getFailedGames());
+        for (GameResult game : result.getGameResults()) {
+            assertEquals(2, game.getPlayerResults().size());
+        }
+        assertTrue(result.getGamesPerSecond() > 0);
+    }
+
+    @Test
+    public void testRunWithZeroGames() {
+        BatchSimulator simulator = new BatchSimulator(() -> Arrays.asList(new SimplePlayer("Alice")), 1);
+
+        BatchResult result = simulator.run(0);
+
+        assertEquals(0, result.getCompletedGames());
+        assertEquals(0.0, result.getGamesPerSecond());
+    }
+
+    @Test
+    public void testFailedGamesAreCounted() {
+        Player cheater = new Player() {
+            @Override
+            public String getName() {
+                return "Cheater";
+            }
+
+            @Override
+            public Decision makeDecision(GameState state, ImmutableList<Decision> options) {
+                return new BuyCardDecision(Cards.FRAMEWORK);
+            }
+        };
+        BatchSimulator simulator = new BatchSimulator(() -> Arrays.asList(cheater), 2);
+
+        BatchResult result = simulator.run(5);
+
+        assertEquals(0, result.getCompletedGames());
+        assertEquals(5, result.getFailedGames());
+    }
+
+    @Test
+    public void testRejectsInvalidParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new BatchSimulator(() -> Arrays.asList(new SimplePlayer("Alice")), 0);
+        });
+    }
+
+    @Test
+    public void testResultsDoNotDependOnWorkerCount() {
+        Supplier<List<Player>> roster = () -> Arrays.asList(
+            new SimplePlayer("Alice"),
+            new SimplePlayer("Bob")
+        );
+
+        BatchResult serial = new BatchSimulator(roster, 1).run(12, 99L);
+        BatchResult parallel = new BatchSimulator(roster, 3).run(12, 99L);
+
+        assertEquals(99L, serial.getBaseSeed());
+        for (int i = 0; i < 12; i++) {
+            List<PlayerResult> a = serial.getGameResults().get(i).getPlayerResults();
+            List<PlayerResult> b = parallel.getGameResults().get(i).getPlayerResults();
+            for (int j = 0; j < a.size(); j++) {
+                assertEquals(a.get(j).getName(), b.get(j).getName());
+                assertEquals(a.get(j).getScore(), b.get(j).getScore());
+                assertEquals(a.get(j).getEndingDeck(), b.get(j).getEndingDeck());
+            }
+        }
+    }
+}
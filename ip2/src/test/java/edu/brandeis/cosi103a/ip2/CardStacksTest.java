@@ -0,0 +1,109 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CardStacksTest {
+
+    @Test
+    public void testRegistryIdsAreDense() {
+        for (int id = 0; id < CardRegistry.size(); id++) {
+            assertEquals(id, CardRegistry.get(id).getId());
+        }
+    }
+
+    @Test
+    public void testIdOfResolvesUnregisteredCopiesByName() {
+        CardDefinition copy = new CardDefinition("Module", 5, 3, 0, CardType.AUTOMATION);
+        assertEquals(CardDefinition.UNREGISTERED, copy.getId());
+        assertEquals(Cards.MODULE.getId(), CardRegistry.idOf(copy));
+
+        CardDefinition unknown = new CardDefinition("Hotfix", 1, 0, 0, CardType.ACTION);
+        assertEquals(CardDefinition.UNREGISTERED, CardRegistry.idOf(unknown));
+    }
+
+    @Test
+    public void testInitialCounts() {
+        CardStacks stacks = new CardStacks(3);
+        assertEquals(60, stacks.getCount(Cards.BITCOIN));
+        assertEquals(8, stacks.getCount(Cards.FRAMEWORK));
+        assertEquals(30, stacks.getCount(Cards.BUG));
+        assertEquals(CardRegistry.size(), stacks.getAvailableCards().size());
+    }
+
+    @Test
+    public void testTakeAndReturnCard() {
+        CardStacks stacks = new CardStacks(2);
+        assertTrue(stacks.takeCard(Cards.MODULE));
+        assertEquals(7, stacks.getCount(Cards.MODULE.getId()));
+
+        stacks.returnCard(Cards.MODULE);
+        assertEquals(8, stacks.getCount(Cards.MODULE));
+
+        CardDefinition unknown = new CardDefinition("Hotfix", 1, 0, 0, CardType.ACTION);
+        assertFalse(stacks.takeCard(unknown));
+        assertEquals(0, stacks.getCount(unknown));
+        assertThrows(IllegalArgumentException.class, () -> stacks.returnCard(unknown));
+    }
+
+    @Test
+    public void testGameOverWhenFrameworksExhausted() {
+        CardStacks stacks = new CardStacks(1);
+        for (int i = 0; i < 8; i++) {
+            assertFalse(stacks.isGameOver());
+            assertTrue(stacks.takeCard(Cards.FRAMEWORK));
+        }
+        assertTrue(stacks.isGameOver());
+        assertFalse(stacks.takeCard(Cards.FRAMEWORK));
+        assertFalse(stacks.getAvailableCards().contains(Cards.FRAMEWORK));
+    }
+
+    @Test
+    public void testSupplyViewIsRebuiltOnlyAfterChange() {
+        CardStacks stacks = new CardStacks(2);
+        ImmutableMap<CardDefinition, Integer> first = stacks.getSupplyView();
+        assertSame(first, stacks.getSupplyView());
+        assertEquals(8, first.get(Cards.MODULE));
+
+        stacks.takeCard(Cards.MODULE);
+        ImmutableMap<CardDefinition, Integer> second = stacks.getSupplyView();
+        assertNotSame(first, second);
+        assertEquals(7, second.get(Cards.MODULE));
+        assertEquals(8, first.get(Cards.MODULE));
+    }
+
+    @Test
+    public void testAvailableMaskMatchesCostFilter() {
+        CardStacks stacks = new CardStacks(2);
+        for (int i = 0; i < 8; i++) {
+            stacks.takeCard(Cards.MODULE);
+        }
+        for (int money = -1; money <= 10; money++) {
+            long expected = 0;
+            for (int id = 0; id < CardRegistry.size(); id++) {
+                if (stacks.getCount(id) > 0 && CardRegistry.get(id).getCost() <= money) {
+                    expected |= DecisionOptions.bit(id);
+                }
+            }
+            assertEquals(expected, stacks.getAvailableMask(money), "money " + money);
+        }
+    }
+
+    @Test
+    public void testAvailableMaskTracksEmptyStacks() {
+        CardStacks stacks = new CardStacks(1);
+        long module = DecisionOptions.bit(Cards.MODULE.getId());
+        for (int i = 0; i < 8; i++) {
+            assertNotEquals(0, stacks.getAvailableMask() & module);
+            stacks.takeCard(Cards.MODULE);
+        }
+        assertEquals(0, stacks.getAvailableMask() & module);
+        assertFalse(stacks.getAvailableCards().contains(Cards.MODULE));
+
+        stacks.returnCard(Cards.MODULE);
+        assertNotEquals(0, stacks.getAvailableMask(Cards.MODULE.getCost()) & module);
+        assertEquals(0, stacks.getAvailableMask(Cards.MODULE.getCost() - 1) & module);
+    }
+}
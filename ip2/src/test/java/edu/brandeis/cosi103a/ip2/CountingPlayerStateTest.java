@@ -0,0 +1,95 @@
+package edu.brandeis.cosi103a.ip2;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountingPlayerStateTest {
+    private CountingPlayerState state;
+
+    @BeforeEach
+    public void setUp() {
+        state = new CountingPlayerState(new SimplePlayer("Alice"), new SplittableRandom(1L));
+    }
+
+    @Test
+    public void testStartingDeck() {
+        assertEquals(10, state.getCardCount());
+        assertEquals(5, state.getHandSize());
+        assertEquals(5, state.getHand().size());
+        assertEquals(5, state.getDeck().size());
+        assertEquals(3, state.calculateScore());
+        assertEquals(7, state.countOwned(Cards.BITCOIN.getId()));
+        assertEquals(state.getHandSize(),
+            state.countInHand(Cards.BITCOIN) + state.countInHand(Cards.METHOD));
+    }
+
+    @Test
+    public void testGainCardUpdatesRunningTotals() {
+        state.gainCard(Cards.FRAMEWORK);
+        state.gainCard(Cards.BUG);
+
+        assertEquals(12, state.getCardCount());
+        assertEquals(3 + 6 - 1, state.calculateScore());
+        assertEquals(2, state.getDiscard().size());
+        assertEquals(12, state.getAllCards().size());
+    }
+
+    @Test
+    public void testPlayCardMovesCardToPlayed() {
+        CardDefinition card = state.getHand().get(0);
+        int before = state.countInHand(card);
+
+        assertTrue(state.playCard(card));
+        assertEquals(before - 1, state.countInHand(card));
+        assertEquals(Arrays.asList(card), state.getPlayed());
+        assertFalse(state.playCard(Cards.FRAMEWORK));
+    }
+
+    @Test
+    public void testRecycleDiscardMatchesListState() {
+        PlayerState list = new ListPlayerState(new SimplePlayer("Alice"), new SplittableRandom(1L));
+        for (PlayerState each : Arrays.asList(state, list)) {
+            each.gainCard(Cards.FRAMEWORK);
+            each.gainCard(Cards.BUG);
+            each.recycleDiscard();
+
+            assertEquals(7, each.getDeck().size(), each.getClass().getSimpleName());
+            assertTrue(each.getDiscard().isEmpty());
+            assertEquals(5, each.getHandSize());
+            assertEquals(12, each.getCardCount());
+        }
+    }
+
+    @Test
+    public void testCleanupReshufflesDiscard() {
+        for (int turn = 0; turn < 10; turn++) {
+            state.cleanup();
+            assertEquals(5, state.getHandSize());
+            assertEquals(10, state.getHand().size() + state.getDeck().size() + state.getDiscard().size());
+            assertTrue(state.getPlayed().isEmpty());
+        }
+        assertEquals(3, state.calculateScore());
+    }
+
+    @Test
+    public void testEngineRunsWithCountingState() throws PlayerViolationException {
+        Engine engine = new EngineImpl(Arrays.asList(
+            new SimplePlayer("Alice"),
+            new SimplePlayer("Bob")
+        ), 5L, CountingPlayerState::new);
+
+        GameResult result = engine.play();
+
+        for (PlayerResult playerResult : result.getPlayerResults()) {
+            int score = 0;
+            for (CardDefinition card : playerResult.getEndingDeck()) {
+                score += card.getPoints();
+            }
+            assertEquals(score, playerResult.getScore());
+        }
+    }
+}
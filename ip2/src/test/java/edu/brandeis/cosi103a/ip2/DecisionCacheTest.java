@@ -0,0 +1,165 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecisionCacheTest {
+
+    /**
+     * A SimplePlayer that counts its calls. Overriding chooseOption also turns off its plans,
+     * so that every decision goes through the cache.
+     */
+    private static class CountingPlayer extends SimplePlayer {
+        int calls;
+
+        CountingPlayer(String name) {
+            super(name);
+        }
+
+        @Override
+        public int chooseOption(GameState state, ImmutableList<Decision> options) {
+            calls++;
+            return super.chooseOption(state, options);
+        }
+    }
+
+    private static List<String> play(EngineImpl engine, List<Integer> choices) throws PlayerViolationException {
+        engine.setDecisionListener((seat, phase, optionIndex) -> choices.add(optionIndex));
+        GameResult result = engine.play();
+        List<String> summary = new ArrayList<>();
+        summary.add("turns " + result.getTurns());
+        for (PlayerResult player : result.getPlayerResults()) {
+            summary.add(player.getName() + ":" + player.getScore() + ":" + player.getEndingDeck().size());
+        }
+        return summary;
+    }
+
+    private static void assertMemoizedGamesMatch(DecisionCache aliceCache, DecisionCache bobCache)
+            throws PlayerViolationException {
+        for (long seed = 0; seed < 20; seed++) {
+            List<Integer> plainChoices = new ArrayList<>();
+            List<String> plain = play(new EngineImpl(
+                Arrays.asList(new CountingPlayer("Alice"), new CountingPlayer("Bob")), seed), plainChoices);
+            List<Integer> memoizedChoices = new ArrayList<>();
+            List<String> memoized = play(new EngineImpl(Arrays.asList(
+                new MemoizingPlayer(new CountingPlayer("Alice"), aliceCache),
+                new MemoizingPlayer(new CountingPlayer("Bob"), bobCache)), seed), memoizedChoices);
+
+            assertEquals(plain, memoized, "Seed " + seed);
+            assertEquals(plainChoices, memoizedChoices, "Seed " + seed);
+        }
+    }
+
+    @Test
+    public void testMemoizedGamesMatchUncachedGames() throws PlayerViolationException {
+        DecisionCache aliceCache = new DecisionCache(10_000);
+        assertMemoizedGamesMatch(aliceCache, new DecisionCache(10_000));
+        assertTrue(aliceCache.getHits() > 0);
+
+        DecisionCache.SupplyKey availability = DecisionCache.SupplyKey.AVAILABILITY;
+        aliceCache = new DecisionCache(10_000, availability);
+        assertMemoizedGamesMatch(aliceCache, new DecisionCache(10_000, availability));
+        assertTrue(aliceCache.getHitRate() > 0.5, aliceCache.toString());
+    }
+
+    @Test
+    public void testPlayerIsOnlyAskedOnMisses() throws PlayerViolationException {
+        DecisionCache cache = new DecisionCache(10_000, DecisionCache.SupplyKey.AVAILABILITY);
+        CountingPlayer alice = new CountingPlayer("Alice");
+        for (long seed = 0; seed < 10; seed++) {
+            new EngineImpl(List.of(new MemoizingPlayer(alice, cache)), seed).play();
+        }
+
+        assertEquals(cache.getMisses(), alice.calls);
+        assertTrue(cache.getHits() > alice.calls);
+        assertTrue(cache.size() <= cache.getMisses());
+    }
+
+    @Test
+    public void testGameStateKeysMatchEngineKeys() throws PlayerViolationException {
+        DecisionCache cache = new DecisionCache(10_000);
+        MemoizingPlayer memoizer = new MemoizingPlayer(new CountingPlayer("Alice"), cache);
+        new EngineImpl(List.of(memoizer), 7L).play();
+        long misses = cache.getMisses();
+
+        // Replay the game through the GameState path; every choice is already cached
+        CountingPlayer replayed = new CountingPlayer("Alice") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                return memoizer.chooseOption(state, options);
+            }
+        };
+        new EngineImpl(List.of(replayed), 7L).play();
+
+        assertEquals(misses, cache.getMisses());
+    }
+
+    @Test
+    public void testOverrunChoicesAreNotCached() throws PlayerViolationException {
+        DecisionCache cache = new DecisionCache(10_000);
+        long[] overrunKey = {0};
+        CountingPlayer alice = new CountingPlayer("Alice") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                if (calls == 3) {
+                    calls++;
+                    overrunKey[0] = cache.key(state);
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 0;
+                }
+                return super.chooseOption(state, options);
+            }
+        };
+        EngineImpl engine = new EngineImpl(List.of(new MemoizingPlayer(alice, cache)), 7L);
+        engine.setTimeLimits(TimeLimits.perDecision(Duration.ofMillis(20), TimeLimits.Policy.END_PHASE));
+        engine.play();
+
+        assertEquals(1, engine.getOverrunStats().get(0).getOverruns());
+        assertEquals(-1, cache.get(overrunKey[0], Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        DecisionCache cache = new DecisionCache(2);
+        cache.put(1L, 0);
+        cache.put(2L, 1);
+        assertEquals(0, cache.get(1L, 3));
+        cache.put(3L, 2);
+
+        assertEquals(2, cache.size());
+        assertEquals(-1, cache.get(2L, 3));
+        assertEquals(0, cache.get(1L, 3));
+        assertEquals(2, cache.get(3L, 3));
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        DecisionCache large = new DecisionCache(1000);
+        for (long key = 0; key < 5000; key++) {
+            large.put(key * SplitMix.GOLDEN_GAMMA, 0);
+        }
+        assertTrue(large.size() <= 1000);
+        assertTrue(large.size() > 900);
+    }
+
+    @Test
+    public void testIgnoresCachedIndexOutOfRange() {
+        DecisionCache cache = new DecisionCache(10);
+        cache.put(1L, 4);
+
+        assertEquals(-1, cache.get(1L, 3));
+        assertEquals(4, cache.get(1L, 5));
+        assertEquals(0.5, cache.getHitRate());
+        assertThrows(IllegalArgumentException.class, () -> new DecisionCache(0));
+    }
+}
@@ -0,0 +1,81 @@
+package edu.brandeis.cosi103a.ip2;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistributedSimulatorTest {
+    private static final List<String> ROSTER = List.of("simple:Alice", "simple:Bob");
+
+    private static void assertSameResults(BatchResult expected, BatchResult actual) {
+        assertEquals(expected.getCompletedGames(), actual.getCompletedGames());
+        for (int i = 0; i < expected.getGameResults().size(); i++) {
+            GameResult want = expected.getGameResults().get(i);
+            GameResult got = actual.getGameResults().get(i);
+            assertEquals(want.getTurns(), got.getTurns());
+            for (int rank = 0; rank < want.getPlayerResults().size(); rank++) {
+                PlayerResult wantPlayer = want.getPlayerResults().get(rank);
+                PlayerResult gotPlayer = got.getPlayerResults().get(rank);
+                assertEquals(wantPlayer.getName(), gotPlayer.getName());
+                assertEquals(wantPlayer.getScore(), gotPlayer.getScore());
+                assertEquals(wantPlayer.getEndingDeck().size(), gotPlayer.getEndingDeck().size());
+            }
+        }
+    }
+
+    private static BatchResult inProcess(int games, long seed) {
+        return new BatchSimulator(() -> Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob")), 1)
+            .run(games, seed);
+    }
+
+    @Test
+    public void testWorkersMatchInProcessBatch() throws Exception {
+        DistributedSimulator simulator = new DistributedSimulator(ROSTER, 2, List.of("-Xmx64m"));
+        BatchResult result = simulator.run(200, 17L);
+
+        assertEquals(200, result.getCompletedGames());
+        assertEquals(0, result.getFailedGames());
+        assertSameResults(inProcess(200, 17L), result);
+        assertEquals(0, simulator.getRestartedWorkers());
+    }
+
+    @Test
+    public void testCrashedWorkerJobsAreReassigned() throws Exception {
+        // The first worker dies on its fourth job; the others are healthy
+        AtomicInteger launches = new AtomicInteger();
+        DistributedSimulator.WorkerLauncher launcher = () -> (launches.getAndIncrement() == 0
+            ? DistributedSimulator.WorkerLauncher.forkJvm(List.of(), "3")
+            : DistributedSimulator.WorkerLauncher.forkJvm(List.of())).launch();
+        DistributedSimulator simulator = new DistributedSimulator(ROSTER, 2, launcher);
+        BatchResult result = simulator.run(100, 5L);
+
+        assertSameResults(inProcess(100, 5L), result);
+        assertEquals(1, simulator.getRestartedWorkers());
+        assertTrue(simulator.getReassignedJobs() > 0);
+        assertEquals(3, launches.get());
+    }
+
+    @Test
+    public void testBatchFailsWhenEveryWorkerDies() {
+        DistributedSimulator simulator = new DistributedSimulator(ROSTER, 1,
+            DistributedSimulator.WorkerLauncher.forkJvm(List.of(), "0"));
+        assertThrows(IOException.class, () -> simulator.run(10, 1L, result -> { }));
+        assertEquals(1, simulator.getRestartedWorkers());
+    }
+
+    @Test
+    public void testInvalidRostersAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new DistributedSimulator(List.of("simple:Alice", "simple:Alice"), 1, List.of()));
+        assertThrows(IllegalArgumentException.class,
+            () -> new DistributedSimulator(List.of("greedy:Alice"), 1, List.of()));
+        assertThrows(IllegalArgumentException.class,
+            () -> new DistributedSimulator(List.of("mcts:Alice:many"), 1, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new DistributedSimulator(ROSTER, 0, List.of()));
+    }
+}
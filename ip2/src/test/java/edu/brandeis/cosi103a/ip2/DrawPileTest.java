@@ -0,0 +1,69 @@
+package edu.brandeis.cosi103a.ip2;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DrawPileTest {
+
+    @Test
+    public void testDrawsEveryCardOnce() {
+        DrawPile pile = new DrawPile(new SplittableRandom(3L));
+        for (int id = 0; id < CardRegistry.size(); id++) {
+            pile.addToDeck(CardRegistry.get(id));
+        }
+
+        List<CardDefinition> drawn = new ArrayList<>();
+        for (int i = 0; i < CardRegistry.size(); i++) {
+            drawn.add(pile.draw());
+        }
+
+        for (int id = 0; id < CardRegistry.size(); id++) {
+            assertTrue(drawn.contains(CardRegistry.get(id)));
+        }
+        assertEquals(0, pile.getDeckSize());
+        assertNull(pile.draw());
+    }
+
+    @Test
+    public void testRecyclesDiscardWhenDeckIsEmpty() {
+        DrawPile pile = new DrawPile(new SplittableRandom(3L));
+        pile.addToDeck(Cards.BITCOIN);
+        for (int i = 0; i < 40; i++) {
+            pile.discard(Cards.METHOD);
+        }
+
+        assertEquals(Cards.BITCOIN, pile.draw());
+        assertEquals(0, pile.getReshuffleCount());
+
+        assertEquals(Cards.METHOD, pile.draw());
+        assertEquals(1, pile.getReshuffleCount());
+        assertEquals(39, pile.getDeckSize());
+        assertEquals(0, pile.getDiscardSize());
+
+        pile.discard(Cards.FRAMEWORK);
+        assertEquals(1, pile.getDiscard().size());
+    }
+
+    @Test
+    public void testFirstDrawIsUniform() {
+        SplittableRandom random = new SplittableRandom(11L);
+        int[] firsts = new int[CardRegistry.size()];
+        int trials = 20_000;
+        for (int t = 0; t < trials; t++) {
+            DrawPile pile = new DrawPile(random.split());
+            for (int id = 0; id < CardRegistry.size(); id++) {
+                pile.addToDeck(CardRegistry.get(id));
+            }
+            firsts[pile.draw().getId()]++;
+        }
+
+        double expected = (double) trials / CardRegistry.size();
+        for (int count : firsts) {
+            assertEquals(expected, count, expected * 0.1);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+public class EngineAllocationTest {
+    private static final int WARMUP_GAMES = 2_000;
+    private static final int MEASURED_GAMES = 200;
+
+    // The only per-decision allocations left are the GameState object itself and a new
+    // hand view after the hand changes (about 115 bytes together); rebuilding options and
+    // supply maps per decision cost several hundred bytes more
+    private static final long MAX_BYTES_PER_DECISION = 160;
+
+    /**
+     * Delegates to a SimplePlayer and counts the decisions it makes.
+     */
+    private static class CountingPlayer implements IndexedPlayer {
+        private final IndexedPlayer delegate;
+        private long decisions;
+
+        CountingPlayer(String name) {
+            this.delegate = new SimplePlayer(name);
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public int chooseOption(GameState state, ImmutableList<Decision> options) {
+            decisions++;
+            return delegate.chooseOption(state, options);
+        }
+    }
+
+    @Test
+    public void testSteadyStateDecisionsAllocateAlmostNothing() throws PlayerViolationException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean,
+            "Per-thread allocation counters are not available on this JVM");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        CountingPlayer alice = new CountingPlayer("Alice");
+        CountingPlayer bob = new CountingPlayer("Bob");
+        List<Player> players = Arrays.asList(alice, bob);
+        for (int i = 0; i < WARMUP_GAMES; i++) {
+            new EngineImpl(players, i).play();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long decisionsBefore = alice.decisions + bob.decisions;
+        long allocated = 0;
+        for (int i = 0; i < MEASURED_GAMES; i++) {
+            // Only play() is measured; setting up the engine is a one-off cost per game
+            EngineImpl engine = new EngineImpl(players, WARMUP_GAMES + i);
+            long before = threads.getThreadAllocatedBytes(threadId);
+            engine.play();
+            allocated += threads.getThreadAllocatedBytes(threadId) - before;
+        }
+        long decisions = alice.decisions + bob.decisions - decisionsBefore;
+
+        long bytesPerDecision = allocated / decisions;
+        assertTrue(bytesPerDecision <= MAX_BYTES_PER_DECISION,
+            "Expected at most " + MAX_BYTES_PER_DECISION + " bytes per decision but was " + bytesPerDecision);
+    }
+}
@@ -0,0 +1,112 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngineEventsTest {
+
+    @TempDir
+    Path dir;
+
+    private static final List<String> EVENTS = Arrays.asList(
+        "edu.brandeis.cosi103a.ip2.Game", "edu.brandeis.cosi103a.ip2.Turn",
+        "edu.brandeis.cosi103a.ip2.Decision", "edu.brandeis.cosi103a.ip2.Reshuffle");
+
+    /**
+     * A SimplePlayer that is asked for every decision instead of planning its phases.
+     */
+    private static Player unplanned(String name) {
+        return new SimplePlayer(name) {
+            @Override
+            public PhasePlan planPhase(GameState state, ImmutableList<Decision> options) {
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void testRecordingCapturesGameActivity() throws IOException, PlayerViolationException {
+        EngineImpl engine = new EngineImpl(Arrays.asList(unplanned("Alice"), unplanned("Bob")),
+            31L, CountingPlayerState::new);
+        AtomicInteger decisions = new AtomicInteger();
+        engine.setDecisionListener((seat, phase, optionIndex) -> decisions.incrementAndGet());
+
+        Path file = dir.resolve("game.jfr");
+        GameResult result;
+        try (Recording recording = new Recording()) {
+            for (String event : EVENTS) {
+                recording.enable(event).withoutThreshold();
+            }
+            recording.start();
+            result = engine.play();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String name = event.getEventType().getName();
+            counts.merge(name, 1, Integer::sum);
+            if (name.endsWith(".Game")) {
+                assertEquals(31L, event.getLong("seed"));
+                assertEquals(result.getTurns(), event.getInt("turns"));
+                assertEquals(result.getPlayerResults().get(0).getName(), event.getString("winner"));
+            } else if (name.endsWith(".Decision")) {
+                assertTrue(event.getInt("chosenOption") < event.getInt("optionCount"));
+            }
+        }
+        assertEquals(1, counts.get("edu.brandeis.cosi103a.ip2.Game"));
+        assertEquals(result.getTurns(), counts.get("edu.brandeis.cosi103a.ip2.Turn"));
+        assertEquals(decisions.get(), counts.get("edu.brandeis.cosi103a.ip2.Decision"));
+        assertTrue(counts.getOrDefault("edu.brandeis.cosi103a.ip2.Reshuffle", 0) > 0);
+    }
+
+    @Test
+    public void testRecordingCapturesAsyncGames()
+            throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        ExecutorService carriers = Executors.newFixedThreadPool(2);
+        Path file = dir.resolve("async.jfr");
+        GameResult result;
+        try (Recording recording = new Recording()) {
+            recording.enable("edu.brandeis.cosi103a.ip2.Game").withoutThreshold();
+            recording.start();
+            result = new AsyncEngine(carriers).play(Arrays.asList(
+                AsyncPlayer.direct(unplanned("Alice")), AsyncPlayer.direct(unplanned("Bob"))), 31L)
+                .get(10, TimeUnit.SECONDS);
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            carriers.shutdownNow();
+        }
+
+        List<RecordedEvent> games = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().endsWith(".Game")) {
+                games.add(event);
+            }
+        }
+        assertEquals(1, games.size());
+        assertEquals(31L, games.get(0).getLong("seed"));
+        assertEquals(result.getTurns(), games.get(0).getInt("turns"));
+    }
+}
@@ -1,7 +1,9 @@
 package edu.brandeis.cosi103a.ip2;
 
+import com.google.common.collect.ImmutableList;
 import org.junit.jupiter.api.Test;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -155,4 +157,113 @@ public class EngineTest {
         assertNotNull(result);
         assertEquals(4, result.getPlayerResults().size());
     }
+
+    @Test
+    public void testSameSeedReproducesGame() throws PlayerViolationException {
+        List<Player> players = Arrays.asList(
+            new SimplePlayer("Alice"),
+            new SimplePlayer("Bob"),
+            new SimplePlayer("Charlie")
+        );
+        
+        GameResult first = new EngineImpl(players, 42L).play();
+        GameResult second = new EngineImpl(players, 42L).play();
+        
+        assertEquals(first.getPlayerResults().size(), second.getPlayerResults().size());
+        for (int i = 0; i < first.getPlayerResults().size(); i++) {
+            PlayerResult a = first.getPlayerResults().get(i);
+            PlayerResult b = second.getPlayerResults().get(i);
+            assertEquals(a.getName(), b.getName());
+            assertEquals(a.getScore(), b.getScore());
+            assertEquals(a.getEndingDeck(), b.getEndingDeck());
+        }
+    }
+
+    @Test
+    public void testEngineReportsSeed() {
+        EngineImpl engine = new EngineImpl(Arrays.asList(new SimplePlayer("Alice")), 7L);
+        assertEquals(7L, engine.getSeed());
+    }
+
+    @Test
+    public void testSnapshotsShareUnchangedViews() {
+        Player alice = new SimplePlayer("Alice");
+        EngineImpl engine = new EngineImpl(Arrays.asList(alice, new SimplePlayer("Bob")), 3L);
+        PlayerState state = engine.getPlayerState(alice);
+        state.startTurn();
+        
+        GameState first = engine.createGameState(TurnPhase.MONEY, alice, state);
+        GameState second = engine.createGameState(TurnPhase.MONEY, alice, state);
+        assertSame(first.getCurrentPlayerHand(), second.getCurrentPlayerHand());
+        assertSame(first.getAvailableCards(), second.getAvailableCards());
+        assertSame(first.getPlayerNames(), second.getPlayerNames());
+        
+        state.playCard(state.getHand().get(0));
+        GameState third = engine.createGameState(TurnPhase.MONEY, alice, state);
+        assertNotSame(first.getCurrentPlayerHand(), third.getCurrentPlayerHand());
+        assertEquals(4, third.getCurrentPlayerHand().size());
+        assertEquals(5, first.getCurrentPlayerHand().size());
+        assertSame(first.getAvailableCards(), third.getAvailableCards());
+    }
+
+    @Test
+    public void testOptionsAreDistinctCanonicalDecisions() throws PlayerViolationException {
+        Player checker = new SimplePlayer("Alice") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                assertEquals(options.size(), new HashSet<>(options).size(), "Duplicate options: " + options);
+                for (Decision option : options) {
+                    if (option instanceof PlayCardDecision) {
+                        assertSame(PlayCardDecision.of(((PlayCardDecision) option).getCard()), option);
+                    } else if (option instanceof BuyCardDecision) {
+                        assertSame(BuyCardDecision.of(((BuyCardDecision) option).getCard()), option);
+                    }
+                }
+                return super.chooseOption(state, options);
+            }
+        };
+        
+        new EngineImpl(Arrays.asList(checker), 11L).play();
+    }
+
+    @Test
+    public void testOutOfRangeOptionIsViolation() {
+        IndexedPlayer offByOne = new SimplePlayer("Alice") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                return options.size();
+            }
+        };
+
+        PlayerViolationException e = assertThrows(PlayerViolationException.class,
+            () -> new EngineImpl(Arrays.asList(offByOne), 5L).play());
+        assertTrue(e.getMessage().contains("invalid option"));
+    }
+
+    @Test
+    public void testPlainPlayerIsAdapted() throws PlayerViolationException {
+        // Returns equal but non-canonical decisions, which must still be accepted
+        Player copier = new Player() {
+            private final SimplePlayer delegate = new SimplePlayer("Alice");
+
+            @Override
+            public String getName() {
+                return delegate.getName();
+            }
+
+            @Override
+            public Decision makeDecision(GameState state, ImmutableList<Decision> options) {
+                Decision decision = delegate.makeDecision(state, options);
+                if (decision instanceof BuyCardDecision) {
+                    return new BuyCardDecision(((BuyCardDecision) decision).getCard());
+                }
+                return decision;
+            }
+        };
+
+        GameResult adapted = new EngineImpl(Arrays.asList(copier), 9L).play();
+        GameResult indexed = new EngineImpl(Arrays.asList(new SimplePlayer("Alice")), 9L).play();
+        assertEquals(indexed.getPlayerResults().get(0).getScore(), adapted.getPlayerResults().get(0).getScore());
+        assertEquals(indexed.getPlayerResults().get(0).getEndingDeck(), adapted.getPlayerResults().get(0).getEndingDeck());
+    }
 }
@@ -0,0 +1,206 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameForkTest {
+
+    /**
+     * Plays a fork to the end, choosing as SimplePlayer would.
+     */
+    private static void playOut(GameFork fork) {
+        SimplePlayer policy = new SimplePlayer("Policy");
+        while (!fork.isGameOver()) {
+            GameState state = new GameState(fork.getCurrentPhase(), "Policy", ImmutableList.of(),
+                fork.getActions(), fork.getBuys(), fork.getMoney(), ImmutableMap.of(), ImmutableList.of());
+            fork.applyOption(policy.chooseOption(state, fork.getOptions()));
+        }
+    }
+
+    @Test
+    public void testForkMatchesEngineAtEveryDecision() throws PlayerViolationException {
+        AtomicInteger decisions = new AtomicInteger();
+        Player checker = new SimplePlayer("Alice") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                GameFork fork = state.fork();
+                assertSame(options, fork.getOptions());
+                assertEquals(state.getCurrentPhase(), fork.getCurrentPhase());
+                assertEquals(state.getCurrentPlayerActions(), fork.getActions());
+                assertEquals(state.getCurrentPlayerBuys(), fork.getBuys());
+                assertEquals(state.getCurrentPlayerMoney(), fork.getMoney());
+                assertEquals(state.getCurrentPlayerHand().size(), fork.getHandSize(fork.getCurrentSeat()));
+                assertEquals(state.getCurrentPlayerName(), state.getPlayerNames().get(fork.getCurrentSeat()));
+                decisions.incrementAndGet();
+                return super.chooseOption(state, options);
+            }
+        };
+
+        new EngineImpl(Arrays.asList(checker, new SimplePlayer("Bob")), 21L).play();
+        assertTrue(decisions.get() > 0);
+    }
+
+    @Test
+    public void testStateCannotForkAfterItsDecision() throws PlayerViolationException {
+        List<GameState> states = new ArrayList<>();
+        Player keeper = new SimplePlayer("Alice") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                states.add(state);
+                return super.chooseOption(state, options);
+            }
+        };
+        new EngineImpl(Arrays.asList(keeper), 21L).play();
+
+        assertFalse(states.isEmpty());
+        for (GameState state : states) {
+            assertThrows(IllegalStateException.class, state::fork);
+        }
+    }
+
+    @Test
+    public void testStateForkHidesOpponentHands() throws PlayerViolationException {
+        AtomicReference<EngineImpl> engine = new AtomicReference<>();
+        AtomicInteger resampled = new AtomicInteger();
+        Player checker = new SimplePlayer("Alice") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                GameFork seen = state.fork();
+                GameFork exact = engine.get().fork();
+                for (int id = 0; id < CardRegistry.size(); id++) {
+                    assertEquals(exact.getHandCount(0, id), seen.getHandCount(0, id));
+                    assertEquals(exact.getOwnedCount(1, id), seen.getOwnedCount(1, id));
+                    if (exact.getHandCount(1, id) != seen.getHandCount(1, id)) {
+                        resampled.incrementAndGet();
+                    }
+                }
+                assertEquals(exact.getHandSize(1), seen.getHandSize(1));
+                return super.chooseOption(state, options);
+            }
+        };
+        engine.set(new EngineImpl(Arrays.asList(checker, new SimplePlayer("Bob")), 21L));
+
+        engine.get().play();
+        assertTrue(resampled.get() > 0);
+    }
+
+    @Test
+    public void testForkOfNewGame() {
+        EngineImpl engine = new EngineImpl(Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob")), 4L);
+        GameFork fork = engine.fork();
+
+        assertEquals(2, fork.getNumPlayers());
+        assertEquals(0, fork.getCurrentSeat());
+        assertEquals(TurnPhase.ACTION, fork.getCurrentPhase());
+        assertEquals(1, fork.getTurn());
+        assertEquals(8, fork.getSupplyCount(Cards.FRAMEWORK.getId()));
+        for (int seat = 0; seat < 2; seat++) {
+            assertEquals(10, fork.getCardCount(seat));
+            assertEquals(5, fork.getHandSize(seat));
+            assertEquals(7, fork.getOwnedCount(seat, Cards.BITCOIN.getId()));
+            assertEquals(3, fork.getScore(seat));
+        }
+    }
+
+    @Test
+    public void testForksAreIndependent() {
+        GameFork original = new EngineImpl(Arrays.asList(new SimplePlayer("Alice")), 8L).fork();
+        GameFork before = original.fork();
+        assertEquals(before, original);
+
+        GameFork branch = original.fork();
+        playOut(branch);
+
+        assertTrue(branch.isGameOver());
+        assertEquals(before, original);
+        assertNotEquals(original, branch);
+
+        GameFork pooled = new GameFork(1);
+        pooled.copyFrom(branch);
+        assertEquals(branch, pooled);
+    }
+
+    @Test
+    public void testSameSeedSameContinuation() {
+        GameFork start = new EngineImpl(Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob")), 3L).fork();
+        GameFork first = start.fork();
+        GameFork second = start.fork();
+        first.setSeed(99L);
+        second.setSeed(99L);
+
+        playOut(first);
+        playOut(second);
+
+        assertEquals(first, second);
+        assertEquals(first.getTurn(), second.getTurn());
+    }
+
+    @Test
+    public void testPlayOutEndsWhenFrameworksExhausted() {
+        GameFork fork = new EngineImpl(Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob")), 5L).fork();
+        playOut(fork);
+
+        assertTrue(fork.isGameOver());
+        assertNull(fork.getCurrentPhase());
+        assertEquals(0, fork.getSupplyCount(Cards.FRAMEWORK.getId()));
+        assertEquals(0, fork.getOptionCount());
+        assertEquals(8, fork.getOwnedCount(0, Cards.FRAMEWORK.getId()) + fork.getOwnedCount(1, Cards.FRAMEWORK.getId()));
+        assertThrows(IllegalStateException.class, fork::getOptions);
+        assertThrows(IllegalStateException.class, () -> fork.applyOption(0));
+    }
+
+    @Test
+    public void testDeterminizeKeepsObserverHand() {
+        GameFork fork = new EngineImpl(Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob")), 12L).fork();
+        GameFork sampled = fork.fork();
+        sampled.setSeed(1L);
+        sampled.determinize(0);
+
+        for (int id = 0; id < CardRegistry.size(); id++) {
+            assertEquals(fork.getHandCount(0, id), sampled.getHandCount(0, id));
+            assertEquals(fork.getOwnedCount(1, id), sampled.getOwnedCount(1, id));
+        }
+        assertEquals(fork.getHandSize(1), sampled.getHandSize(1));
+        assertEquals(fork.getOptions(), sampled.getOptions());
+    }
+
+    @Test
+    public void testApplyDecisionMatchesApplyOption() {
+        GameFork start = new EngineImpl(Arrays.asList(new SimplePlayer("Alice")), 6L).fork();
+        for (int index = 0; index < start.getOptionCount(); index++) {
+            GameFork byIndex = start.fork();
+            GameFork byDecision = start.fork();
+            byIndex.applyOption(index);
+            byDecision.apply(start.getOptions().get(index));
+            assertEquals(byIndex, byDecision);
+        }
+    }
+
+    @Test
+    public void testInvalidDecisionsAreRejected() {
+        GameFork fork = new EngineImpl(Arrays.asList(new SimplePlayer("Alice")), 6L).fork();
+        assertEquals(TurnPhase.ACTION, fork.getCurrentPhase());
+
+        assertThrows(IllegalArgumentException.class, () -> fork.apply(BuyCardDecision.of(Cards.BITCOIN)));
+        assertThrows(IllegalArgumentException.class, () -> fork.apply(PlayCardDecision.of(Cards.FRAMEWORK)));
+        assertThrows(IndexOutOfBoundsException.class, () -> fork.applyOption(fork.getOptionCount()));
+        assertThrows(IndexOutOfBoundsException.class, () -> fork.applyOption(-1));
+        assertThrows(IllegalArgumentException.class, () -> new GameFork(2).copyFrom(fork));
+    }
+
+    @Test
+    public void testPlainGameStateCannotFork() {
+        GameState state = new GameState(TurnPhase.ACTION, "Alice", ImmutableList.of(), 1, 1, 0,
+            ImmutableMap.of(), ImmutableList.of("Alice"));
+        assertThrows(UnsupportedOperationException.class, state::fork);
+    }
+}
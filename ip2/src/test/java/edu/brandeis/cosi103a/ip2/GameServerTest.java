@@ -0,0 +1,170 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameServerTest {
+
+    /**
+     * A blocking client for driving the protocol by hand.
+     */
+    private static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client(InetSocketAddress address) throws IOException {
+            socket = new Socket(address.getAddress(), address.getPort());
+            socket.setSoTimeout(10_000);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+        }
+
+        void send(String line) {
+            out.print(line + "\n");
+            out.flush();
+        }
+
+        String receive() throws IOException {
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void testSelectorSurvivesFailingCallbacks() throws Exception {
+        try (LineSelector selector = new LineSelector("test-io");
+             ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            AtomicInteger accepted = new AtomicInteger();
+            selector.listen(server, connection -> {
+                if (accepted.incrementAndGet() == 1) {
+                    throw new IllegalStateException("broken callback");
+                }
+                connection.sendAndClose("BYE");
+            }).join();
+            selector.execute(() -> {
+                throw new IllegalStateException("broken task");
+            });
+
+            InetSocketAddress address = (InetSocketAddress) server.getLocalAddress();
+            try (Client first = new Client(address)) {
+                assertNull(first.receive());
+            }
+            try (Client second = new Client(address)) {
+                assertEquals("BYE", second.receive());
+            }
+
+            ServerSocketChannel closed = ServerSocketChannel.open();
+            closed.close();
+            CompletionException e = assertThrows(CompletionException.class,
+                () -> selector.listen(closed, connection -> { }).join());
+            assertInstanceOf(IOException.class, e.getCause());
+        }
+    }
+
+    @Test
+    public void testSoloGameOverProtocol() throws Exception {
+        try (GameServer server = new GameServer(1, 4, Duration.ofSeconds(10), 1);
+             Client client = new Client(server.start(0))) {
+            client.send("HELLO Alice");
+            assertEquals("WELCOME", client.receive());
+            assertEquals("START 0 Alice", client.receive());
+
+            SimplePlayer player = new SimplePlayer("Alice");
+            String line;
+            int decisions = 0;
+            while ((line = client.receive()).startsWith("DECIDE ")) {
+                GameProtocol.DecisionRequest request =
+                    GameProtocol.parseDecide(line.split(" "), "Alice", ImmutableList.of("Alice"));
+                client.send("CHOOSE " + player.chooseOption(request.state, request.options));
+                decisions++;
+            }
+
+            assertTrue(line.startsWith("RESULT Alice:"), line);
+            assertTrue(decisions > 0);
+            assertNull(client.receive());
+            assertEquals(1, server.getCompletedGames());
+            assertEquals(decisions, server.getDecisionLatency().getTotal());
+        }
+    }
+
+    @Test
+    public void testInvalidChoiceAbortsGame() throws Exception {
+        try (GameServer server = new GameServer(2, 4, Duration.ofSeconds(10), 1)) {
+            InetSocketAddress address = server.start(0);
+            try (Client alice = new Client(address); Client bob = new Client(address)) {
+                alice.send("HELLO Alice");
+                assertEquals("WELCOME", alice.receive());
+                bob.send("HELLO Bob");
+                assertEquals("START 0 Alice,Bob", alice.receive());
+                assertTrue(alice.receive().startsWith("DECIDE ACTION "));
+                alice.send("CHOOSE 99");
+
+                assertTrue(alice.receive().startsWith("ABORTED "));
+                assertNull(alice.receive());
+                String line;
+                while ((line = bob.receive()).startsWith("WELCOME") || line.startsWith("START")) {
+                    // Bob never had to decide
+                }
+                assertTrue(line.startsWith("ABORTED "), line);
+            }
+            assertEquals(1, server.getAbortedGames());
+            assertEquals(0, server.getCompletedGames());
+        }
+    }
+
+    @Test
+    public void testAdmissionControlTurnsAwayExtraPlayers() throws Exception {
+        try (GameServer server = new GameServer(2, 1, Duration.ofSeconds(10), 1)) {
+            InetSocketAddress address = server.start(0);
+            try (Client first = new Client(address); Client second = new Client(address)) {
+                first.send("HELLO A");
+                assertEquals("WELCOME", first.receive());
+                second.send("HELLO B");
+                assertEquals("WELCOME", second.receive());
+
+                try (Client third = new Client(address)) {
+                    third.send("HELLO C");
+                    assertEquals("BUSY", third.receive());
+                    assertNull(third.receive());
+                }
+            }
+            assertEquals(1, server.getRejectedConnections());
+            assertEquals(1, server.getPeakGames());
+        }
+    }
+
+    @Test
+    public void testLoadTestPlaysManyConcurrentGames() throws Exception {
+        try (GameServer server = new GameServer(2, 20, Duration.ofSeconds(10), 2)) {
+            LoadTestClient client = new LoadTestClient(server.start(0));
+            LoadTestClient.Report report = client.run(50, Duration.ofSeconds(2));
+
+            assertTrue(report.getCompletedGames() > 0, report.toString());
+            assertEquals(0, report.getAbortedGames());
+            assertTrue(report.getRejections() > 0, "50 bots cannot all fit in 20 games");
+            assertTrue(server.getPeakGames() <= 20);
+            assertTrue(server.getCompletedGames() >= report.getCompletedGames());
+        }
+    }
+}
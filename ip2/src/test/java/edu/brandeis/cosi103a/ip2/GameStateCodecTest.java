@@ -0,0 +1,152 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStateCodecTest {
+
+    /**
+     * Plays a game and keeps every state and option list the first player decided on.
+     */
+    private static List<GameProtocol.DecisionRequest> recordGame(long seed) throws PlayerViolationException {
+        List<GameProtocol.DecisionRequest> requests = new ArrayList<>();
+        Player recorder = new SimplePlayer("Alice") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                requests.add(new GameProtocol.DecisionRequest(state, options));
+                return super.chooseOption(state, options);
+            }
+        };
+        new EngineImpl(Arrays.asList(recorder, new SimplePlayer("Bob")), seed).play();
+        return requests;
+    }
+
+    private static void assertSameState(GameState expected, GameState actual) {
+        assertEquals(expected.getCurrentPhase(), actual.getCurrentPhase());
+        assertEquals(expected.getCurrentPlayerName(), actual.getCurrentPlayerName());
+        assertEquals(expected.getCurrentPlayerHand(), actual.getCurrentPlayerHand());
+        assertEquals(expected.getCurrentPlayerActions(), actual.getCurrentPlayerActions());
+        assertEquals(expected.getCurrentPlayerBuys(), actual.getCurrentPlayerBuys());
+        assertEquals(expected.getCurrentPlayerMoney(), actual.getCurrentPlayerMoney());
+        assertEquals(expected.getAvailableCards(), actual.getAvailableCards());
+        assertEquals(expected.getPlayerNames(), actual.getPlayerNames());
+    }
+
+    /**
+     * Encodes and decodes every message of a game, and returns the total bytes written.
+     */
+    private static int roundTrip(List<GameProtocol.DecisionRequest> requests, boolean delta) {
+        GameStateCodec.Encoder encoder = new GameStateCodec.Encoder(delta);
+        GameStateCodec.Decoder decoder = new GameStateCodec.Decoder();
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        int bytes = 0;
+        for (GameProtocol.DecisionRequest request : requests) {
+            buffer.clear();
+            encoder.encode(request.state, request.options, buffer);
+            buffer.flip();
+            bytes += buffer.remaining();
+
+            GameProtocol.DecisionRequest decoded = decoder.decode(buffer);
+            assertFalse(buffer.hasRemaining());
+            assertSameState(request.state, decoded.state);
+            assertEquals(request.options, decoded.options);
+        }
+        return bytes;
+    }
+
+    @Test
+    public void testFullAndDeltaRoundTripWholeGame() throws PlayerViolationException {
+        List<GameProtocol.DecisionRequest> requests = recordGame(7L);
+        int full = roundTrip(requests, false);
+        int delta = roundTrip(requests, true);
+
+        assertTrue(delta < full / 2, "delta " + delta + " bytes, full " + full);
+    }
+
+    @Test
+    public void testDeltaSkipsUnchangedFields() {
+        ImmutableMap<CardDefinition, Integer> supply = ImmutableMap.of(Cards.BITCOIN, 60, Cards.METHOD, 14);
+        ImmutableList<String> names = ImmutableList.of("Alice", "Bob");
+        GameState before = new GameState(TurnPhase.MONEY, "Alice", ImmutableList.of(Cards.BITCOIN, Cards.METHOD),
+            0, 1, 0, supply, names);
+        GameState after = new GameState(TurnPhase.MONEY, "Alice", ImmutableList.of(Cards.METHOD),
+            0, 1, 1, supply, names);
+        ImmutableList<Decision> options = ImmutableList.of(PlayCardDecision.of(Cards.METHOD), EndPhaseDecision.getInstance());
+
+        GameStateCodec.Encoder encoder = new GameStateCodec.Encoder(true);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        encoder.encode(before, options, buffer);
+        assertEquals(GameStateCodec.ALL, buffer.get(0));
+
+        buffer.clear();
+        encoder.encode(after, options, buffer);
+        assertEquals(GameStateCodec.RESOURCES | GameStateCodec.HAND, buffer.get(0));
+        assertEquals(1 + 3 + 2, buffer.position());
+
+        encoder.reset();
+        buffer.clear();
+        encoder.encode(after, options, buffer);
+        assertEquals(GameStateCodec.ALL, buffer.get(0));
+    }
+
+    @Test
+    public void testDecisionsRoundTripToCanonicalInstances() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        List<Decision> decisions = Arrays.asList(EndPhaseDecision.getInstance(), PlayCardDecision.of(Cards.REFACTOR),
+            BuyCardDecision.of(Cards.FRAMEWORK), GainCardDecision.of(Cards.BUG));
+        for (Decision decision : decisions) {
+            GameStateCodec.putDecision(buffer, decision);
+        }
+        assertEquals(decisions.size(), buffer.position());
+
+        buffer.flip();
+        for (Decision decision : decisions) {
+            assertSame(decision, GameStateCodec.getDecision(buffer));
+        }
+    }
+
+    @Test
+    public void testSupplyMaskHasABitForEveryCard() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        long mask = 1L << (CardRegistry.MAX_CARDS - 1) | 1;
+        GameStateCodec.putVarlong(buffer, mask);
+        GameStateCodec.putVarlong(buffer, 0);
+        assertEquals(11, buffer.position());
+
+        buffer.flip();
+        assertEquals(mask, GameStateCodec.getVarlong(buffer));
+        assertEquals(0, GameStateCodec.getVarlong(buffer));
+        byte[] endless = new byte[11];
+        Arrays.fill(endless, (byte) 0x80);
+        assertThrows(IllegalArgumentException.class, () -> GameStateCodec.getVarlong(ByteBuffer.wrap(endless)));
+    }
+
+    @Test
+    public void testMalformedInputIsRejected() {
+        GameState state = new GameState(TurnPhase.BUY, "Alice", ImmutableList.of(), 0, 1, 3,
+            ImmutableMap.of(), ImmutableList.of("Alice"));
+        GameStateCodec.Encoder encoder = new GameStateCodec.Encoder(true);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        encoder.encode(state, ImmutableList.of(EndPhaseDecision.getInstance()), buffer);
+        buffer.clear();
+        encoder.encode(state, ImmutableList.of(BuyCardDecision.of(Cards.BITCOIN)), buffer);
+        buffer.flip();
+
+        // A delta is meaningless to a decoder that missed the full message
+        assertThrows(IllegalArgumentException.class, () -> new GameStateCodec.Decoder().decode(buffer));
+        assertThrows(IllegalArgumentException.class,
+            () -> new GameStateCodec.Decoder().decode(ByteBuffer.wrap(new byte[] {(byte) GameStateCodec.ALL, 1})));
+        assertThrows(IllegalArgumentException.class,
+            () -> GameStateCodec.getDecision(ByteBuffer.wrap(new byte[] {(byte) 0x7F})));
+        assertThrows(IllegalArgumentException.class,
+            () -> GameStateCodec.putDecision(buffer.clear(), new PlayCardDecision(new CardDefinition("Unknown", 1, 0, 1, CardType.MONEY))));
+    }
+}
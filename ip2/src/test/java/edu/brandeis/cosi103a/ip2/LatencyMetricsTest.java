@@ -0,0 +1,90 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyMetricsTest {
+
+    /**
+     * A SimplePlayer that is asked for every decision instead of planning its phases.
+     */
+    private static Player unplanned(String name) {
+        return new SimplePlayer(name) {
+            @Override
+            public PhasePlan planPhase(GameState state, ImmutableList<Decision> options) {
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void testEveryPhaseAndDecisionIsTimed() throws PlayerViolationException {
+        EngineImpl engine = new EngineImpl(Arrays.asList(unplanned("Alice"), unplanned("Bob")), 9L);
+        AtomicInteger decisions = new AtomicInteger();
+        engine.setDecisionListener((seat, phase, optionIndex) -> decisions.incrementAndGet());
+        LatencyMetrics metrics = LatencyMetrics.attach(engine);
+
+        GameResult result = engine.play();
+
+        int turns = result.getTurns();
+        for (TurnPhase phase : Arrays.asList(TurnPhase.ACTION, TurnPhase.MONEY, TurnPhase.BUY, TurnPhase.CLEANUP)) {
+            assertEquals(turns, metrics.getPhaseLatency(phase).getTotal(), phase.toString());
+        }
+        assertEquals(0, metrics.getPhaseLatency(TurnPhase.GAIN).getTotal());
+        assertEquals((turns + 1) / 2, metrics.getPhaseLatency("Alice", TurnPhase.BUY).getTotal());
+        assertEquals(decisions.get(),
+            metrics.getDecisionLatency("Alice").getTotal() + metrics.getDecisionLatency("Bob").getTotal());
+        assertEquals(0, metrics.getDecisionLatency("Alice", TurnPhase.CLEANUP).getTotal());
+        assertThrows(IllegalArgumentException.class, () -> metrics.getDecisionLatency("Carol"));
+    }
+
+    @Test
+    public void testSlowPlayerShowsInDecisionLatency() throws PlayerViolationException {
+        long pause = TimeUnit.MICROSECONDS.toNanos(200);
+        Player slow = new SimplePlayer("Slow") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                if (state.getCurrentPhase() == TurnPhase.BUY) {
+                    LockSupport.parkNanos(pause);
+                }
+                return super.chooseOption(state, options);
+            }
+        };
+        EngineImpl engine = new EngineImpl(Arrays.asList(slow, new SimplePlayer("Fast")), 2L);
+        LatencyMetrics metrics = LatencyMetrics.attach(engine);
+        engine.play();
+
+        assertTrue(metrics.getDecisionLatency("Slow", TurnPhase.BUY).getPercentile(0.5) >= pause);
+        assertTrue(metrics.getDecisionLatency("Fast", TurnPhase.BUY).getPercentile(0.5) < pause);
+        assertTrue(metrics.getPhaseLatency("Slow", TurnPhase.BUY).getSum()
+            >= metrics.getDecisionLatency("Slow", TurnPhase.BUY).getSum());
+    }
+
+    @Test
+    public void testLatencyHistogramBuckets() {
+        for (long value : new long[] {0, 7, 8, 9, 15, 16, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(LatencyHistogram.upperBound(bucket) >= value);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.upperBound(bucket - 1) < value);
+            }
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(50_500.0, histogram.getMean());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(100_000, histogram.getPercentile(1.0));
+        long median = histogram.getPercentile(0.5);
+        assertTrue(median >= 50_000 && median <= 50_000 * 1.125, "median " + median);
+    }
+}
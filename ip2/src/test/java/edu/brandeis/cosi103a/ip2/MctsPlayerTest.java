@@ -0,0 +1,81 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MctsPlayerTest {
+
+    @Test
+    public void testPlaysCompleteGame() throws PlayerViolationException {
+        try (MctsPlayer mcts = new MctsPlayer("Mcts", 100, null, 2, 1L)) {
+            GameResult result = new EngineImpl(Arrays.asList(mcts, new SimplePlayer("Simple")), 7L).play();
+
+            assertEquals(2, result.getPlayerResults().size());
+        }
+    }
+
+    @Test
+    public void testIterationBudgetIsReproducible() throws PlayerViolationException {
+        GameResult first;
+        GameResult second;
+        try (MctsPlayer a = new MctsPlayer("Mcts", 60, null, 2, 5L);
+             MctsPlayer b = new MctsPlayer("Mcts", 60, null, 2, 5L)) {
+            first = new EngineImpl(Arrays.asList(a, new SimplePlayer("Simple")), 9L).play();
+            second = new EngineImpl(Arrays.asList(b, new SimplePlayer("Simple")), 9L).play();
+        }
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(first.getPlayerResults().get(i).getName(), second.getPlayerResults().get(i).getName());
+            assertEquals(first.getPlayerResults().get(i).getScore(), second.getPlayerResults().get(i).getScore());
+            assertEquals(first.getPlayerResults().get(i).getEndingDeck(), second.getPlayerResults().get(i).getEndingDeck());
+        }
+    }
+
+    @Test
+    public void testTimeBudgetIsHonored() throws PlayerViolationException {
+        MctsPlayer mcts = new MctsPlayer("Mcts", 0, Duration.ofMillis(5), 1, 3L);
+        long[] slowest = new long[1];
+        IndexedPlayer timed = new IndexedPlayer() {
+            @Override
+            public String getName() {
+                return mcts.getName();
+            }
+
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                long start = System.nanoTime();
+                int choice = mcts.chooseOption(state, options);
+                slowest[0] = Math.max(slowest[0], System.nanoTime() - start);
+                return choice;
+            }
+        };
+
+        new EngineImpl(Arrays.asList(timed), 2L).play();
+
+        assertTrue(slowest[0] < Duration.ofMillis(250).toNanos(), "Slowest decision took " + slowest[0] + " ns");
+    }
+
+    @Test
+    public void testFallsBackWhenStateCannotFork() {
+        MctsPlayer mcts = new MctsPlayer("Mcts", 10);
+        GameState state = new GameState(TurnPhase.BUY, "Mcts", ImmutableList.of(), 0, 1, 8,
+            ImmutableMap.of(), ImmutableList.of("Mcts"));
+        ImmutableList<Decision> options = DecisionOptions.buy(
+            DecisionOptions.bit(Cards.BITCOIN.getId()) | DecisionOptions.bit(Cards.FRAMEWORK.getId()));
+
+        assertEquals(new SimplePlayer("Simple").chooseOption(state, options), mcts.chooseOption(state, options));
+    }
+
+    @Test
+    public void testRequiresBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new MctsPlayer("Mcts", 0, null, 1, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new MctsPlayer("Mcts", 10, Duration.ZERO, 1, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new MctsPlayer("Mcts", 10, null, 0, 1L));
+    }
+}
@@ -0,0 +1,123 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PhasePlanTest {
+
+    /**
+     * Plans to play a Bitcoin more times than any hand holds, then falls back to SimplePlayer's choices.
+     */
+    private static class GreedyPlanner extends SimplePlayer {
+        private final List<GameState> moneyAsks = new ArrayList<>();
+
+        GreedyPlanner(String name) {
+            super(name);
+        }
+
+        @Override
+        public PhasePlan planPhase(GameState state, ImmutableList<Decision> options) {
+            if (state.getCurrentPhase() != TurnPhase.MONEY) {
+                return null;
+            }
+            return PhasePlan.sequence(Collections.nCopies(20, PlayCardDecision.of(Cards.BITCOIN)));
+        }
+
+        @Override
+        public int chooseOption(GameState state, ImmutableList<Decision> options) {
+            if (state.getCurrentPhase() == TurnPhase.MONEY) {
+                moneyAsks.add(state);
+            }
+            return super.chooseOption(state, options);
+        }
+    }
+
+    private static List<Integer> recordDecisions(EngineImpl engine) throws PlayerViolationException {
+        List<Integer> choices = new ArrayList<>();
+        engine.setDecisionListener((seat, phase, optionIndex) -> choices.add(optionIndex));
+        engine.play();
+        return choices;
+    }
+
+    @Test
+    public void testPlannedGameMatchesStepByStepGame() throws PlayerViolationException {
+        EngineImpl planned = new EngineImpl(Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob")), 13L);
+        LatencyMetrics plannedMetrics = LatencyMetrics.attach(planned);
+        SimplePlayer stepAlice = new SimplePlayer("Alice") {
+            @Override
+            public PhasePlan planPhase(GameState state, ImmutableList<Decision> options) {
+                return null;
+            }
+        };
+        EngineImpl stepByStep = new EngineImpl(Arrays.asList(stepAlice, new SimplePlayer("Bob")), 13L);
+        LatencyMetrics stepMetrics = LatencyMetrics.attach(stepByStep);
+
+        // Every step of a plan is still a decision, with the same choices
+        assertEquals(recordDecisions(stepByStep), recordDecisions(planned));
+        long plannedAsks = plannedMetrics.getDecisionLatency("Alice").getTotal();
+        long stepAsks = stepMetrics.getDecisionLatency("Alice").getTotal();
+        assertTrue(plannedAsks * 2 < stepAsks, plannedAsks + " asks with plans, " + stepAsks + " without");
+    }
+
+    @Test
+    public void testInvalidStepFallsBackToAskingPlayer() throws PlayerViolationException {
+        GreedyPlanner planner = new GreedyPlanner("Alice");
+        EngineImpl engine = new EngineImpl(Arrays.asList(planner), 3L);
+        engine.play();
+
+        // The plan plays every Bitcoin, then the player decides the rest of the phase
+        assertFalse(planner.moneyAsks.isEmpty());
+        for (GameState state : planner.moneyAsks) {
+            assertFalse(state.getCurrentPlayerHand().contains(Cards.BITCOIN));
+        }
+    }
+
+    @Test
+    public void testPlansAreNotUsedUnderTimeLimits() throws PlayerViolationException {
+        GreedyPlanner planner = new GreedyPlanner("Alice");
+        EngineImpl engine = new EngineImpl(Arrays.asList(planner), 3L);
+        engine.setTimeLimits(TimeLimits.perDecision(Duration.ofSeconds(10), TimeLimits.Policy.FORFEIT));
+        engine.play();
+
+        assertTrue(planner.moneyAsks.stream().anyMatch(state -> state.getCurrentPlayerHand().contains(Cards.BITCOIN)));
+    }
+
+    @Test
+    public void testThrowingPlannerForfeits() {
+        SimplePlayer broken = new SimplePlayer("Alice") {
+            @Override
+            public PhasePlan planPhase(GameState state, ImmutableList<Decision> options) {
+                throw new IllegalStateException("No plan");
+            }
+        };
+        PlayerViolationException e = assertThrows(PlayerViolationException.class,
+            () -> new EngineImpl(Arrays.asList(broken), 1L).play());
+        assertTrue(e.getMessage().contains("planning"));
+    }
+
+    @Test
+    public void testPlanSteps() {
+        ImmutableList<Decision> options = DecisionOptions.play(DecisionOptions.bit(Cards.METHOD.getId())
+            | DecisionOptions.bit(Cards.BITCOIN.getId()));
+        int end = options.size() - 1;
+
+        assertEquals(options.indexOf(PlayCardDecision.of(Cards.BITCOIN)), PhasePlan.playAll(CardType.MONEY).nextOption(options, 0));
+        assertEquals(options.indexOf(PlayCardDecision.of(Cards.METHOD)), PhasePlan.playHand(CardType.AUTOMATION).nextOption(options, 0));
+        assertEquals(end, PhasePlan.playAll(CardType.ACTION).nextOption(options, 0));
+
+        PhasePlan sequence = PhasePlan.sequence(Arrays.asList(PlayCardDecision.of(Cards.METHOD), EndPhaseDecision.getInstance()));
+        assertEquals(options.indexOf(PlayCardDecision.of(Cards.METHOD)), sequence.nextOption(options, 0));
+        assertEquals(end, sequence.nextOption(options, 1));
+        assertEquals(-1, sequence.nextOption(options, 2));
+        assertEquals(-1, PhasePlan.sequence(Arrays.asList(BuyCardDecision.of(Cards.METHOD))).nextOption(options, 0));
+        assertThrows(IllegalArgumentException.class, () -> PhasePlan.sequence(Arrays.asList((Decision) null)));
+    }
+}
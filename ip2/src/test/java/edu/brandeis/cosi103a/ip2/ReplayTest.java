@@ -0,0 +1,209 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayTest {
+
+    private static void assertSameResult(GameResult expected, GameResult actual) {
+        assertEquals(expected.getPlayerResults().size(), actual.getPlayerResults().size());
+        for (int i = 0; i < expected.getPlayerResults().size(); i++) {
+            PlayerResult a = expected.getPlayerResults().get(i);
+            PlayerResult b = actual.getPlayerResults().get(i);
+            assertEquals(a.getName(), b.getName());
+            assertEquals(a.getScore(), b.getScore());
+            assertEquals(a.getEndingDeck(), b.getEndingDeck());
+        }
+    }
+
+    @Test
+    public void testReplayReproducesGame() throws Exception {
+        List<Player> players = Arrays.asList(
+            new SimplePlayer("Alice"),
+            new SimplePlayer("Bob"),
+            new SimplePlayer("Charlie")
+        );
+        EngineImpl engine = new EngineImpl(players, 17L);
+        ReplayRecorder recorder = ReplayRecorder.attach(engine);
+        GameResult original = engine.play();
+
+        ReplayLog log = ReplayLog.read(recorder.toByteArray());
+        assertEquals(17L, log.getSeed());
+        assertEquals(ImmutableList.of("Alice", "Bob", "Charlie"), log.getPlayerNames());
+        assertEquals(recorder.getDecisionCount(), log.getDecisionCount());
+        assertSameResult(original, log.replay());
+    }
+
+    @Test
+    public void testLogUsesOneBytePerDecision() throws Exception {
+        EngineImpl engine = new EngineImpl(Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob")), 3L);
+        ReplayRecorder recorder = ReplayRecorder.attach(engine, 0);
+        engine.play();
+
+        int header = ReplayLog.encodeHeader(3L, engine.getPlayerNames(), ReplayLog.Representation.LIST, 0).length;
+        int index = recorder.size() - header - recorder.getDecisionCount();
+        assertEquals(0, recorder.getCheckpointCount());
+        assertTrue(index < 16, "Index and trailer took " + index + " bytes");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.writeTo(out);
+        assertArrayEquals(recorder.toByteArray(), out.toByteArray());
+    }
+
+    @Test
+    public void testReplayOfSearchingPlayerNeedsNoSearch() throws Exception {
+        try (MctsPlayer mcts = new MctsPlayer("Mcts", 20, null, 1, 2L)) {
+            EngineImpl engine = new EngineImpl(Arrays.asList(mcts, new SimplePlayer("Simple")), 8L,
+                CountingPlayerState::new);
+            ReplayRecorder recorder = ReplayRecorder.attach(engine);
+            GameResult original = engine.play();
+
+            assertSameResult(original, ReplayLog.read(recorder.toByteArray()).replay());
+        }
+    }
+
+    @Test
+    public void testReplayReproducesViolation() throws Exception {
+        IndexedPlayer offByOne = new SimplePlayer("Alice") {
+            private int decisions;
+
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                return ++decisions == 30 ? options.size() : super.chooseOption(state, options);
+            }
+        };
+        EngineImpl engine = new EngineImpl(Arrays.asList(offByOne), 5L);
+        ReplayRecorder recorder = ReplayRecorder.attach(engine);
+        PlayerViolationException original = assertThrows(PlayerViolationException.class, engine::play);
+
+        ReplayLog log = ReplayLog.read(recorder.toByteArray());
+        assertEquals(30, log.getDecisionCount());
+        PlayerViolationException replayed = assertThrows(PlayerViolationException.class, log::replay);
+        assertEquals(original.getMessage(), replayed.getMessage());
+    }
+
+    @Test
+    public void testMismatchedLogsAreReported() throws Exception {
+        EngineImpl engine = new EngineImpl(Arrays.asList(new SimplePlayer("Alice")), 6L);
+        ReplayRecorder recorder = ReplayRecorder.attach(engine);
+        engine.play();
+        byte[] log = recorder.toByteArray();
+        ReplayLog original = ReplayLog.read(log);
+
+        ReplayRecorder truncated = new ReplayRecorder(6L, original.getPlayerNames());
+        ReplayRecorder extended = new ReplayRecorder(6L, original.getPlayerNames());
+        for (int i = 0; i < original.getDecisionCount(); i++) {
+            if (i < original.getDecisionCount() - 1) {
+                truncated.decisionMade(0, TurnPhase.BUY, original.getDecision(i));
+            }
+            extended.decisionMade(0, TurnPhase.BUY, original.getDecision(i));
+        }
+        extended.decisionMade(0, TurnPhase.BUY, 0);
+        assertThrows(PlayerViolationException.class, () -> ReplayLog.read(truncated.toByteArray()).replay());
+        assertThrows(IllegalStateException.class, () -> ReplayLog.read(extended.toByteArray()).replay());
+
+        byte[] corrupt = log.clone();
+        corrupt[0] = 'X';
+        assertThrows(IOException.class, () -> ReplayLog.read(corrupt));
+        assertThrows(IOException.class, () -> ReplayLog.read(Arrays.copyOf(log, log.length - 1)));
+    }
+
+    @Test
+    public void testSeekMatchesPlayingFromStart() throws Exception {
+        List<Player> players = Arrays.asList(
+            new SimplePlayer("Alice"),
+            new SimplePlayer("Bob"),
+            new SimplePlayer("Charlie")
+        );
+        EngineImpl engine = new EngineImpl(players, 31L);
+        ReplayRecorder recorder = ReplayRecorder.attach(engine, 4);
+        GameResult original = engine.play();
+        int turns = engine.getTurn();
+        ReplayLog log = ReplayLog.read(recorder.toByteArray());
+        assertEquals((turns - 1) / 4, log.getCheckpointCount());
+        assertTrue(log.getCheckpointCount() > ReplayRecorder.KEYFRAME_INTERVAL, "Game too short to test deltas");
+
+        Replay fromStart = log.seek(1);
+        for (int turn = 1; turn <= turns + 1; turn++) {
+            Replay seeked = log.seek(turn);
+            assertEquals(fromStart.getCompletedTurns(), seeked.getCompletedTurns(), "turn " + turn);
+            assertEquals(fromStart.getDecisionIndex(), seeked.getDecisionIndex(), "turn " + turn);
+            assertEquals(fromStart.fork(), seeked.fork(), "turn " + turn);
+            fromStart.step();
+        }
+        assertTrue(fromStart.isGameOver());
+        assertSameResult(original, log.seek(turns / 2).finish());
+    }
+
+    @Test
+    public void testSeekWithCountingStates() throws Exception {
+        EngineImpl engine = new EngineImpl(Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob")), 13L,
+            CountingPlayerState::new);
+        ReplayRecorder recorder = ReplayRecorder.attach(engine, 3);
+        GameResult original = engine.play();
+
+        ReplayLog log = ReplayLog.read(recorder.toByteArray());
+        assertEquals(ReplayLog.Representation.COUNTING, log.getRepresentation());
+        Replay replay = log.seek(engine.getTurn() - 2);
+        assertEquals(engine.getTurn() - 3, replay.getCompletedTurns());
+        assertSameResult(original, replay.finish());
+    }
+
+    @Test
+    public void testCheckpointDeltaRoundTrip() throws Exception {
+        int[] previous = {60, 40, 30, 5, 7, 1, 2, 3};
+        int[] next = {60, 39, 30, 5, 7, 1, 2, 3, 4, 5};
+
+        ByteSink full = new ByteSink(16);
+        ReplayCheckpoint.write(full, next, null);
+        ByteSink delta = new ByteSink(16);
+        ReplayCheckpoint.write(delta, next, previous);
+        assertTrue(delta.size() < full.size());
+
+        assertArrayEquals(next, ReplayCheckpoint.read(new ByteSource(full.toByteArray(), 0), null));
+        assertArrayEquals(next, ReplayCheckpoint.read(new ByteSource(delta.toByteArray(), 0), previous));
+        assertThrows(IOException.class, () -> ReplayCheckpoint.read(new ByteSource(delta.toByteArray(), 0), null));
+    }
+
+    @Test
+    public void testCheckpointDeltasOnlyCarryChangedCounts() throws Exception {
+        EngineImpl engine = new EngineImpl(Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob")), 9L,
+            CountingPlayerState::new);
+        for (int turn = 0; turn < 10; turn++) {
+            engine.playNextTurn();
+        }
+        int[] previous = ReplayCheckpoint.capture(engine, 2, false);
+        engine.playNextTurn();
+        int[] next = ReplayCheckpoint.capture(engine, 2, false);
+        assertEquals(CardRegistry.size() * 7, next.length);
+
+        ByteSink full = new ByteSink(64);
+        ReplayCheckpoint.write(full, next, null);
+        ByteSink delta = new ByteSink(64);
+        ReplayCheckpoint.write(delta, next, previous);
+        assertTrue(delta.size() * 2 < full.size(), delta.size() + " byte delta, " + full.size() + " bytes in full");
+        assertArrayEquals(next, ReplayCheckpoint.read(new ByteSource(delta.toByteArray(), 0), previous));
+    }
+
+    @Test
+    public void testVarintRoundTrip() throws Exception {
+        ReplayRecorder recorder = new ReplayRecorder(1L, ImmutableList.of("Alice"));
+        int[] values = {0, 1, 63, 64, 300, -1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int value : values) {
+            recorder.decisionMade(0, TurnPhase.BUY, value);
+        }
+
+        ReplayLog log = ReplayLog.read(recorder.toByteArray());
+        assertEquals(values.length, log.getDecisionCount());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], log.getDecision(i));
+        }
+    }
+}
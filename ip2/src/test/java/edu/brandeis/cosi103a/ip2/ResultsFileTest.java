@@ -0,0 +1,126 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultsFileTest {
+    private static final List<String> ROSTER = Arrays.asList("Alice", "Bob", "Carol");
+
+    @TempDir
+    Path dir;
+
+    private static Supplier<List<Player>> roster() {
+        return () -> Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob"), new SimplePlayer("Carol"));
+    }
+
+    /**
+     * Describes a result by names, scores and ending deck counts, ignoring deck order.
+     */
+    private static String describe(GameResult game) {
+        StringBuilder description = new StringBuilder();
+        for (PlayerResult player : game.getPlayerResults()) {
+            int[] counts = new int[CardRegistry.size()];
+            for (CardDefinition card : player.getEndingDeck()) {
+                counts[CardRegistry.idOf(card)]++;
+            }
+            description.append(player.getName()).append(' ').append(player.getScore())
+                .append(' ').append(Arrays.toString(counts)).append(';');
+        }
+        return description.toString();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        BatchResult batch = new BatchSimulator(roster(), 1).run(10, 7L);
+        Path file = dir.resolve("results.bin");
+        try (ResultsFileWriter writer = ResultsFileWriter.create(file, ROSTER)) {
+            for (GameResult game : batch.getGameResults()) {
+                writer.append(game);
+            }
+            assertEquals(10, writer.size());
+        }
+
+        try (ResultsFileReader reader = ResultsFileReader.open(file)) {
+            assertEquals(ROSTER, reader.getRoster());
+            assertEquals(10, reader.size());
+            for (int i = 0; i < 10; i++) {
+                GameResult expected = batch.getGameResults().get(i);
+                ResultRecord record = reader.get(i);
+                assertEquals(3, record.getPlayerCount());
+                assertEquals(expected.getPlayerResults().get(0).getName(), record.getName(0));
+                assertEquals(expected.getPlayerResults().get(0).getScore(), record.getScore(0));
+                assertEquals(describe(expected), describe(record.toGameResult()));
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.get(10));
+        }
+    }
+
+    @Test
+    public void testConcurrentAppendsFromWorkers() throws IOException {
+        List<String> expected = new ArrayList<>();
+        for (GameResult game : new BatchSimulator(roster(), 1).run(40, 11L).getGameResults()) {
+            expected.add(describe(game));
+        }
+
+        Path file = dir.resolve("results.bin");
+        try (ResultsFileWriter writer = ResultsFileWriter.create(file, ROSTER)) {
+            BatchResult batch = new BatchSimulator(roster(), 4).run(40, 11L, writer);
+            assertEquals(40, batch.getCompletedGames());
+            assertTrue(batch.getGameResults().isEmpty());
+        }
+
+        List<String> actual = new ArrayList<>();
+        try (ResultsFileReader reader = ResultsFileReader.open(file)) {
+            reader.forEach(record -> actual.add(describe(record.toGameResult())));
+        }
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testUnclosedFileSkipsUnwrittenRecords() throws IOException {
+        Path file = dir.resolve("results.bin");
+        ResultsFileWriter writer = ResultsFileWriter.create(file, ROSTER);
+        writer.append(new GameResult(ImmutableList.of(new PlayerResult("Bob", 4, ImmutableList.of(Cards.MODULE, Cards.METHOD)))));
+
+        try (ResultsFileReader reader = ResultsFileReader.open(file)) {
+            assertTrue(reader.size() > 1);
+            List<GameResult> games = new ArrayList<>();
+            reader.forEach(record -> games.add(record.toGameResult()));
+            assertEquals(1, games.size());
+            PlayerResult bob = games.get(0).getPlayerResults().get(0);
+            assertEquals("Bob", bob.getName());
+            assertEquals(4, bob.getScore());
+            assertEquals(ImmutableList.of(Cards.METHOD, Cards.MODULE), bob.getEndingDeck());
+        }
+        writer.close();
+    }
+
+    @Test
+    public void testInvalidResultsAreRejected() throws IOException {
+        Path file = dir.resolve("results.bin");
+        try (ResultsFileWriter writer = ResultsFileWriter.create(file, ROSTER)) {
+            assertThrows(IllegalArgumentException.class, () -> writer.append(
+                new GameResult(ImmutableList.of(new PlayerResult("Mallory", 0, ImmutableList.of())))));
+            assertThrows(IllegalArgumentException.class, () -> writer.append(new GameResult(ImmutableList.of())));
+            assertEquals(0, writer.size());
+        }
+        assertThrows(IllegalArgumentException.class, () -> ResultsFileWriter.create(file, Arrays.asList("Alice", "Alice")));
+
+        Files.write(file, new byte[16]);
+        assertThrows(IOException.class, () -> ResultsFileReader.open(file));
+    }
+}
@@ -0,0 +1,112 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatsAggregatorTest {
+
+    private static Supplier<List<Player>> roster() {
+        return () -> Arrays.asList(new SimplePlayer("Alice"), new SimplePlayer("Bob"));
+    }
+
+    @Test
+    public void testStreamedStatsMatchCollectedResults() {
+        BatchResult collected = new BatchSimulator(roster(), 1).run(30, 5L);
+        StatsAggregator aggregator = new StatsAggregator();
+        BatchResult streamed = new BatchSimulator(roster(), 3).run(30, 5L, aggregator);
+        assertEquals(30, streamed.getCompletedGames());
+
+        TournamentStats stats = aggregator.snapshot();
+        assertEquals(30, stats.getGames());
+        assertEquals(30, stats.getGameLengths().getTotal());
+        assertEquals(ImmutableList.of("Alice", "Bob"), stats.getPlayers().keySet().asList());
+
+        long aliceWins = 0;
+        long aliceScore = 0;
+        long aliceFrameworks = 0;
+        long turns = 0;
+        for (GameResult game : collected.getGameResults()) {
+            assertTrue(game.getTurns() > 0);
+            turns += game.getTurns();
+            int best = game.getPlayerResults().get(0).getScore();
+            for (PlayerResult player : game.getPlayerResults()) {
+                if (player.getName().equals("Alice")) {
+                    aliceWins += player.getScore() == best ? 1 : 0;
+                    aliceScore += player.getScore();
+                    aliceFrameworks += player.getEndingDeck().stream().filter(c -> c == Cards.FRAMEWORK).count();
+                }
+            }
+        }
+
+        TournamentStats.PlayerStats alice = stats.getPlayer("Alice");
+        assertEquals(30, alice.getGames());
+        assertEquals(aliceWins, alice.getWins());
+        assertEquals(aliceScore / 30.0, alice.getMeanScore(), 1e-9);
+        assertEquals(aliceFrameworks / 30.0, alice.getMeanOwnedCount(Cards.FRAMEWORK.getId()), 1e-9);
+        assertEquals(turns / 30.0, stats.getGameLengths().getMean(), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> stats.getPlayer("Carol"));
+    }
+
+    @Test
+    public void testTiesCountAsWinsForEveryone() {
+        StatsAggregator aggregator = new StatsAggregator();
+        aggregator.accept(new GameResult(ImmutableList.of(
+            new PlayerResult("Alice", 6, ImmutableList.of(Cards.FRAMEWORK)),
+            new PlayerResult("Bob", 6, ImmutableList.of(Cards.FRAMEWORK)),
+            new PlayerResult("Carol", 1, ImmutableList.of(Cards.METHOD))), 12));
+
+        TournamentStats stats = aggregator.snapshot();
+        assertEquals(1.0, stats.getPlayer("Alice").getWinRate());
+        assertEquals(1.0, stats.getPlayer("Bob").getWinRate());
+        assertEquals(0.0, stats.getPlayer("Carol").getWinRate());
+        assertEquals(1, stats.getGameLengths().getCount(12));
+    }
+
+    @Test
+    public void testFinishedThreadsAreRetired() throws InterruptedException {
+        StatsAggregator aggregator = new StatsAggregator();
+        GameResult game = new GameResult(ImmutableList.of(
+            new PlayerResult("Alice", 6, ImmutableList.of(Cards.FRAMEWORK)),
+            new PlayerResult("Bob", 2, ImmutableList.of(Cards.METHOD))), 10);
+        for (int i = 0; i < 20; i++) {
+            Thread worker = new Thread(() -> aggregator.accept(game));
+            worker.start();
+            worker.join();
+        }
+        aggregator.accept(game);
+
+        TournamentStats stats = aggregator.snapshot();
+        assertEquals(1, aggregator.accumulatorCount());
+        assertEquals(21, stats.getGames());
+        assertEquals(21, stats.getPlayer("Alice").getWins());
+        assertEquals(21, aggregator.snapshot().getPlayer("Bob").getGames());
+    }
+
+    @Test
+    public void testHistogram() {
+        Histogram histogram = new Histogram(0, 10);
+        for (int value = 1; value <= 4; value++) {
+            histogram.record(value);
+        }
+        histogram.record(50);
+
+        assertEquals(5, histogram.getTotal());
+        assertEquals(12.0, histogram.getMean());
+        assertEquals(1, histogram.getCount(10));
+        assertEquals(3, histogram.getPercentile(0.5));
+        assertEquals(10, histogram.getPercentile(1.0));
+
+        Histogram other = histogram.copy();
+        other.add(histogram);
+        assertEquals(10, other.getTotal());
+        assertEquals(5, histogram.getTotal());
+        assertThrows(IllegalArgumentException.class, () -> histogram.add(new Histogram(0, 5)));
+        assertThrows(IllegalStateException.class, () -> new Histogram(0, 1).getPercentile(0.5));
+    }
+}
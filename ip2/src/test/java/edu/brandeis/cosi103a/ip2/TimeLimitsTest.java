@@ -0,0 +1,173 @@
+package edu.brandeis.cosi103a.ip2;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeLimitsTest {
+
+    /**
+     * Plays like SimplePlayer, but hangs on its first BUY decision of every turn after the given turn.
+     */
+    private static class HangingPlayer extends SimplePlayer {
+        private final int hangAfterTurn;
+        private int turns;
+        private TurnPhase lastPhase;
+
+        HangingPlayer(String name, int hangAfterTurn) {
+            super(name);
+            this.hangAfterTurn = hangAfterTurn;
+        }
+
+        @Override
+        public int chooseOption(GameState state, ImmutableList<Decision> options) {
+            TurnPhase phase = state.getCurrentPhase();
+            if (phase == TurnPhase.ACTION && lastPhase != TurnPhase.ACTION) {
+                turns++;
+            }
+            lastPhase = phase;
+            if (phase == TurnPhase.BUY && turns > hangAfterTurn) {
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return 0;
+                }
+            }
+            return super.chooseOption(state, options);
+        }
+    }
+
+    @Test
+    public void testOverrunEndsPhase() throws PlayerViolationException {
+        EngineImpl engine = new EngineImpl(Arrays.asList(new HangingPlayer("Hung", 3), new SimplePlayer("Bob")), 4L);
+        engine.setTimeLimits(TimeLimits.perDecision(Duration.ofMillis(5), TimeLimits.Policy.END_PHASE));
+
+        GameResult result = engine.play();
+
+        assertEquals("Bob", result.getPlayerResults().get(0).getName());
+        OverrunStats hung = engine.getOverrunStats().get(0);
+        OverrunStats bob = engine.getOverrunStats().get(1);
+        assertEquals("Hung", hung.getPlayerName());
+        assertTrue(hung.getOverruns() > 0);
+        assertTrue(hung.getLongestDecision().toMillis() >= 5);
+        assertEquals(0, bob.getOverruns());
+        assertTrue(bob.getDecisions() > 0);
+    }
+
+    @Test
+    public void testOverrunForfeits() {
+        EngineImpl engine = new EngineImpl(Arrays.asList(new SimplePlayer("Alice"), new HangingPlayer("Hung", 0)), 4L);
+        engine.setTimeLimits(TimeLimits.perDecision(Duration.ofMillis(5), TimeLimits.Policy.FORFEIT));
+
+        PlayerViolationException e = assertThrows(PlayerViolationException.class, engine::play);
+        assertTrue(e.getMessage().contains("Hung"));
+        assertEquals(1, engine.getOverrunStats().get(1).getOverruns());
+    }
+
+    @Test
+    public void testAbandonedDecisionCannotForkTheGame() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Throwable> lateFork = new CompletableFuture<>();
+        AtomicBoolean hung = new AtomicBoolean();
+        Player stubborn = new SimplePlayer("Stubborn") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                if (hung.compareAndSet(false, true)) {
+                    // Ignores the interrupt, then forks after the engine has moved on
+                    boolean interrupted = false;
+                    while (release.getCount() > 0) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    try {
+                        state.fork();
+                        lateFork.complete(null);
+                    } catch (RuntimeException e) {
+                        lateFork.complete(e);
+                    }
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.chooseOption(state, options);
+            }
+        };
+        EngineImpl engine = new EngineImpl(Arrays.asList(stubborn, new SimplePlayer("Bob")), 4L);
+        engine.setTimeLimits(TimeLimits.perDecision(Duration.ofMillis(5), TimeLimits.Policy.END_PHASE));
+
+        engine.play();
+
+        OverrunStats stats = engine.getOverrunStats().get(0);
+        assertEquals(1, stats.getOverruns());
+        assertEquals(1, stats.getStuckDecisions());
+        assertTrue(stats.toString().contains("1 still running"), stats.toString());
+
+        release.countDown();
+        assertInstanceOf(IllegalStateException.class, lateFork.get(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (engine.getOverrunStats().get(0).getStuckDecisions() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, engine.getOverrunStats().get(0).getStuckDecisions());
+    }
+
+    @Test
+    public void testGameBudgetIsShared() {
+        Player slow = new SimplePlayer("Slow") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.chooseOption(state, options);
+            }
+        };
+        EngineImpl engine = new EngineImpl(Arrays.asList(slow), 4L);
+        engine.setTimeLimits(new TimeLimits(Duration.ofSeconds(1), Duration.ofMillis(30), TimeLimits.Policy.FORFEIT));
+
+        PlayerViolationException e = assertThrows(PlayerViolationException.class, engine::play);
+        assertTrue(e.getMessage().contains("budget") || e.getMessage().contains("within"), e.getMessage());
+        OverrunStats stats = engine.getOverrunStats().get(0);
+        assertTrue(stats.getTimeUsed().toMillis() >= 30);
+        assertTrue(stats.getDecisions() < 30);
+    }
+
+    @Test
+    public void testPlayerExceptionsStillViolate() {
+        Player thrower = new SimplePlayer("Thrower") {
+            @Override
+            public int chooseOption(GameState state, ImmutableList<Decision> options) {
+                throw new IllegalStateException("broken");
+            }
+        };
+        EngineImpl engine = new EngineImpl(Arrays.asList(thrower), 4L);
+        engine.setTimeLimits(TimeLimits.perDecision(Duration.ofSeconds(1), TimeLimits.Policy.FORFEIT));
+
+        PlayerViolationException e = assertThrows(PlayerViolationException.class, engine::play);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(0, engine.getOverrunStats().get(0).getOverruns());
+    }
+
+    @Test
+    public void testUnlimitedGameHasNoStats() throws PlayerViolationException {
+        EngineImpl engine = new EngineImpl(Arrays.asList(new SimplePlayer("Alice")), 4L);
+        engine.play();
+        assertTrue(engine.getOverrunStats().isEmpty());
+        assertThrows(IllegalArgumentException.class,
+            () -> TimeLimits.perDecision(Duration.ZERO, TimeLimits.Policy.END_PHASE));
+    }
+}